@@ -3,18 +3,16 @@ package com.shopit.project.config;
 import com.shopit.project.security.payload.AuthResponse;
 import com.shopit.project.security.payload.SignupRequest;
 import com.shopit.project.security.payload.SignupResponse;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
+@EnableScheduling
 public class AppConfig {
 
-    @Bean
-    public ModelMapper modelMapper() {
-        return new ModelMapper();
-    }
-
     @Bean
     public SignupResponse signupResponse() {
         return new SignupResponse();
@@ -29,4 +27,10 @@ public class AppConfig {
     public AuthResponse authResponse() {
         return new AuthResponse();
     }
+
+    @Bean
+    public HibernatePropertiesCustomizer idAllocationSizeCustomizer(
+            @Value("${spring.app.idAllocationSize}") int idAllocationSize) {
+        return properties -> properties.put(PooledSequenceGenerator.ALLOCATION_SIZE_SETTING, idAllocationSize);
+    }
 }
@@ -0,0 +1,19 @@
+package com.shopit.project.config;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Id taken from the named database sequence through Hibernate's pooled optimizer, so one sequence
+ * call covers spring.app.idAllocationSize ids and inserts can be sent as JDBC batches.
+ */
+@IdGeneratorType(PooledSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PooledSequence {
+    String value();
+}
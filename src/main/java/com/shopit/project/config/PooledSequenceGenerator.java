@@ -0,0 +1,42 @@
+package com.shopit.project.config;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.lang.reflect.Member;
+import java.util.Properties;
+
+/**
+ * Generator behind {@link PooledSequence}. The allocation size is read from the Hibernate setting
+ * {@link #ALLOCATION_SIZE_SETTING}, which AppConfig fills from spring.app.idAllocationSize.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String ALLOCATION_SIZE_SETTING = "shopit.id.allocation_size";
+
+    private static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    private final String sequenceName;
+
+    public PooledSequenceGenerator(PooledSequence config, Member member, CustomIdGeneratorCreationContext context) {
+        this.sequenceName = config.value();
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        Object allocationSize = serviceRegistry.requireService(ConfigurationService.class).getSettings()
+                .getOrDefault(ALLOCATION_SIZE_SETTING, DEFAULT_ALLOCATION_SIZE);
+
+        parameters.setProperty(SEQUENCE_PARAM, sequenceName);
+        parameters.setProperty(INCREMENT_PARAM, allocationSize.toString());
+        parameters.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
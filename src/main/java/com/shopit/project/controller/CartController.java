@@ -3,9 +3,10 @@ package com.shopit.project.controller;
 import com.shopit.project.exceptions.APIException;
 import com.shopit.project.model.Cart;
 import com.shopit.project.payload.CartDTO;
+import com.shopit.project.payload.CartMutationDTO;
 import com.shopit.project.payload.ProductDTO;
 import com.shopit.project.security.payload.MessageResponse;
-import com.shopit.project.security.services.UserDetailsImpl;
+import com.shopit.project.security.model.UserDetailsImpl;
 import com.shopit.project.service.CartService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -65,4 +66,11 @@ public class CartController {
         return new ResponseEntity<CartDTO>(cartDTO, HttpStatus.OK);
     }
 
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_SELLER', 'ROLE_USER')")
+    @PostMapping("/cart/products/batch")
+    public ResponseEntity<CartDTO> applyCartMutations(@RequestBody List<CartMutationDTO> cartMutations){
+        CartDTO cartDTO = cartService.applyCartMutations(cartMutations);
+        return new ResponseEntity<CartDTO>(cartDTO, HttpStatus.OK);
+    }
+
 }
@@ -3,6 +3,7 @@ package com.shopit.project.controller;
 import com.shopit.project.config.AppConstants;
 import com.shopit.project.payload.CategoryDTO;
 import com.shopit.project.payload.CategoryResponse;
+import com.shopit.project.payload.CategoryScrollResponse;
 import com.shopit.project.service.CategoryService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -31,6 +32,18 @@ public class CategoryController {
         return new ResponseEntity<>(categoryResponse, HttpStatus.OK);
     }
 
+    @GetMapping("/public/categories/scroll")
+    public ResponseEntity<CategoryScrollResponse> scrollCategories(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE) Integer pageSize,
+            @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_CATEGORIES_BY) String sortBy,
+            @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_ORDER) String sortOrder,
+            @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal) {
+        CategoryScrollResponse categoryScrollResponse =
+                categoryService.scrollCategories(cursor, pageSize, sortBy, sortOrder, includeTotal);
+        return new ResponseEntity<>(categoryScrollResponse, HttpStatus.OK);
+    }
+
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PostMapping("/admin/category")
     public ResponseEntity<CategoryDTO> addCategory(@Valid @RequestBody CategoryDTO categoryDTO) {
@@ -0,0 +1,26 @@
+package com.shopit.project.controller;
+
+import com.shopit.project.payload.ProductDTO;
+import com.shopit.project.service.InventoryService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api")
+public class InventoryController {
+
+    InventoryService inventoryService;
+
+    public InventoryController(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+    }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PutMapping("/admin/products/{productId}/inventory/shards/{shardCount}")
+    public ResponseEntity<ProductDTO> shardStock(@PathVariable Long productId, @PathVariable Integer shardCount) {
+        ProductDTO productDTO = inventoryService.shardStock(productId, shardCount);
+        return new ResponseEntity<>(productDTO, HttpStatus.OK);
+    }
+}
@@ -1,12 +1,15 @@
 package com.shopit.project.controller;
 
 import com.shopit.project.payload.OrderDTO;
+import com.shopit.project.config.AppConstants;
 import com.shopit.project.payload.OrderRequestDTO;
+import com.shopit.project.payload.OrderSummaryScrollResponse;
 import com.shopit.project.service.OrderService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -21,8 +24,10 @@ public class OrderController {
     }
 
     @PostMapping("/order")
-    public ResponseEntity<OrderDTO> placeOrder(@RequestBody OrderRequestDTO orderRequestDTO) {
-        OrderDTO newOrderDTO = orderService.placeOrder(orderRequestDTO);
+    public ResponseEntity<OrderDTO> placeOrder(@RequestBody OrderRequestDTO orderRequestDTO,
+                                               @RequestHeader(name = "Idempotency-Key", required = false)
+                                               String idempotencyKey) {
+        OrderDTO newOrderDTO = orderService.placeOrder(orderRequestDTO, idempotencyKey);
         return new ResponseEntity<>(newOrderDTO, HttpStatus.CREATED);
     }
 
@@ -31,4 +36,22 @@ public class OrderController {
         OrderDTO updatedOrderDTO = orderService.updateOrder(orderDTO, orderId);
         return new ResponseEntity<>(updatedOrderDTO, HttpStatus.OK);
     }
+
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_SELLER', 'ROLE_USER')")
+    @GetMapping("/orders")
+    public ResponseEntity<OrderSummaryScrollResponse> getUserOrders(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE) Integer pageSize) {
+        OrderSummaryScrollResponse orderSummaryScrollResponse = orderService.getUserOrders(cursor, pageSize);
+        return new ResponseEntity<>(orderSummaryScrollResponse, HttpStatus.OK);
+    }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/admin/orders")
+    public ResponseEntity<OrderSummaryScrollResponse> getAllOrders(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE) Integer pageSize) {
+        OrderSummaryScrollResponse orderSummaryScrollResponse = orderService.getAllOrders(cursor, pageSize);
+        return new ResponseEntity<>(orderSummaryScrollResponse, HttpStatus.OK);
+    }
 }
@@ -3,6 +3,7 @@ package com.shopit.project.controller;
 import com.shopit.project.config.AppConstants;
 import com.shopit.project.payload.ProductDTO;
 import com.shopit.project.payload.ProductResponse;
+import com.shopit.project.payload.ProductScrollResponse;
 import com.shopit.project.service.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -33,6 +34,18 @@ public class ProductController {
         return new ResponseEntity<>(productResponse, HttpStatus.OK);
     }
 
+    @GetMapping("/public/products/scroll")
+    public ResponseEntity<ProductScrollResponse> scrollProducts(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE) Integer pageSize,
+            @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_PRODUCTS_BY) String sortBy,
+            @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_ORDER) String sortOrder,
+            @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal) {
+        ProductScrollResponse productScrollResponse =
+                productService.scrollProducts(cursor, pageSize, sortBy, sortOrder, includeTotal);
+        return new ResponseEntity<>(productScrollResponse, HttpStatus.OK);
+    }
+
     @GetMapping("/public/categories/{categoryId}/products")
     public ResponseEntity<ProductResponse> getProductsByCategory(
             @PathVariable Long categoryId,
@@ -0,0 +1,18 @@
+package com.shopit.project.event;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+/**
+ * Something that happened to an order, recorded in the outbox in the transaction that made the
+ * change and handed to every OrderEventHandler after it commits.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = OrderPlaced.class, name = "OrderPlaced"),
+        @JsonSubTypes.Type(value = PaymentUpdated.class, name = "PaymentUpdated"),
+        @JsonSubTypes.Type(value = OrderStatusChanged.class, name = "OrderStatusChanged")
+})
+public sealed interface OrderEvent permits OrderPlaced, PaymentUpdated, OrderStatusChanged {
+    Long orderId();
+}
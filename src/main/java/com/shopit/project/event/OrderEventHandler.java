@@ -0,0 +1,10 @@
+package com.shopit.project.event;
+
+/**
+ * Reacts to order events. Every bean implementing this gets each event, in its own transaction
+ * per event. Delivery is at least once: when any handler throws, the event is retried for all
+ * of them, so handlers have to tolerate seeing an event again.
+ */
+public interface OrderEventHandler {
+    void handle(OrderEvent event);
+}
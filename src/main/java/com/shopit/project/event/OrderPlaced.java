@@ -0,0 +1,6 @@
+package com.shopit.project.event;
+
+import java.math.BigDecimal;
+
+public record OrderPlaced(Long orderId, Long userId, BigDecimal totalPrice) implements OrderEvent {
+}
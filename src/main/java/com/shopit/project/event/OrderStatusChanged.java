@@ -0,0 +1,4 @@
+package com.shopit.project.event;
+
+public record OrderStatusChanged(Long orderId, String orderStatus) implements OrderEvent {
+}
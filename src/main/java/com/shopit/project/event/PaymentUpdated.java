@@ -0,0 +1,4 @@
+package com.shopit.project.event;
+
+public record PaymentUpdated(Long orderId, Long paymentId, String paymentStatus) implements OrderEvent {
+}
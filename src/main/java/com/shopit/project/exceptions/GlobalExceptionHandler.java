@@ -1,6 +1,7 @@
 package com.shopit.project.exceptions;
 
 import com.shopit.project.payload.APIResponse;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.AuthenticationException;
@@ -40,6 +41,12 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<APIResponse> OptimisticLockingFailureExceptionHandler(OptimisticLockingFailureException e) {
+        APIResponse response = new APIResponse("The resource was modified concurrently, please try again", false);
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(AuthenticationException.class)
     public ResponseEntity<APIResponse> AuthenticationExceptionHandler(AuthenticationException e) {
         String message = e.getMessage();
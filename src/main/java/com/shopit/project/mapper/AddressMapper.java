@@ -0,0 +1,41 @@
+package com.shopit.project.mapper;
+
+import com.shopit.project.model.Address;
+import com.shopit.project.payload.AddressDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class AddressMapper {
+
+    public AddressDTO toDTO(Address address) {
+        AddressDTO addressDTO = new AddressDTO();
+        addressDTO.setAddressId(address.getAddressId());
+        addressDTO.setAddressLine1(address.getAddressLine1());
+        addressDTO.setAddressLine2(address.getAddressLine2());
+        addressDTO.setCity(address.getCity());
+        addressDTO.setState(address.getState());
+        addressDTO.setPincode(address.getPincode());
+        addressDTO.setCountry(address.getCountry());
+        return addressDTO;
+    }
+
+    public List<AddressDTO> toDTOs(List<Address> addresses) {
+        return addresses.stream()
+                .map(this::toDTO)
+                .toList();
+    }
+
+    public Address toEntity(AddressDTO addressDTO) {
+        Address address = new Address();
+        address.setAddressId(addressDTO.getAddressId());
+        address.setAddressLine1(addressDTO.getAddressLine1());
+        address.setAddressLine2(addressDTO.getAddressLine2());
+        address.setCity(addressDTO.getCity());
+        address.setState(addressDTO.getState());
+        address.setPincode(addressDTO.getPincode());
+        address.setCountry(addressDTO.getCountry());
+        return address;
+    }
+}
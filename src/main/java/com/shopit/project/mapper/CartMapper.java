@@ -0,0 +1,47 @@
+package com.shopit.project.mapper;
+
+import com.shopit.project.model.Cart;
+import com.shopit.project.model.CartItem;
+import com.shopit.project.payload.CartDTO;
+import com.shopit.project.payload.CartItemDTO;
+import com.shopit.project.util.MoneyUtil;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class CartMapper {
+
+    private final ProductMapper productMapper;
+
+    public CartMapper(ProductMapper productMapper) {
+        this.productMapper = productMapper;
+    }
+
+    public CartDTO toDTO(Cart cart) {
+        CartDTO cartDTO = new CartDTO();
+        cartDTO.setCartId(cart.getCartId());
+        cartDTO.setTotalPrice(cart.getTotalPrice());
+        cartDTO.setCartItems(toDTOs(cart.getCartItems()));
+        return cartDTO;
+    }
+
+    public CartItemDTO toDTO(CartItem cartItem) {
+        CartItemDTO cartItemDTO = new CartItemDTO();
+        cartItemDTO.setCartItemId(cartItem.getCartItemId());
+        if (cartItem.getProduct() != null)
+            cartItemDTO.setProduct(productMapper.toDTO(cartItem.getProduct()));
+        cartItemDTO.setQuantity(cartItem.getQuantity());
+        cartItemDTO.setProductPrice(cartItem.getProductPrice());
+        cartItemDTO.setProductDiscountPercentage(cartItem.getProductDiscountPercentage());
+        cartItemDTO.setTotalPrice(MoneyUtil.lineTotal(cartItem.getProductPrice(),
+                cartItem.getProductDiscountPercentage(), cartItem.getQuantity()));
+        return cartItemDTO;
+    }
+
+    public List<CartItemDTO> toDTOs(List<CartItem> cartItems) {
+        return cartItems.stream()
+                .map(this::toDTO)
+                .toList();
+    }
+}
@@ -0,0 +1,28 @@
+package com.shopit.project.mapper;
+
+import com.shopit.project.model.Category;
+import com.shopit.project.payload.CategoryDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class CategoryMapper {
+
+    public CategoryDTO toDTO(Category category) {
+        return new CategoryDTO(category.getCategoryId(), category.getCategoryName());
+    }
+
+    public List<CategoryDTO> toDTOs(List<Category> categories) {
+        return categories.stream()
+                .map(this::toDTO)
+                .toList();
+    }
+
+    public Category toEntity(CategoryDTO categoryDTO) {
+        Category category = new Category();
+        category.setCategoryId(categoryDTO.getCategoryId());
+        category.setCategoryName(categoryDTO.getCategoryName());
+        return category;
+    }
+}
@@ -0,0 +1,71 @@
+package com.shopit.project.mapper;
+
+import com.shopit.project.model.Order;
+import com.shopit.project.model.OrderItem;
+import com.shopit.project.model.OrderSummary;
+import com.shopit.project.payload.OrderDTO;
+import com.shopit.project.payload.OrderItemDTO;
+import com.shopit.project.payload.OrderSummaryDTO;
+import com.shopit.project.payload.ProductDTO;
+import org.springframework.stereotype.Component;
+
+@Component
+public class OrderMapper {
+
+    private final ProductMapper productMapper;
+    private final AddressMapper addressMapper;
+    private final PaymentMapper paymentMapper;
+
+    public OrderMapper(ProductMapper productMapper, AddressMapper addressMapper, PaymentMapper paymentMapper) {
+        this.productMapper = productMapper;
+        this.addressMapper = addressMapper;
+        this.paymentMapper = paymentMapper;
+    }
+
+    public OrderDTO toDTO(Order order) {
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setOrderId(order.getOrderId());
+        orderDTO.setOrderItems(order.getOrderItems().stream()
+                .map(this::toDTO)
+                .toList());
+        if (order.getPayment() != null)
+            orderDTO.setPayment(paymentMapper.toDTO(order.getPayment()));
+        if (order.getAddress() != null)
+            orderDTO.setAddress(addressMapper.toDTO(order.getAddress()));
+        orderDTO.setTotalPrice(order.getTotalPrice());
+        orderDTO.setOrderStatus(order.getOrderStatus());
+        orderDTO.setOrderDate(order.getOrderDate());
+        return orderDTO;
+    }
+
+    public OrderItemDTO toDTO(OrderItem orderItem) {
+        OrderItemDTO orderItemDTO = new OrderItemDTO();
+        orderItemDTO.setOrderItemId(orderItem.getOrderItemId());
+        if (orderItem.getProduct() != null) {
+            ProductDTO productDTO = productMapper.toDTO(orderItem.getProduct());
+            // stock is not part of an order: checkout decrements it with plain SQL, so the loaded product
+            // is stale, and a response replayed for an Idempotency-Key would report it long after
+            productDTO.setProductQuantity(null);
+            orderItemDTO.setProduct(productDTO);
+        }
+        orderItemDTO.setQuantity(orderItem.getQuantity());
+        orderItemDTO.setProductPrice(orderItem.getProductPrice());
+        orderItemDTO.setProductDiscountPercentage(orderItem.getProductDiscountPercentage());
+        return orderItemDTO;
+    }
+
+    public OrderSummaryDTO toDTO(OrderSummary orderSummary) {
+        OrderSummaryDTO orderSummaryDTO = new OrderSummaryDTO();
+        orderSummaryDTO.setOrderId(orderSummary.getOrderId());
+        orderSummaryDTO.setUserId(orderSummary.getUserId());
+        orderSummaryDTO.setUserEmail(orderSummary.getUserEmail());
+        orderSummaryDTO.setOrderDate(orderSummary.getOrderDate());
+        orderSummaryDTO.setOrderStatus(orderSummary.getOrderStatus());
+        orderSummaryDTO.setTotalPrice(orderSummary.getTotalPrice());
+        orderSummaryDTO.setItemCount(orderSummary.getItemCount());
+        orderSummaryDTO.setPaymentMethod(orderSummary.getPaymentMethod());
+        orderSummaryDTO.setPaymentStatus(orderSummary.getPaymentStatus());
+        orderSummaryDTO.setShippingCity(orderSummary.getShippingCity());
+        return orderSummaryDTO;
+    }
+}
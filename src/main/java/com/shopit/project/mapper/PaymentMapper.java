@@ -0,0 +1,33 @@
+package com.shopit.project.mapper;
+
+import com.shopit.project.model.Payment;
+import com.shopit.project.payload.PaymentDTO;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PaymentMapper {
+
+    public PaymentDTO toDTO(Payment payment) {
+        PaymentDTO paymentDTO = new PaymentDTO();
+        paymentDTO.setPaymentId(payment.getPaymentId());
+        if (payment.getOrder() != null)
+            paymentDTO.setOrderId(payment.getOrder().getOrderId());
+        paymentDTO.setPaymentMethod(payment.getPaymentMethod());
+        paymentDTO.setGatewayName(payment.getGatewayName());
+        paymentDTO.setTransactionId(payment.getTransactionId());
+        paymentDTO.setStatus(payment.getStatus());
+        paymentDTO.setResponseMessage(payment.getResponseMessage());
+        return paymentDTO;
+    }
+
+    public Payment toEntity(PaymentDTO paymentDTO) {
+        Payment payment = new Payment();
+        payment.setPaymentId(paymentDTO.getPaymentId());
+        payment.setPaymentMethod(paymentDTO.getPaymentMethod());
+        payment.setGatewayName(paymentDTO.getGatewayName());
+        payment.setTransactionId(paymentDTO.getTransactionId());
+        payment.setStatus(paymentDTO.getStatus());
+        payment.setResponseMessage(paymentDTO.getResponseMessage());
+        return payment;
+    }
+}
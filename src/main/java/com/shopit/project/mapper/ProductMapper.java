@@ -0,0 +1,66 @@
+package com.shopit.project.mapper;
+
+import com.shopit.project.model.Product;
+import com.shopit.project.payload.ProductDTO;
+import com.shopit.project.payload.ProductResponse;
+import com.shopit.project.util.MoneyUtil;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Field by field mapping between Product and ProductDTO.
+ * The special price is computed once here instead of on every read of the DTO.
+ */
+@Component
+public class ProductMapper {
+
+    public ProductDTO toDTO(Product product) {
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setProductId(product.getProductId());
+        productDTO.setProductName(product.getProductName());
+        productDTO.setProductImage(product.getProductImage());
+        productDTO.setProductDescription(product.getProductDescription());
+        productDTO.setProductQuantity(product.getProductQuantity());
+        productDTO.setProductPrice(product.getProductPrice());
+        productDTO.setProductDiscountPercentage(product.getProductDiscountPercentage());
+        productDTO.setProductSpecialPrice(
+                calculateSpecialPrice(product.getProductPrice(), product.getProductDiscountPercentage()));
+        return productDTO;
+    }
+
+    public List<ProductDTO> toDTOs(List<Product> products) {
+        return products.stream()
+                .map(this::toDTO)
+                .toList();
+    }
+
+    public ProductResponse toResponse(Page<Product> productPage) {
+        ProductResponse productResponse = new ProductResponse();
+        productResponse.setContent(toDTOs(productPage.getContent()));
+        productResponse.setPageNumber(productPage.getNumber());
+        productResponse.setPageSize(productPage.getSize());
+        productResponse.setTotalElements(productPage.getTotalElements());
+        productResponse.setTotalPages(productPage.getTotalPages());
+        productResponse.setLastPage(productPage.isLast());
+        return productResponse;
+    }
+
+    public Product toEntity(ProductDTO productDTO) {
+        Product product = new Product();
+        product.setProductId(productDTO.getProductId());
+        product.setProductName(productDTO.getProductName());
+        product.setProductImage(productDTO.getProductImage());
+        product.setProductDescription(productDTO.getProductDescription());
+        product.setProductQuantity(productDTO.getProductQuantity());
+        product.setProductPrice(MoneyUtil.normalize(productDTO.getProductPrice()));
+        product.setProductDiscountPercentage(productDTO.getProductDiscountPercentage());
+        return product;
+    }
+
+    public BigDecimal calculateSpecialPrice(BigDecimal productPrice, Double productDiscountPercentage) {
+        return MoneyUtil.specialPrice(productPrice, productDiscountPercentage);
+    }
+}
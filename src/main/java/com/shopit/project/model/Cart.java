@@ -2,11 +2,15 @@ package com.shopit.project.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.shopit.project.config.PooledSequence;
+import com.shopit.project.util.MoneyUtil;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,7 +21,7 @@ import java.util.List;
 public class Cart {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("carts_seq")
     private Long cartId;
 
     @OneToOne
@@ -29,6 +33,12 @@ public class Cart {
             CascadeType.REMOVE}, orphanRemoval = true)
     private List<CartItem> cartItems = new ArrayList<>();
 
-    private Double totalPrice = 0.0;
+    @Column(precision = 19, scale = 2)
+    private BigDecimal totalPrice = MoneyUtil.ZERO;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 
 }
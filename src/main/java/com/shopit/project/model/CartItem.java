@@ -1,9 +1,13 @@
 package com.shopit.project.model;
 
+import com.shopit.project.config.PooledSequence;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
 
 @Entity(name = "cart_item")
 @Data
@@ -11,11 +15,11 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Table(uniqueConstraints =  {
         @UniqueConstraint(columnNames = {"cart_id", "product_id"})
-})
+}, indexes = @Index(name = "ix_cart_item_product_id", columnList = "product_id"))
 public class CartItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("cart_item_seq")
     private Long cartItemId;
 
     @ManyToOne
@@ -27,7 +31,18 @@ public class CartItem {
     private Product product;
 
     private Integer quantity;
-    private Double productPrice;
+    @Column(precision = 19, scale = 2)
+    private BigDecimal productPrice;
     private Double productDiscountPercentage;
 
+    // priceVersion of the product when productPrice and productDiscountPercentage were captured
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long productPriceVersion = 0L;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
 }
@@ -0,0 +1,45 @@
+package com.shopit.project.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response of a request sent with an Idempotency-Key header, stored so a retry of the same
+ * request by the same user gets the original response instead of running it again.
+ */
+@Entity(name = "idempotency_keys")
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "ux_idempotency_keys_user_key", columnNames = {"user_id", "idempotency_key"})
+}, indexes = {
+        @Index(name = "ix_idempotency_keys_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long idempotencyKeyId;
+
+    @NotNull
+    @Column(name = "user_id")
+    private Long userId;
+
+    @NotNull
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
+    // the serialized response body, null while the request that claimed the key is still running
+    @Column(columnDefinition = "text")
+    private String response;
+
+    @NotNull
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,32 @@
+package com.shopit.project.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity(name = "inventory_shards")
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "ux_inventory_shards_product_shard", columnNames = {"product_id", "shard_index"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long shardId;
+
+    @NotNull
+    @Column(name = "product_id")
+    private Long productId;
+
+    @NotNull
+    @Column(name = "shard_index")
+    private Integer shardIndex;
+
+    @NotNull
+    private Integer quantity;
+}
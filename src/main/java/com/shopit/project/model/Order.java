@@ -1,10 +1,12 @@
 package com.shopit.project.model;
 
+import com.shopit.project.config.PooledSequence;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -16,7 +18,7 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("orders_seq")
     private Long orderId;
 
     @ManyToOne
@@ -26,7 +28,7 @@ public class Order {
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> orderItems = new ArrayList<>();
 
-    @OneToOne
+    @OneToOne(cascade = CascadeType.PERSIST)
     @JoinColumn(name = "payment_id")
     private Payment payment;
 
@@ -34,7 +36,8 @@ public class Order {
     @JoinColumn(name = "address_id")
     private Address address;
 
-    private Double totalPrice;
+    @Column(precision = 19, scale = 2)
+    private BigDecimal totalPrice;
     private String orderStatus;
     private LocalDate orderDate;
 
@@ -1,10 +1,13 @@
 package com.shopit.project.model;
 
+import com.shopit.project.config.PooledSequence;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Entity(name = "order_items")
 @Data
 @NoArgsConstructor
@@ -12,7 +15,7 @@ import lombok.NoArgsConstructor;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("order_items_seq")
     private Long orderItemId;
 
     @ManyToOne
@@ -24,6 +27,7 @@ public class OrderItem {
     private Order order;
 
     private Integer quantity;
-    private Double productPrice;
+    @Column(precision = 19, scale = 2)
+    private BigDecimal productPrice;
     private Double productDiscountPercentage;
 }
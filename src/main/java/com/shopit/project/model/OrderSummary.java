@@ -0,0 +1,56 @@
+package com.shopit.project.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One row per order with everything an order history page shows, kept in step with the order
+ * by OrderSummaryService. The indexes match the keyset sort (orderDate, orderId) descending,
+ * so a page of history is one index range scan with no joins.
+ */
+@Entity(name = "order_summaries")
+@Table(indexes = {
+        @Index(name = "ix_order_summaries_user_date", columnList = "user_id, order_date DESC, order_id DESC"),
+        @Index(name = "ix_order_summaries_date", columnList = "order_date DESC, order_id DESC")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+
+    // same id as the order it summarises
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    private String userEmail;
+
+    @Column(name = "order_date")
+    private LocalDate orderDate;
+
+    private String orderStatus;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal totalPrice;
+
+    private Integer itemCount;
+
+    private String paymentMethod;
+    private String paymentStatus;
+
+    private String shippingCity;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+}
@@ -0,0 +1,53 @@
+package com.shopit.project.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity(name = "outbox_events")
+@Table(indexes = {
+        @Index(name = "ix_outbox_events_pending", columnList = "published_at, available_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long eventId;
+
+    @NotNull
+    private String eventType;
+
+    @NotNull
+    @Column(name = "order_id")
+    private Long orderId;
+
+    // the event serialized as JSON
+    @NotNull
+    @Column(columnDefinition = "text")
+    private String payload;
+
+    @NotNull
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // not dispatched before this, pushed back after each failed attempt
+    @NotNull
+    @Column(name = "available_at")
+    private LocalDateTime availableAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    @NotNull
+    private Integer attempts = 0;
+
+    @Column(columnDefinition = "text")
+    private String lastError;
+}
@@ -1,5 +1,6 @@
 package com.shopit.project.model;
 
+import com.shopit.project.config.PooledSequence;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
@@ -13,7 +14,7 @@ import lombok.NoArgsConstructor;
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("payments_seq")
     private Long paymentId;
 
     @OneToOne(mappedBy = "payment", cascade = CascadeType.ALL)
@@ -1,12 +1,16 @@
 package com.shopit.project.model;
 
+import com.shopit.project.config.PooledSequence;
+import com.shopit.project.util.MoneyUtil;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -18,7 +22,7 @@ import java.util.List;
 @Table(name = "products")
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @PooledSequence("products_seq")
     @Column(name = "product_id")
     private Long productId;
 
@@ -32,9 +36,15 @@ public class Product {
     @Size(min = 5, message = "Product name must contain atleast 5 characters")
     private String productDescription;
     private Integer productQuantity;
-    private Double productPrice;
+    @Column(precision = 19, scale = 2)
+    private BigDecimal productPrice;
     private Double productDiscountPercentage;
 
+    // bumped whenever productPrice or productDiscountPercentage changes, cart lines older than it are stale
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long priceVersion = 0L;
+
     @ManyToOne
     @JoinColumn(name = "category_id")
     private Category category;
@@ -48,7 +58,12 @@ public class Product {
 
     private Date deleteDate;
 
-    public Double getSpecialPrice(){
-        return productPrice - (productDiscountPercentage * 0.01 * productPrice);
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    public BigDecimal getSpecialPrice(){
+        return MoneyUtil.specialPrice(productPrice, productDiscountPercentage);
     }
 }
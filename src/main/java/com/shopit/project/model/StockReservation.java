@@ -0,0 +1,41 @@
+package com.shopit.project.model;
+
+import com.shopit.project.config.PooledSequence;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity(name = "stock_reservations")
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "ux_stock_reservations_cart_product", columnNames = {"cart_id", "product_id"})
+}, indexes = {
+        @Index(name = "ix_stock_reservations_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservation {
+
+    @Id
+    @PooledSequence("stock_reservations_seq")
+    private Long reservationId;
+
+    @NotNull
+    @Column(name = "cart_id")
+    private Long cartId;
+
+    @NotNull
+    @Column(name = "product_id")
+    private Long productId;
+
+    @NotNull
+    private Integer quantity;
+
+    @NotNull
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+}
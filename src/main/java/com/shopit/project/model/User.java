@@ -1,5 +1,6 @@
 package com.shopit.project.model;
 
+import com.shopit.project.config.PooledSequence;
 import com.shopit.project.security.model.RefreshToken;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
@@ -20,7 +21,7 @@ import java.util.Set;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("users_seq")
     @Column(name = "user_id")
     private Long userId;
 
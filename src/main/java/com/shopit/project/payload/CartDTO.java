@@ -1,10 +1,12 @@
 package com.shopit.project.payload;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.shopit.project.util.MoneyUtil;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -13,7 +15,7 @@ import java.util.List;
 @AllArgsConstructor
 public class CartDTO {
     private Long cartId;
-    private Double totalPrice = 0.0;
+    private BigDecimal totalPrice = MoneyUtil.ZERO;
     private List<CartItemDTO> cartItems = new ArrayList<>();
 
 //    public Double getTotalPrice() {
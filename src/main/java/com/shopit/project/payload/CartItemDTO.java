@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,11 +18,7 @@ public class CartItemDTO {
 
     private ProductDTO product;
     private Integer quantity;
-    private Double productPrice;
+    private BigDecimal productPrice;
     private Double productDiscountPercentage;
-    private Double totalPrice;
-
-    public Double getTotalPrice() {
-        return (productPrice - (productDiscountPercentage * 0.01 * productPrice)) * quantity;
-    }
+    private BigDecimal totalPrice;
 }
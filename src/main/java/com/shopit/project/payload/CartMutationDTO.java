@@ -0,0 +1,20 @@
+package com.shopit.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartMutationDTO {
+    private Long productId;
+    private Integer quantity;
+    private CartOperation operation;
+
+    public enum CartOperation {
+        ADD,
+        UPDATE,
+        DELETE
+    }
+}
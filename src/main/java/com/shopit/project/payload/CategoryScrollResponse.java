@@ -0,0 +1,19 @@
+package com.shopit.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryScrollResponse {
+    private List<CategoryDTO> content;
+
+    private String nextCursor;
+    private Integer pageSize;
+    private Long totalElements;
+    private boolean lastPage;
+}
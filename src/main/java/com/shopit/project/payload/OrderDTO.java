@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -18,7 +19,7 @@ public class OrderDTO {
     private List<OrderItemDTO> orderItems;
     private PaymentDTO payment;
     private AddressDTO address;
-    private Double totalPrice;
+    private BigDecimal totalPrice;
     private String orderStatus;
     private LocalDate orderDate;
 }
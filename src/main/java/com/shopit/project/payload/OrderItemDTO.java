@@ -2,11 +2,14 @@ package com.shopit.project.payload;
 
 import com.shopit.project.model.Order;
 import com.shopit.project.model.Product;
+import com.shopit.project.util.MoneyUtil;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,11 +17,11 @@ public class OrderItemDTO {
     private Long orderItemId;
     private ProductDTO product;
     private Integer quantity;
-    private Double productPrice;
+    private BigDecimal productPrice;
     private Double productDiscountPercentage;
 
-    public Double getTotalPrice(){
-        return (productPrice - (productPrice * 0.01 * productDiscountPercentage)) * quantity;
+    public BigDecimal getTotalPrice(){
+        return MoneyUtil.lineTotal(productPrice, productDiscountPercentage, quantity);
     }
 
 }
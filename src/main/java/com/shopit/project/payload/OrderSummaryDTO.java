@@ -0,0 +1,24 @@
+package com.shopit.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDTO {
+    private Long orderId;
+    private Long userId;
+    private String userEmail;
+    private LocalDate orderDate;
+    private String orderStatus;
+    private BigDecimal totalPrice;
+    private Integer itemCount;
+    private String paymentMethod;
+    private String paymentStatus;
+    private String shippingCity;
+}
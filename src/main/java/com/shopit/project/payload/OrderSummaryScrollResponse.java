@@ -0,0 +1,18 @@
+package com.shopit.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderSummaryScrollResponse {
+    private List<OrderSummaryDTO> content;
+
+    private String nextCursor;
+    private Integer pageSize;
+    private boolean lastPage;
+}
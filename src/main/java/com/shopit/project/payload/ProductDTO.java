@@ -1,9 +1,12 @@
 package com.shopit.project.payload;
 
+import com.shopit.project.util.MoneyUtil;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -13,11 +16,8 @@ public class ProductDTO {
     private String productImage;
     private String productDescription;
     private Integer productQuantity;
-    private Double productPrice;
+    private Integer productAvailableToSell;
+    private BigDecimal productPrice;
     private Double productDiscountPercentage;
-    private Double productSpecialPrice = 0.0;
-
-    public Double getProductSpecialPrice() {
-        return productPrice - (productDiscountPercentage * 0.01 * productPrice);
-    }
+    private BigDecimal productSpecialPrice = MoneyUtil.ZERO;
 }
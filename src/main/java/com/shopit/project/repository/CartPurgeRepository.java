@@ -0,0 +1,13 @@
+package com.shopit.project.repository;
+
+import java.util.List;
+
+public interface CartPurgeRepository {
+
+    /**
+     * Deletes up to {@code limit} cart lines of the product, lowest cart_item_id first, in one DELETE.
+     *
+     * @return the cart id of every line deleted, so its size is the number of lines purged
+     */
+    List<Long> deleteCartItemsOfProduct(Long productId, int limit);
+}
@@ -0,0 +1,24 @@
+package com.shopit.project.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+public class CartPurgeRepositoryImpl implements CartPurgeRepository {
+
+    private static final String DELETE_CART_ITEMS_SQL = "DELETE FROM cart_item " +
+            "WHERE cart_item_id IN (SELECT cart_item_id FROM cart_item WHERE product_id = ? " +
+            "ORDER BY cart_item_id LIMIT ?) " +
+            "RETURNING cart_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CartPurgeRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> deleteCartItemsOfProduct(Long productId, int limit) {
+        return jdbcTemplate.queryForList(DELETE_CART_ITEMS_SQL, Long.class, productId, limit);
+    }
+}
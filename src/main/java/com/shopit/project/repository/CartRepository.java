@@ -4,10 +4,15 @@ import com.shopit.project.model.Cart;
 import com.shopit.project.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
 
     Cart findByUser(User user);
+
+    // cart, lines and their products in one select, for checkout which touches all of them
+    @Query("SELECT c FROM carts c LEFT JOIN FETCH c.cartItems ci LEFT JOIN FETCH ci.product WHERE c.user = :user")
+    Cart findCartWithItemsByUser(@Param("user") User user);
 }
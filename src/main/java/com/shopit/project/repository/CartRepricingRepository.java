@@ -0,0 +1,25 @@
+package com.shopit.project.repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public interface CartRepricingRepository {
+
+    /**
+     * Sets the captured price, discount and price version of up to {@code limit} cart lines of the
+     * product that were captured at an older price version, lowest cart_item_id first, in one UPDATE.
+     *
+     * @return the cart id of every line updated, so its size is the number of lines repriced
+     */
+    List<Long> repriceCartItems(Long productId, BigDecimal productPrice, Double productDiscountPercentage,
+                                Long priceVersion, int limit);
+
+    /**
+     * Recomputes the total of each given cart from its lines in one UPDATE, rounding each unit price
+     * the same way as MoneyUtil.
+     *
+     * @return the number of carts updated
+     */
+    int recomputeCartTotals(Collection<Long> cartIds);
+}
@@ -0,0 +1,49 @@
+package com.shopit.project.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public class CartRepricingRepositoryImpl implements CartRepricingRepository {
+
+    private static final String REPRICE_CART_ITEMS_SQL = "UPDATE cart_item " +
+            "SET product_price = ?, product_discount_percentage = ?, product_price_version = ?, " +
+            "version = version + 1 " +
+            "WHERE cart_item_id IN (SELECT cart_item_id FROM cart_item WHERE product_id = ? " +
+            "AND product_price_version < ? ORDER BY cart_item_id LIMIT ?) " +
+            "RETURNING cart_id";
+
+    // Same rounding as MoneyUtil.specialPrice. The discount goes through text because float8::numeric keeps
+    // only 15 significant digits, while BigDecimal.valueOf uses the shortest exact form, which float8 text
+    // output also gives when extra_float_digits > 0 (the JDBC driver sets 3). Multiplying by 0.01 keeps
+    // every digit, numeric division would round the product before ROUND sees it.
+    private static final String RECOMPUTE_CART_TOTALS_SQL = "UPDATE carts c " +
+            "SET total_price = COALESCE((SELECT SUM(ROUND(ci.product_price * " +
+            "(100 - COALESCE(ci.product_discount_percentage, 0)::text::numeric) * 0.01, 2) * ci.quantity) " +
+            "FROM cart_item ci WHERE ci.cart_id = c.cart_id), 0), version = c.version + 1 " +
+            "WHERE c.cart_id = ANY (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CartRepricingRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> repriceCartItems(Long productId, BigDecimal productPrice, Double productDiscountPercentage,
+                                       Long priceVersion, int limit) {
+        return jdbcTemplate.queryForList(REPRICE_CART_ITEMS_SQL, Long.class, productPrice, productDiscountPercentage,
+                priceVersion, productId, priceVersion, limit);
+    }
+
+    @Override
+    public int recomputeCartTotals(Collection<Long> cartIds) {
+        if (cartIds.isEmpty())
+            return 0;
+
+        return jdbcTemplate.update(RECOMPUTE_CART_TOTALS_SQL, preparedStatement -> preparedStatement.setArray(1,
+                preparedStatement.getConnection().createArrayOf("bigint", cartIds.toArray())));
+    }
+}
@@ -1,8 +1,12 @@
 package com.shopit.project.repository;
 
 import com.shopit.project.model.Category;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -12,4 +16,6 @@ import java.util.Optional;
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByCategoryName(String categoryName);
     Page<Category> findByDeleteDateIsNull(Pageable pageable);
+    Window<Category> findByDeleteDateIsNull(ScrollPosition position, Sort sort, Limit limit);
+    long countByDeleteDateIsNull();
 }
@@ -0,0 +1,24 @@
+package com.shopit.project.repository;
+
+import com.shopit.project.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+    Optional<IdempotencyKey> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE idempotency_key_id IN " +
+            "(SELECT idempotency_key_id FROM idempotency_keys WHERE created_at < :cutoff LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+}
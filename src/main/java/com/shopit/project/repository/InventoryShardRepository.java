@@ -0,0 +1,24 @@
+package com.shopit.project.repository;
+
+import com.shopit.project.model.InventoryShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InventoryShardRepository extends JpaRepository<InventoryShard, Long>, InventoryShardStockRepository {
+    List<InventoryShard> findByProductIdIn(Collection<Long> productIds);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE products p SET product_quantity = s.quantity, version = p.version + 1 " +
+            "FROM (SELECT product_id, SUM(quantity) AS quantity FROM inventory_shards GROUP BY product_id) s " +
+            "WHERE p.product_id = s.product_id AND p.product_quantity IS DISTINCT FROM s.quantity",
+            nativeQuery = true)
+    int reconcileProductQuantities();
+}
@@ -0,0 +1,39 @@
+package com.shopit.project.repository;
+
+public interface InventoryShardStockRepository {
+
+    record ShardedStock(int quantity, int shardCount) {
+    }
+
+    /**
+     * Takes the quantity from one shard if that shard alone still holds enough.
+     *
+     * @return 1 if the shard was decremented, 0 otherwise
+     */
+    int decrementShard(Long productId, int shardIndex, int quantity);
+
+    /**
+     * Locks every shard of the product and takes the quantity from as many of them as needed.
+     * If the product no longer has shards, the quantity is taken from the product row instead.
+     *
+     * @return 1 if the shards together held enough, 0 (and nothing changed) otherwise
+     */
+    int decrementAcrossShards(Long productId, int quantity);
+
+    /**
+     * Locks the product row and its shards for the rest of the transaction.
+     *
+     * @return the stock of the product, the sum of its shards when it has any
+     */
+    ShardedStock lockStock(Long productId);
+
+    /**
+     * Replaces the shards of the product with shardCount shards that split the quantity evenly.
+     * A shardCount of 1 or less only removes the shards.
+     */
+    void replaceShards(Long productId, int shardCount, int quantity);
+
+    void deleteShards(Long productId);
+
+    void updateProductQuantity(Long productId, int quantity);
+}
@@ -0,0 +1,108 @@
+package com.shopit.project.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InventoryShardStockRepositoryImpl implements InventoryShardStockRepository {
+
+    private record Shard(int shardIndex, int quantity) {
+    }
+
+    private static final String DECREMENT_SHARD_SQL = "UPDATE inventory_shards " +
+            "SET quantity = quantity - ? " +
+            "WHERE product_id = ? AND shard_index = ? AND quantity >= ?";
+
+    private static final String LOCK_SHARDS_SQL = "SELECT shard_index, quantity FROM inventory_shards " +
+            "WHERE product_id = ? ORDER BY shard_index FOR UPDATE";
+
+    private static final String SET_SHARD_SQL = "UPDATE inventory_shards SET quantity = ? " +
+            "WHERE product_id = ? AND shard_index = ?";
+
+    private static final String LOCK_PRODUCT_SQL = "SELECT product_quantity FROM products " +
+            "WHERE product_id = ? FOR UPDATE";
+
+    private static final String DELETE_SHARDS_SQL = "DELETE FROM inventory_shards WHERE product_id = ?";
+
+    private static final String INSERT_SHARD_SQL = "INSERT INTO inventory_shards (product_id, shard_index, quantity) " +
+            "VALUES (?, ?, ?)";
+
+    private static final String UPDATE_PRODUCT_QUANTITY_SQL = "UPDATE products " +
+            "SET product_quantity = ?, version = version + 1 WHERE product_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InventoryShardStockRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int decrementShard(Long productId, int shardIndex, int quantity) {
+        return jdbcTemplate.update(DECREMENT_SHARD_SQL, quantity, productId, shardIndex, quantity);
+    }
+
+    @Override
+    public int decrementAcrossShards(Long productId, int quantity) {
+        List<Shard> shards = lockShards(productId);
+        // the shards were folded back into the product row after the caller read them
+        if (shards.isEmpty())
+            return jdbcTemplate.update(ProductStockRepositoryImpl.DECREMENT_STOCK_SQL, quantity, productId, quantity);
+
+        if (shards.stream().mapToLong(Shard::quantity).sum() < quantity)
+            return 0;
+
+        List<Object[]> batchArgs = new ArrayList<>();
+        int remaining = quantity;
+        for (Shard shard : shards) {
+            if (remaining == 0)
+                break;
+            int taken = Math.min(shard.quantity(), remaining);
+            if (taken > 0) {
+                batchArgs.add(new Object[]{shard.quantity() - taken, productId, shard.shardIndex()});
+                remaining -= taken;
+            }
+        }
+        jdbcTemplate.batchUpdate(SET_SHARD_SQL, batchArgs);
+        return 1;
+    }
+
+    @Override
+    public ShardedStock lockStock(Long productId) {
+        Integer productQuantity = jdbcTemplate.queryForObject(LOCK_PRODUCT_SQL, Integer.class, productId);
+        List<Shard> shards = lockShards(productId);
+        if (shards.isEmpty())
+            return new ShardedStock(productQuantity == null ? 0 : productQuantity, 0);
+
+        return new ShardedStock(shards.stream().mapToInt(Shard::quantity).sum(), shards.size());
+    }
+
+    @Override
+    public void replaceShards(Long productId, int shardCount, int quantity) {
+        deleteShards(productId);
+        if (shardCount <= 1)
+            return;
+
+        List<Object[]> batchArgs = new ArrayList<>();
+        for (int shardIndex = 0; shardIndex < shardCount; shardIndex++) {
+            int shardQuantity = quantity / shardCount + (shardIndex < quantity % shardCount ? 1 : 0);
+            batchArgs.add(new Object[]{productId, shardIndex, shardQuantity});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SHARD_SQL, batchArgs);
+    }
+
+    @Override
+    public void deleteShards(Long productId) {
+        jdbcTemplate.update(DELETE_SHARDS_SQL, productId);
+    }
+
+    @Override
+    public void updateProductQuantity(Long productId, int quantity) {
+        jdbcTemplate.update(UPDATE_PRODUCT_QUANTITY_SQL, quantity, productId);
+    }
+
+    private List<Shard> lockShards(Long productId) {
+        return jdbcTemplate.query(LOCK_SHARDS_SQL,
+                (rs, rowNum) -> new Shard(rs.getInt("shard_index"), rs.getInt("quantity")), productId);
+    }
+}
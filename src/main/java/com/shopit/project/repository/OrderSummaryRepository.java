@@ -0,0 +1,33 @@
+package com.shopit.project.repository;
+
+import com.shopit.project.model.OrderSummary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Order history pages, newest first. The "after" queries continue from the last row of the previous
+ * page with a row value comparison, which Postgres turns into a range bound on the
+ * (order_date, order_id) indexes instead of a filter over everything before the cursor.
+ */
+@Repository
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+
+    @Query("SELECT s FROM order_summaries s WHERE s.userId = :userId ORDER BY s.orderDate DESC, s.orderId DESC")
+    List<OrderSummary> findUserHistory(Long userId, Limit limit);
+
+    @Query("SELECT s FROM order_summaries s WHERE s.userId = :userId AND (s.orderDate, s.orderId) < (:orderDate, :orderId) " +
+            "ORDER BY s.orderDate DESC, s.orderId DESC")
+    List<OrderSummary> findUserHistoryAfter(Long userId, LocalDate orderDate, Long orderId, Limit limit);
+
+    @Query("SELECT s FROM order_summaries s ORDER BY s.orderDate DESC, s.orderId DESC")
+    List<OrderSummary> findHistory(Limit limit);
+
+    @Query("SELECT s FROM order_summaries s WHERE (s.orderDate, s.orderId) < (:orderDate, :orderId) " +
+            "ORDER BY s.orderDate DESC, s.orderId DESC")
+    List<OrderSummary> findHistoryAfter(LocalDate orderDate, Long orderId, Limit limit);
+}
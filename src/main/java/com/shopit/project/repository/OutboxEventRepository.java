@@ -0,0 +1,36 @@
+package com.shopit.project.repository;
+
+import com.shopit.project.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // SKIP LOCKED lets several dispatcher threads (or instances) drain the outbox without waiting on each other
+    @Query(value = "SELECT * FROM outbox_events WHERE published_at IS NULL AND available_at <= :now " +
+            "AND attempts < :maxAttempts ORDER BY event_id LIMIT 1 FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    Optional<OutboxEvent> lockNextPending(@Param("now") LocalDateTime now, @Param("maxAttempts") int maxAttempts);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE outbox_events e SET e.attempts = e.attempts + 1, e.availableAt = :retryAt, e.lastError = :error " +
+            "WHERE e.eventId = :eventId")
+    int recordFailure(@Param("eventId") Long eventId, @Param("retryAt") LocalDateTime retryAt,
+                      @Param("error") String error);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM outbox_events WHERE event_id IN " +
+            "(SELECT event_id FROM outbox_events WHERE published_at < :cutoff LIMIT :batchSize)",
+            nativeQuery = true)
+    int deletePublishedBatch(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+}
@@ -2,17 +2,41 @@ package com.shopit.project.repository;
 
 import com.shopit.project.model.Category;
 import com.shopit.project.model.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductStockRepository {
     Optional<Product> findByProductName(String productName);
     Page<Product> findByDeleteDateIsNull(Pageable pageable);
+    Window<Product> findByDeleteDateIsNull(ScrollPosition position, Sort sort, Limit limit);
+    long countByDeleteDateIsNull();
     Page<Product> findByProductNameContainingIgnoreCaseAndDeleteDateIsNull(String keyword, Pageable pageable);
     Page<Product> findByCategoryAndDeleteDateIsNull(Category category, Pageable pageable);
+
+    // needs the search_vector column and indexes from db/product-fulltext-search.sql;
+    // the ranking is part of the query, so the pageable must be unsorted
+    @Query(value = "SELECT p.* FROM products p " +
+            "WHERE p.delete_date IS NULL " +
+            "AND (p.search_vector @@ websearch_to_tsquery('english', :keyword) " +
+            "OR p.product_name ILIKE :pattern) " +
+            "ORDER BY ts_rank(p.search_vector, websearch_to_tsquery('english', :keyword)) DESC, " +
+            "similarity(p.product_name, :keyword) DESC, p.product_id",
+            countQuery = "SELECT count(*) FROM products p " +
+                    "WHERE p.delete_date IS NULL " +
+                    "AND (p.search_vector @@ websearch_to_tsquery('english', :keyword) " +
+                    "OR p.product_name ILIKE :pattern)",
+            nativeQuery = true)
+    Page<Product> searchByFullText(@Param("keyword") String keyword, @Param("pattern") String pattern,
+                                   Pageable pageable);
 }
@@ -0,0 +1,17 @@
+package com.shopit.project.repository;
+
+import java.util.List;
+
+public interface ProductStockRepository {
+
+    record StockDecrement(Long productId, int quantity) {
+    }
+
+    /**
+     * Atomically takes the requested quantities out of stock with one conditional UPDATE per line,
+     * sent to the database as a single JDBC batch. A line is only applied when enough stock is left.
+     *
+     * @return the number of rows updated for each decrement, in the order given; 0 means out of stock
+     */
+    int[] decrementStock(List<StockDecrement> decrements);
+}
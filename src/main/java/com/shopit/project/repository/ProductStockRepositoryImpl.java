@@ -0,0 +1,29 @@
+package com.shopit.project.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    static final String DECREMENT_STOCK_SQL = "UPDATE products " +
+            "SET product_quantity = product_quantity - ?, version = version + 1 " +
+            "WHERE product_id = ? AND product_quantity >= ? AND delete_date IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductStockRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] decrementStock(List<StockDecrement> decrements) {
+        if (decrements.isEmpty())
+            return new int[0];
+
+        List<Object[]> batchArgs = decrements.stream()
+                .map(decrement -> new Object[]{decrement.quantity(), decrement.productId(), decrement.quantity()})
+                .toList();
+        return jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, batchArgs);
+    }
+}
@@ -2,12 +2,23 @@ package com.shopit.project.repository;
 
 import com.shopit.project.security.model.RefreshToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
     Optional<RefreshToken> findByRefreshToken(String refreshToken);
 
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE refresh_token_id IN " +
+            "(SELECT refresh_token_id FROM refresh_tokens WHERE expiry_date < :now LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
 }
@@ -0,0 +1,45 @@
+package com.shopit.project.repository;
+
+import com.shopit.project.model.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+    Optional<StockReservation> findByCartIdAndProductId(Long cartId, Long productId);
+    List<StockReservation> findByCartIdAndProductIdIn(Long cartId, Collection<Long> productIds);
+    List<StockReservation> findByExpiresAtAfter(LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM stock_reservations r WHERE r.cartId = :cartId AND r.productId IN :productIds")
+    int deleteByCartIdAndProductIdIn(@Param("cartId") Long cartId, @Param("productIds") Collection<Long> productIds);
+
+    @Modifying
+    @Query("DELETE FROM stock_reservations r WHERE r.productId = :productId AND r.cartId IN :cartIds")
+    int deleteByProductIdAndCartIdIn(@Param("productId") Long productId, @Param("cartIds") Collection<Long> cartIds);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM stock_reservations r WHERE r.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+
+    @Modifying
+    @Query("DELETE FROM stock_reservations r WHERE r.cartId = :cartId")
+    int deleteByCartId(@Param("cartId") Long cartId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM stock_reservations WHERE reservation_id IN " +
+            "(SELECT reservation_id FROM stock_reservations WHERE expires_at < :now LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+}
@@ -3,6 +3,8 @@ package com.shopit.project.security.config;
 import com.shopit.project.security.entrypoint.JwtAuthenticationEntryPoint;
 import com.shopit.project.security.filter.JwtFilter;
 import com.shopit.project.security.service.JwtService;
+import com.shopit.project.security.service.PrincipalCacheService;
+import com.shopit.project.security.service.TokenRevocationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -34,18 +36,27 @@ public class WebSecurityConfig {
 
     private final JwtService jwtService; //JWT utilities class
 
+    private final PrincipalCacheService principalCacheService;
+
+    private final TokenRevocationService tokenRevocationService;
+
     @Autowired
     public WebSecurityConfig(UserDetailsServiceImpl userDetailsService,
                              JwtAuthenticationEntryPoint jwtAuthEntryPoint,
-                             JwtService jwtService) {
+                             JwtService jwtService,
+                             PrincipalCacheService principalCacheService,
+                             TokenRevocationService tokenRevocationService) {
         this.userDetailsService = userDetailsService;
         this.jwtAuthEntryPoint = jwtAuthEntryPoint;
         this.jwtService = jwtService;
+        this.principalCacheService = principalCacheService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Bean
-    public JwtFilter authenticationJwtTokenFilter(JwtService jwtService, UserDetailsServiceImpl userDetailsService) {
-        return new JwtFilter(jwtService, userDetailsService);
+    public JwtFilter authenticationJwtTokenFilter(JwtService jwtService, PrincipalCacheService principalCacheService,
+                                                  TokenRevocationService tokenRevocationService) {
+        return new JwtFilter(jwtService, principalCacheService, tokenRevocationService);
     }
 
 
@@ -95,7 +106,7 @@ public class WebSecurityConfig {
 
         http.authenticationProvider(authenticationProvider());
 
-        http.addFilterBefore(authenticationJwtTokenFilter(jwtService, userDetailsService), UsernamePasswordAuthenticationFilter.class);
+        http.addFilterBefore(authenticationJwtTokenFilter(jwtService, principalCacheService, tokenRevocationService), UsernamePasswordAuthenticationFilter.class);
 
         http.headers(headers -> headers.frameOptions(
                 frameOptions -> frameOptions.sameOrigin()
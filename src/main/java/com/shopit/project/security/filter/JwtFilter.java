@@ -1,7 +1,10 @@
 package com.shopit.project.security.filter;
 
+import com.shopit.project.exceptions.APIException;
 import com.shopit.project.security.service.JwtService;
-import com.shopit.project.security.service.UserDetailsServiceImpl;
+import com.shopit.project.security.service.PrincipalCacheService;
+import com.shopit.project.security.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,12 +26,16 @@ public class JwtFilter extends OncePerRequestFilter { //executed only once for a
 
     private final JwtService jwtService;
 
-    private final UserDetailsServiceImpl userDetailsService;
+    private final PrincipalCacheService principalCacheService;
+
+    private final TokenRevocationService tokenRevocationService;
 
     @Autowired
-    public JwtFilter(JwtService jwtService, UserDetailsServiceImpl userDetailsService) {
+    public JwtFilter(JwtService jwtService, PrincipalCacheService principalCacheService,
+                     TokenRevocationService tokenRevocationService) {
         this.jwtService = jwtService;
-        this.userDetailsService = userDetailsService;
+        this.principalCacheService = principalCacheService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     private static final Logger logger = LoggerFactory.getLogger(JwtFilter.class);
@@ -48,9 +55,19 @@ public class JwtFilter extends OncePerRequestFilter { //executed only once for a
 
         String jwt = parseJwt(request);
 
-        String username = jwtService.getUserNameFromJwt(jwt);
+        // Single verify-and-extract pass over the token
+        Claims claims = jwtService.getClaimsFromJwt(jwt);
+
+        String username = claims.getSubject();
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        // Stateless tokens carry the roles, so only the revocation list is consulted
+        UserDetails userDetails = jwtService.getUserDetailsFromClaims(claims);
+        if (userDetails != null) {
+            if (tokenRevocationService.isRevoked(username, jwtService.getIssuedAtFromClaims(claims)))
+                throw new APIException("JWT token has been revoked");
+        } else {
+            userDetails = principalCacheService.getPrincipal(username);
+        }
 
         UsernamePasswordAuthenticationToken authentication =
                 new UsernamePasswordAuthenticationToken(userDetails,
@@ -70,7 +87,6 @@ public class JwtFilter extends OncePerRequestFilter { //executed only once for a
     private String parseJwt(HttpServletRequest request) {
         String jwt = jwtService.getJwtFromHeader(request);
         logger.debug("AuthTokenFilter.java: {}", jwt);
-        jwtService.validateJwt(jwt);
         return jwt;
     }
 }
@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity(name = "refresh_tokens")
+@Table(indexes = @Index(name = "ix_refresh_tokens_expiry_date", columnList = "expiry_date"))
 @Data
 @NoArgsConstructor
 public class RefreshToken {
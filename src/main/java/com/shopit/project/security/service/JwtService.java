@@ -1,15 +1,27 @@
 package com.shopit.project.security.service;
 
+import com.shopit.project.security.model.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 
+import java.util.Date;
+
 public interface JwtService {
     String getJwtFromHeader(HttpServletRequest request);
 
     String generateJwtFromUsername(String username);
 
+    String generateJwtFromUserDetails(UserDetailsImpl userDetails);
+
     String getUserNameFromJwt(String jwt);
 
     void validateJwt(String jwt);
 
+    Claims getClaimsFromJwt(String jwt);
+
+    UserDetailsImpl getUserDetailsFromClaims(Claims claims);
+
+    Date getIssuedAtFromClaims(Claims claims);
+
 
 }
@@ -1,7 +1,10 @@
 package com.shopit.project.security.service;
 
 import com.shopit.project.exceptions.APIException;
+import com.shopit.project.security.model.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
@@ -11,26 +14,44 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Value;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
-import java.security.Key;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Date;
+import java.util.List;
 
 @Service
 public class JwtServiceImpl implements JwtService {
     private static final Logger logger = LoggerFactory.getLogger(JwtServiceImpl.class);
 
+    private static final String USER_ID_CLAIM = "uid";
+
+    private static final String ROLES_CLAIM = "roles";
+
+    // "iat" has second precision, revocation checks need the exact issue time
+    private static final String ISSUED_AT_MS_CLAIM = "iat_ms";
+
     @Value("${spring.app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
-    private final String jwtSecret;
+    // When enabled, user id and roles travel as signed claims and JwtFilter skips the user lookup
+    @Value("${spring.app.jwtStatelessAuthorization}")
+    private boolean statelessAuthorization;
+
+    // Both are immutable and thread-safe, so they are built once instead of per token
+    private final SecretKey key;
+
+    private final JwtParser jwtParser;
 
     public JwtServiceImpl() {
-        jwtSecret = generateSecretKey();
+        String jwtSecret = generateSecretKey();
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        jwtParser = Jwts.parser().verifyWith(key).build();
     }
 
     private String generateSecretKey(){
@@ -43,11 +64,6 @@ public class JwtServiceImpl implements JwtService {
         }
     }
 
-    private Key key() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     public String getJwtFromHeader(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         logger.debug("Authorization Header: {}", bearerToken);
@@ -62,20 +78,42 @@ public class JwtServiceImpl implements JwtService {
                 .subject(username)
                 .issuedAt(new Date())
                 .expiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key())
+                .signWith(key)
+                .compact();
+    }
+
+    public String generateJwtFromUserDetails(UserDetailsImpl userDetails) {
+        if (!statelessAuthorization) {
+            return generateJwtFromUsername(userDetails.getUsername());
+        }
+
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+
+        Date issuedAt = new Date();
+        return Jwts.builder()
+                .subject(userDetails.getUsername())
+                .claim(USER_ID_CLAIM, userDetails.getUserId())
+                .claim(ROLES_CLAIM, roles)
+                .claim(ISSUED_AT_MS_CLAIM, issuedAt.getTime())
+                .issuedAt(issuedAt)
+                .expiration(new Date(issuedAt.getTime() + jwtExpirationMs))
+                .signWith(key)
                 .compact();
     }
 
     public String getUserNameFromJwt(String jwt) {
-        return Jwts.parser()
-                .verifyWith((SecretKey) key())
-                .build().parseSignedClaims(jwt)
-                .getPayload().getSubject();
+        return getClaimsFromJwt(jwt).getSubject();
     }
 
     public void validateJwt(String jwt) {
+        getClaimsFromJwt(jwt);
+    }
+
+    public Claims getClaimsFromJwt(String jwt) {
         try {
-            Jwts.parser().verifyWith((SecretKey) key()).build().parseSignedClaims(jwt);
+            return jwtParser.parseSignedClaims(jwt).getPayload();
         } catch (MalformedJwtException e) {
             throw new APIException("Invalid JWT token: " + e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -89,4 +127,25 @@ public class JwtServiceImpl implements JwtService {
         }
     }
 
+    public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+        if (!statelessAuthorization || !claims.containsKey(ROLES_CLAIM))
+            return null;
+
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString()))
+                .toList();
+
+        return new UserDetailsImpl(claims.get(USER_ID_CLAIM, Long.class),
+                claims.getSubject(),
+                null,
+                null,
+                authorities);
+    }
+
+    public Date getIssuedAtFromClaims(Claims claims) {
+        Long issuedAtMs = claims.get(ISSUED_AT_MS_CLAIM, Long.class);
+        return issuedAtMs != null ? new Date(issuedAtMs) : claims.getIssuedAt();
+    }
+
 }
\ No newline at end of file
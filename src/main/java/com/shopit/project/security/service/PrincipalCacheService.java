@@ -0,0 +1,11 @@
+package com.shopit.project.security.service;
+
+import org.springframework.security.core.userdetails.UserDetails;
+
+public interface PrincipalCacheService {
+    UserDetails getPrincipal(String username);
+
+    void evictPrincipal(String username);
+
+    void evictAllPrincipals();
+}
@@ -0,0 +1,57 @@
+package com.shopit.project.security.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Bounded, TTL based cache of authenticated principals keyed by username.
+ * JwtFilter reads through it so that a warm request does not hit the database
+ * just to rebuild the same UserDetails.
+ * Entries must be evicted whenever the user logs out or the user's roles change.
+ */
+@Service
+public class PrincipalCacheServiceImpl implements PrincipalCacheService {
+
+    private static final String CACHE_NAME = "principals";
+
+    private final UserDetailsServiceImpl userDetailsService;
+
+    private final Cache<String, UserDetails> principalCache;
+
+    @Autowired
+    public PrincipalCacheServiceImpl(UserDetailsServiceImpl userDetailsService,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${spring.app.principalCacheMaxSize}") long maxSize,
+                                     @Value("${spring.app.principalCacheTtlSeconds}") long ttlSeconds) {
+        this.userDetailsService = userDetailsService;
+        this.principalCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principalCache, CACHE_NAME);
+    }
+
+    @Override
+    public UserDetails getPrincipal(String username) {
+        return principalCache.get(username, userDetailsService::loadUserByUsername);
+    }
+
+    @Override
+    public void evictPrincipal(String username) {
+        principalCache.invalidate(username);
+    }
+
+    @Override
+    public void evictAllPrincipals() {
+        principalCache.invalidateAll();
+    }
+}
@@ -2,6 +2,7 @@ package com.shopit.project.security.service;
 
 import com.shopit.project.exceptions.APIException;
 import com.shopit.project.security.model.RefreshToken;
+import com.shopit.project.security.model.UserDetailsImpl;
 import com.shopit.project.model.User;
 import com.shopit.project.repository.RefreshTokenRepository;
 import com.shopit.project.repository.UserRepository;
@@ -18,7 +19,9 @@ import org.springframework.web.util.WebUtils;
 import javax.crypto.KeyGenerator;
 import javax.crypto.Mac;
 import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -35,10 +38,19 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     @Value("${spring.app.refreshTokenCookieName}")
     private String refreshTokenCookieName;
 
-    private final String refreshTokenSecret;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec refreshTokenKey;
+
+    // Mac is stateful and not thread-safe, so each thread keeps its own initialized instance
+    // together with the output buffer it hashes into
+    private final ThreadLocal<Mac> refreshTokenMac = ThreadLocal.withInitial(this::initRefreshTokenMac);
+    private final ThreadLocal<byte[]> refreshTokenHmac =
+            ThreadLocal.withInitial(() -> new byte[refreshTokenMac.get().getMacLength()]);
 
     private static final SecureRandom secureRandom = new SecureRandom();
     private static final Base64.Encoder base64Encoder = Base64.getUrlEncoder();
+    private static final Base64.Encoder hashEncoder = Base64.getEncoder();
 
     private final RefreshTokenRepository refreshTokenRepository;
 
@@ -49,7 +61,8 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     public RefreshTokenServiceImpl(UserRepository userRepository,
                                    RefreshTokenRepository refreshTokenRepository,
                                    JwtService jwtService){
-        this.refreshTokenSecret = generateSecretKey();
+        String refreshTokenSecret = generateSecretKey();
+        this.refreshTokenKey = new SecretKeySpec(refreshTokenSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
         this.jwtService = jwtService;
         this.refreshTokenRepository = refreshTokenRepository;
         this.userRepository = userRepository;
@@ -57,7 +70,7 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
 
     private static String generateSecretKey(){
         try{
-            KeyGenerator keyGen = KeyGenerator.getInstance("HmacSHA256");
+            KeyGenerator keyGen = KeyGenerator.getInstance(HMAC_ALGORITHM);
             SecretKey key = keyGen.generateKey();
             return Base64.getEncoder().encodeToString(key.getEncoded());
         }catch(NoSuchAlgorithmException e){
@@ -121,25 +134,34 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
         return refreshTokenCookie.getValue();
     }
 
-    @Override
-    public String hashRefreshToken(String refreshToken) {
-        SecretKeySpec secretKeySpec = new SecretKeySpec(refreshTokenSecret.getBytes(), "HmacSHA256");
-
+    private Mac initRefreshTokenMac() {
         Mac mac;
         try {
-            mac = Mac.getInstance("HmacSHA256");
+            mac = Mac.getInstance(HMAC_ALGORITHM);
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException(e);
         }
         try {
-            mac.init(secretKeySpec);
+            mac.init(refreshTokenKey);
         } catch (InvalidKeyException e) {
             throw new RuntimeException(e);
         }
+        return mac;
+    }
 
-        byte[] hmac = mac.doFinal(refreshToken.getBytes());
+    @Override
+    public String hashRefreshToken(String refreshToken) {
+        Mac mac = refreshTokenMac.get();
+        byte[] hmac = refreshTokenHmac.get();
+
+        mac.update(refreshToken.getBytes(StandardCharsets.UTF_8));
+        try {
+            mac.doFinal(hmac, 0); // doFinal also resets the Mac for the next call on this thread
+        } catch (ShortBufferException e) {
+            throw new RuntimeException(e);
+        }
 
-        return Base64.getEncoder().encodeToString(hmac);
+        return hashEncoder.encodeToString(hmac);
     }
 
     @Override
@@ -160,8 +182,8 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
 
         RefreshToken refreshToken = validateRefreshToken(refreshTokenString);
 
-        String username = refreshToken.getUser().getUserName();
-        String jwt = jwtService.generateJwtFromUsername(username);
+        UserDetailsImpl userDetails = UserDetailsImpl.build(refreshToken.getUser());
+        String jwt = jwtService.generateJwtFromUserDetails(userDetails);
 
         RefreshJwtResponse refreshJwtResponse = new RefreshJwtResponse();
         refreshJwtResponse.setJwt(jwt);
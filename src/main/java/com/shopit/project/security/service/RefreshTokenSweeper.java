@@ -0,0 +1,74 @@
+package com.shopit.project.security.service;
+
+import com.shopit.project.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically deletes expired refresh tokens so that the refresh_tokens table does not grow
+ * with every login. Rows are removed in bounded batches, each in its own short transaction,
+ * which keeps lock times and the lookup index size small.
+ */
+@Component
+public class RefreshTokenSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenSweeper.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final int batchSize;
+
+    private final Timer sweepTimer;
+
+    private final Counter sweptCounter;
+
+    private final AtomicLong tableSize = new AtomicLong();
+
+    public RefreshTokenSweeper(RefreshTokenRepository refreshTokenRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${spring.app.refreshTokenSweepBatchSize}") int batchSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.batchSize = batchSize;
+        this.sweepTimer = Timer.builder("shopit.refresh.tokens.sweep")
+                .description("Time taken to delete expired refresh tokens")
+                .register(meterRegistry);
+        this.sweptCounter = Counter.builder("shopit.refresh.tokens.swept")
+                .description("Expired refresh tokens deleted by the sweeper")
+                .register(meterRegistry);
+        meterRegistry.gauge("shopit.refresh.tokens.size", tableSize);
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.refreshTokenSweepIntervalMs}",
+            initialDelayString = "${spring.app.refreshTokenSweepIntervalMs}")
+    public void sweepExpiredTokens() {
+        long deleted = sweepTimer.record(this::deleteExpiredTokens);
+        sweptCounter.increment(deleted);
+        tableSize.set(refreshTokenRepository.count());
+
+        if (deleted > 0) {
+            logger.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private long deleteExpiredTokens() {
+        LocalDateTime now = LocalDateTime.now();
+        long deleted = 0;
+        int batchDeleted;
+
+        do {
+            batchDeleted = refreshTokenRepository.deleteExpiredBatch(now, batchSize);
+            deleted += batchDeleted;
+        } while (batchDeleted == batchSize);
+
+        return deleted;
+    }
+}
@@ -0,0 +1,9 @@
+package com.shopit.project.security.service;
+
+import java.util.Date;
+
+public interface TokenRevocationService {
+    void revokeTokens(String username);
+
+    boolean isRevoked(String username, Date issuedAt);
+}
@@ -0,0 +1,47 @@
+package com.shopit.project.security.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Short-lived revocation list for stateless access tokens.
+ * Entries only need to outlive the tokens they revoke, so they expire after jwtExpirationMs and
+ * are never evicted earlier: a size bound would let a revoked token pass again under load.
+ * Tokens are compared by their millisecond issue time, a token without one is checked by its
+ * second-precision "iat" and so stays revoked if it was issued in the second of the revocation.
+ * The list lives in this instance's memory only. Other instances do not see a revocation and
+ * it is lost on restart, so a stateless token stays usable there until it expires.
+ */
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private final Cache<String, Instant> revokedUsers;
+
+    @Autowired
+    public TokenRevocationServiceImpl(@Value("${spring.app.jwtExpirationMs}") long jwtExpirationMs) {
+        this.revokedUsers = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(jwtExpirationMs))
+                .build();
+    }
+
+    @Override
+    public void revokeTokens(String username) {
+        revokedUsers.put(username, Instant.now());
+    }
+
+    @Override
+    public boolean isRevoked(String username, Date issuedAt) {
+        Instant revokedAt = revokedUsers.getIfPresent(username);
+        if (revokedAt == null)
+            return false;
+
+        return issuedAt == null || !issuedAt.toInstant().isAfter(revokedAt);
+    }
+}
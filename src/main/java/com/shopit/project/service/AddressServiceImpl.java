@@ -2,13 +2,13 @@ package com.shopit.project.service;
 
 import com.shopit.project.exceptions.APIException;
 import com.shopit.project.exceptions.ResourceNotFoundException;
+import com.shopit.project.mapper.AddressMapper;
 import com.shopit.project.model.Address;
 import com.shopit.project.model.User;
 import com.shopit.project.payload.AddressDTO;
 import com.shopit.project.repository.AddressRepository;
 import com.shopit.project.repository.UserRepository;
 import com.shopit.project.util.AuthUtil;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -17,21 +17,21 @@ import java.util.Objects;
 @Service
 public class AddressServiceImpl implements AddressService {
 
-    private final ModelMapper modelMapper;
+    private final AddressMapper addressMapper;
     private final AuthUtil authUtil;
     private final UserRepository userRepository;
     AddressRepository addressRepository;
 
-    public AddressServiceImpl(AddressRepository addressRepository, ModelMapper modelMapper, AuthUtil authUtil, UserRepository userRepository) {
+    public AddressServiceImpl(AddressRepository addressRepository, AddressMapper addressMapper, AuthUtil authUtil, UserRepository userRepository) {
         this.addressRepository = addressRepository;
-        this.modelMapper = modelMapper;
+        this.addressMapper = addressMapper;
         this.authUtil = authUtil;
         this.userRepository = userRepository;
     }
 
     @Override
     public AddressDTO addAddress(AddressDTO addressDTO) {
-        Address address = modelMapper.map(addressDTO, Address.class);
+        Address address = addressMapper.toEntity(addressDTO);
         User user = authUtil.loggedInUser();
         address.setUser(user);
         Address savedAddress = addressRepository.save(address);
@@ -39,15 +39,13 @@ public class AddressServiceImpl implements AddressService {
         user.getAddresses().add(savedAddress);
         userRepository.save(user);
 
-        return modelMapper.map(savedAddress, AddressDTO.class);
+        return addressMapper.toDTO(savedAddress);
     }
 
     @Override
     public List<AddressDTO> getAllAddresses() {
         List<Address> addresses = addressRepository.findAll();
-        List<AddressDTO> addressDTOS = addresses.stream()
-                .map(address -> modelMapper.map(address, AddressDTO.class))
-                .toList();
+        List<AddressDTO> addressDTOS = addressMapper.toDTOs(addresses);
 
         return addressDTOS;
     }
@@ -57,7 +55,7 @@ public class AddressServiceImpl implements AddressService {
         Address address = addressRepository.findById(addressId)
                 .orElseThrow(() -> new ResourceNotFoundException("Address", "Address id", addressId));
 
-        return modelMapper.map(address, AddressDTO.class);
+        return addressMapper.toDTO(address);
     }
 
     @Override
@@ -68,9 +66,7 @@ public class AddressServiceImpl implements AddressService {
         if(addresses.isEmpty())
                 throw new APIException("User has no address created");
 
-        List<AddressDTO> addressDTOS = addresses.stream()
-                .map(address -> modelMapper.map(address, AddressDTO.class))
-                .toList();
+        List<AddressDTO> addressDTOS = addressMapper.toDTOs(addresses);
 
         return addressDTOS;
     }
@@ -104,7 +100,7 @@ public class AddressServiceImpl implements AddressService {
         user.setAddresses(addresses);
         userRepository.save(user);
 
-        return modelMapper.map(updatedAddress, AddressDTO.class);
+        return addressMapper.toDTO(updatedAddress);
     }
 
     @Override
@@ -10,10 +10,13 @@ import com.shopit.project.repository.CartRepository;
 import com.shopit.project.repository.RoleRepository;
 import com.shopit.project.repository.UserRepository;
 import com.shopit.project.security.service.JwtService;
+import com.shopit.project.security.service.PrincipalCacheService;
 import com.shopit.project.security.payload.*;
 import com.shopit.project.security.model.UserDetailsImpl;
 import com.shopit.project.security.service.RefreshTokenService;
+import com.shopit.project.security.service.TokenRevocationService;
 import com.shopit.project.util.AuthUtil;
+import com.shopit.project.util.MoneyUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseCookie;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -48,12 +51,17 @@ public class AuthServiceImpl implements AuthService {
 
     private final AuthUtil authUtil;
 
+    private final PrincipalCacheService principalCacheService;
+
+    private final TokenRevocationService tokenRevocationService;
+
     @Autowired
     public AuthServiceImpl(JwtService jwtService, RefreshTokenService refreshTokenService,
                            AuthenticationManager authenticationManager, UserRepository userRepository,
                            RoleRepository roleRepository, PasswordEncoder passwordEncoder,
                            CartRepository cartRepository, SignupResponse signupResponse,
-                           AuthUtil authUtil) {
+                           AuthUtil authUtil, PrincipalCacheService principalCacheService,
+                           TokenRevocationService tokenRevocationService) {
         this.jwtService = jwtService;
         this.refreshTokenService = refreshTokenService;
         this.authenticationManager = authenticationManager;
@@ -63,6 +71,8 @@ public class AuthServiceImpl implements AuthService {
         this.cartRepository = cartRepository;
         this.signupResponse = signupResponse;
         this.authUtil = authUtil;
+        this.principalCacheService = principalCacheService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -124,7 +134,7 @@ public class AuthServiceImpl implements AuthService {
 
         user.setRoles(roles);
         Cart cart = new Cart();
-        cart.setTotalPrice(0.00);
+        cart.setTotalPrice(MoneyUtil.ZERO);
         user.setCart(cart);
 
         cartRepository.save(cart);
@@ -150,7 +160,7 @@ public class AuthServiceImpl implements AuthService {
 
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
 
-        String jwt = jwtService.generateJwtFromUsername(userDetails.getUsername());
+        String jwt = jwtService.generateJwtFromUserDetails(userDetails);
 
         String refreshTokenCookie = refreshTokenService.generateRefreshTokenCookie(userDetails.getUsername());
 
@@ -171,5 +181,7 @@ public class AuthServiceImpl implements AuthService {
     public void unAuthenticateUser() {
         User user = authUtil.loggedInUser();
         refreshTokenService.invalidateRefreshToken(user);
+        principalCacheService.evictPrincipal(user.getUserName());
+        tokenRevocationService.revokeTokens(user.getUserName());
     }
 }
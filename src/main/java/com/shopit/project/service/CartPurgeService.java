@@ -0,0 +1,7 @@
+package com.shopit.project.service;
+
+public interface CartPurgeService {
+    void purgeProduct(Long productId);
+
+    long purgeProductNow(Long productId);
+}
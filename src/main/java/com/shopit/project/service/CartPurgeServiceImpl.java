@@ -0,0 +1,97 @@
+package com.shopit.project.service;
+
+import com.shopit.project.repository.CartItemRepository;
+import com.shopit.project.util.TransactionUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Removes the cart lines of a deleted product and recomputes the totals of the carts that held
+ * them, in transactions of at most spring.app.cartPurgeBatchSize lines, so that deleting a popular
+ * product does not lock every cart holding it in one transaction.
+ * A soft delete purges on the application task executor once the delete has committed; until a
+ * batch reaches a cart the line stays visible and can be removed by the user. A permanent delete
+ * has to purge first, since cart lines reference the product row, and runs the batches on the
+ * calling thread. Each batch also drops the stock holds of the lines it removed, so that the stock
+ * is available again should the product be restored.
+ */
+@Service
+public class CartPurgeServiceImpl implements CartPurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartPurgeServiceImpl.class);
+
+    private final CartItemRepository cartItemRepository;
+    private final StockReservationService stockReservationService;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+    private final int batchSize;
+    private final Timer purgeTimer;
+    private final Counter purgedLinesCounter;
+
+    public CartPurgeServiceImpl(CartItemRepository cartItemRepository,
+                                StockReservationService stockReservationService,
+                                TransactionTemplate transactionTemplate,
+                                @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                MeterRegistry meterRegistry,
+                                @Value("${spring.app.cartPurgeBatchSize}") int batchSize) {
+        this.cartItemRepository = cartItemRepository;
+        this.stockReservationService = stockReservationService;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+        this.batchSize = batchSize;
+        this.purgeTimer = Timer.builder("shopit.cart.purge")
+                .description("Time taken to remove a deleted product from the carts holding it")
+                .register(meterRegistry);
+        this.purgedLinesCounter = Counter.builder("shopit.cart.purge.lines")
+                .description("Cart lines removed because their product was deleted")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void purgeProduct(Long productId) {
+        TransactionUtil.afterCommit(() -> taskExecutor.execute(() -> {
+            try {
+                purgeProductNow(productId);
+            } catch (RuntimeException e) {
+                logger.warn("Removing deleted product {} from carts failed", productId, e);
+            }
+        }));
+    }
+
+    @Override
+    public long purgeProductNow(Long productId) {
+        long purged = purgeTimer.record(() -> {
+            long lines = 0;
+            int batchLines;
+            do {
+                batchLines = transactionTemplate.execute(status -> purgeBatch(productId));
+                lines += batchLines;
+            } while (batchLines == batchSize);
+            return lines;
+        });
+
+        if (purged > 0)
+            logger.info("Removed deleted product {} from {} cart lines", productId, purged);
+        return purged;
+    }
+
+    private int purgeBatch(Long productId) {
+        List<Long> cartIds = cartItemRepository.deleteCartItemsOfProduct(productId, batchSize);
+        List<Long> distinctCartIds = cartIds.stream().distinct().toList();
+        cartItemRepository.recomputeCartTotals(distinctCartIds);
+        if (!distinctCartIds.isEmpty())
+            stockReservationService.release(productId, distinctCartIds);
+        purgedLinesCounter.increment(cartIds.size());
+        return cartIds.size();
+    }
+}
@@ -0,0 +1,10 @@
+package com.shopit.project.service;
+
+import com.shopit.project.model.Cart;
+import com.shopit.project.model.Product;
+
+public interface CartRepricingService {
+    void repriceCarts(Product product);
+
+    boolean repriceStaleItems(Cart cart);
+}
@@ -0,0 +1,154 @@
+package com.shopit.project.service;
+
+import com.shopit.project.model.Cart;
+import com.shopit.project.model.CartItem;
+import com.shopit.project.model.Product;
+import com.shopit.project.repository.CartItemRepository;
+import com.shopit.project.repository.ProductRepository;
+import com.shopit.project.util.MoneyUtil;
+import com.shopit.project.util.TransactionUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keeps the prices captured on cart lines in line with their products. A price change bumps
+ * Product.priceVersion; a cart line captured at an older version is stale.
+ * With spring.app.cartRepriceMode=lazy a price change touches no cart at all and stale lines are
+ * repriced when their cart is next read, changed or checked out, see {@link #repriceStaleItems(Cart)}.
+ * With eager the lines are repriced inside the product update, one UPDATE for all the lines and one
+ * for all their carts. With async the same happens after the product update commits, on the
+ * application task executor, in transactions of at most spring.app.cartRepriceBatchSize lines so a
+ * popular product does not lock every cart holding it at once; each batch reads the product's
+ * current price, so an older job that is still running cannot overwrite a newer price.
+ * Stale lines are also repriced on read in the eager and async modes, which covers the window
+ * before an async job reaches a cart.
+ */
+@Service
+public class CartRepricingServiceImpl implements CartRepricingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartRepricingServiceImpl.class);
+
+    private final CartItemRepository cartItemRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+    private final RepriceMode mode;
+    private final int batchSize;
+    private final Timer syncTimer;
+    private final Timer asyncTimer;
+    private final Counter repricedLinesCounter;
+
+    public CartRepricingServiceImpl(CartItemRepository cartItemRepository, ProductRepository productRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${spring.app.cartRepriceMode}") String mode,
+                                    @Value("${spring.app.cartRepriceBatchSize}") int batchSize) {
+        this.cartItemRepository = cartItemRepository;
+        this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+        this.mode = RepriceMode.valueOf(mode.toUpperCase(Locale.ROOT));
+        this.batchSize = batchSize;
+        this.syncTimer = repriceTimer(meterRegistry, "sync");
+        this.asyncTimer = repriceTimer(meterRegistry, "async");
+        this.repricedLinesCounter = Counter.builder("shopit.cart.reprice.lines")
+                .description("Cart lines updated to a new product price")
+                .register(meterRegistry);
+    }
+
+    private enum RepriceMode { EAGER, ASYNC, LAZY }
+
+    private static Timer repriceTimer(MeterRegistry meterRegistry, String mode) {
+        return Timer.builder("shopit.cart.reprice")
+                .description("Time taken to push a product price change into the carts holding it")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void repriceCarts(Product product) {
+        switch (mode) {
+            case EAGER -> syncTimer.record(() -> reprice(product, Integer.MAX_VALUE));
+            case ASYNC -> {
+                Long productId = product.getProductId();
+                TransactionUtil.afterCommit(() -> taskExecutor.execute(() -> repriceInBatches(productId)));
+            }
+            case LAZY -> {
+            }
+        }
+    }
+
+    /**
+     * Reprices the stale lines of a loaded cart in memory and moves the cart total by the change
+     * in each line total; the caller's transaction writes them.
+     *
+     * @return whether any line was repriced
+     */
+    @Override
+    public boolean repriceStaleItems(Cart cart) {
+        int repriced = 0;
+        for (CartItem cartItem : cart.getCartItems()) {
+            Product product = cartItem.getProduct();
+            if (product == null || cartItem.getProductPriceVersion() >= product.getPriceVersion())
+                continue;
+
+            BigDecimal oldTotalPrice = lineTotal(cartItem);
+            cartItem.setProductPrice(product.getProductPrice());
+            cartItem.setProductDiscountPercentage(product.getProductDiscountPercentage());
+            cartItem.setProductPriceVersion(product.getPriceVersion());
+            cart.setTotalPrice(cart.getTotalPrice().add(lineTotal(cartItem)).subtract(oldTotalPrice));
+            repriced++;
+        }
+
+        repricedLinesCounter.increment(repriced);
+        return repriced > 0;
+    }
+
+    private static BigDecimal lineTotal(CartItem cartItem) {
+        BigDecimal lineTotal = MoneyUtil.lineTotal(cartItem.getProductPrice(), cartItem.getProductDiscountPercentage(),
+                cartItem.getQuantity());
+        return lineTotal == null ? MoneyUtil.ZERO : lineTotal;
+    }
+
+    void repriceInBatches(Long productId) {
+        try {
+            long repriced = asyncTimer.record(() -> {
+                long lines = 0;
+                int batchLines;
+                do {
+                    batchLines = transactionTemplate.execute(status -> productRepository.findById(productId)
+                            .map(product -> reprice(product, batchSize))
+                            .orElse(0));
+                    lines += batchLines;
+                } while (batchLines == batchSize);
+                return lines;
+            });
+
+            if (repriced > 0)
+                logger.info("Repriced {} cart lines of product {}", repriced, productId);
+        } catch (RuntimeException e) {
+            logger.warn("Repricing carts of product {} failed, they keep their previous prices", productId, e);
+        }
+    }
+
+    private int reprice(Product product, int limit) {
+        List<Long> cartIds = cartItemRepository.repriceCartItems(product.getProductId(), product.getProductPrice(),
+                product.getProductDiscountPercentage(), product.getPriceVersion(), limit);
+        cartItemRepository.recomputeCartTotals(cartIds.stream().distinct().toList());
+        repricedLinesCounter.increment(cartIds.size());
+        return cartIds.size();
+    }
+}
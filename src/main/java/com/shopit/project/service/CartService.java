@@ -2,9 +2,11 @@ package com.shopit.project.service;
 
 import com.shopit.project.model.CartItem;
 import com.shopit.project.payload.CartDTO;
-import com.shopit.project.security.services.UserDetailsImpl;
+import com.shopit.project.payload.CartMutationDTO;
+import com.shopit.project.security.model.UserDetailsImpl;
 import org.springframework.security.core.Authentication;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 public interface CartService {
@@ -18,5 +20,7 @@ public interface CartService {
 
     CartDTO deleteProductFromCart(Long productId);
 
-    Double getCartItemTotalPrice(CartItem cartItem);
+    CartDTO applyCartMutations(List<CartMutationDTO> cartMutations);
+
+    BigDecimal getCartItemTotalPrice(CartItem cartItem);
 }
@@ -2,26 +2,32 @@ package com.shopit.project.service;
 
 import com.shopit.project.exceptions.APIException;
 import com.shopit.project.exceptions.ResourceNotFoundException;
+import com.shopit.project.mapper.CartMapper;
 import com.shopit.project.model.Cart;
 import com.shopit.project.model.CartItem;
 import com.shopit.project.model.Product;
 import com.shopit.project.model.User;
 import com.shopit.project.payload.CartDTO;
-import com.shopit.project.payload.CartItemDTO;
+import com.shopit.project.payload.CartMutationDTO;
+import com.shopit.project.payload.CartMutationDTO.CartOperation;
 import com.shopit.project.repository.CartItemRepository;
 import com.shopit.project.repository.CartRepository;
 import com.shopit.project.repository.ProductRepository;
 import com.shopit.project.util.AuthUtil;
-import org.modelmapper.ModelMapper;
+import com.shopit.project.util.MoneyUtil;
+import com.shopit.project.util.OptimisticLockRetry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class CartServiceImpl implements CartService{
 
-    private final ModelMapper modelMapper;
+    private final CartMapper cartMapper;
     private final CartItemRepository cartItemRepository;
     private final CartRepository cartRepository;
 
@@ -29,15 +35,26 @@ public class CartServiceImpl implements CartService{
 
     private final AuthUtil authUtil;
 
+    private final OptimisticLockRetry optimisticLockRetry;
+
+    private final StockReservationService stockReservationService;
+
+    private final CartRepricingService cartRepricingService;
+
     @Autowired
     public CartServiceImpl(CartRepository cartRepository, ProductRepository productRepository,
-                           CartItemRepository cartItemRepository, ModelMapper modelMapper,
-                           AuthUtil authUtil) {
+                           CartItemRepository cartItemRepository, CartMapper cartMapper,
+                           AuthUtil authUtil, OptimisticLockRetry optimisticLockRetry,
+                           StockReservationService stockReservationService,
+                           CartRepricingService cartRepricingService) {
         this.cartRepository = cartRepository;
         this.productRepository = productRepository;
         this.cartItemRepository = cartItemRepository;
-        this.modelMapper = modelMapper;
+        this.cartMapper = cartMapper;
         this.authUtil = authUtil;
+        this.optimisticLockRetry = optimisticLockRetry;
+        this.stockReservationService = stockReservationService;
+        this.cartRepricingService = cartRepricingService;
     }
 
 //    private Cart createCart(User user){
@@ -49,71 +66,42 @@ public class CartServiceImpl implements CartService{
 //        return savedCart;
 //    }
 
+    /**
+     * Line total from the price and discount captured on the cart item, which is what the cart
+     * total is built from; the cart total is only ever adjusted by the change in a line total.
+     */
     @Override
-    public Double getCartItemTotalPrice(CartItem cartItem) {
-        return (cartItem.getProductPrice() -
-                (cartItem.getProductDiscountPercentage() * 0.01 * cartItem.getProductPrice()))
-                * cartItem.getQuantity();
+    public BigDecimal getCartItemTotalPrice(CartItem cartItem) {
+        return MoneyUtil.lineTotal(cartItem.getProductPrice(), cartItem.getProductDiscountPercentage(),
+                cartItem.getQuantity());
     }
 
     @Override
     public CartDTO addProductToCart(Long productId, Integer quantity) {
+        return optimisticLockRetry.execute("cart.add", () -> doAddProductToCart(productId, quantity));
+    }
+
+    private CartDTO doAddProductToCart(Long productId, Integer quantity) {
 
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "Product ID", productId));
 
-        if(product.getDeleteDate() != null)
-            throw new APIException("Product with the name " + product.getProductName() + " has been deleted");
+        checkNotDeleted(product);
 
         User user = authUtil.loggedInUser();
         Cart cart = cartRepository.findByUser(user);
+        cartRepricingService.repriceStaleItems(cart);
 
         CartItem cartItem = cartItemRepository.findCartItemByProductAndCart(product, cart);
 
-        if(cartItem != null){
-            throw new APIException("Product with the name " + product.getProductName() + " has been added to the cart");
-        }
-
-        if(product.getProductQuantity() == 0){
-            throw new APIException("Product with the name " + product.getProductName() + " is out of stock");
-        }
-
-        if(product.getProductQuantity() < quantity){
-            throw new APIException("Product with the name " + product.getProductName() +
-                    " is not available for the requested quantity " + quantity +
-                    ", available quantity is " + product.getProductQuantity());
-        }
-
-        CartItem newCartItem = new CartItem();
-
-        newCartItem.setCart(cart);
-        newCartItem.setProduct(product);
-        newCartItem.setQuantity(quantity);
-        newCartItem.setProductPrice(product.getProductPrice());
-        newCartItem.setProductDiscountPercentage(product.getProductDiscountPercentage());
+        StockReservationService.Batch stockReservations = stockReservationService.batch(cart);
+        CartItem newCartItem = addCartItem(cart, product, cartItem, quantity, stockReservations);
+        stockReservations.write();
 
         cartItemRepository.save(newCartItem);
-
-        List<CartItem> cartItems = cart.getCartItems();
-        cartItems.add(newCartItem);
-
-        cart.setCartItems(cartItems);
-        cart.setTotalPrice(cart.getTotalPrice() + ( product.getSpecialPrice() * quantity));
         cartRepository.save(cart);
 
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-
-        List<CartItemDTO> cartItemDTOS = cartItems.stream()
-                        .map(item -> modelMapper.map(item, CartItemDTO.class))
-                        .toList();
-
-        for(CartItemDTO cartItemDTO : cartItemDTOS){
-            cartItemDTO.setTotalPrice(cartItemDTO.getTotalPrice());
-            cartItemDTO.getProduct().setProductSpecialPrice(cartItemDTO.getProduct().getProductSpecialPrice());
-        }
-        cartDTO.setCartItems(cartItemDTOS);
-
-        return cartDTO;
+        return cartMapper.toDTO(cart);
     }
 
     @Override
@@ -124,120 +112,251 @@ public class CartServiceImpl implements CartService{
             throw new APIException("No cart exists!");
 
         List<CartDTO> cartDTOS = carts.stream()
-                .map(cart -> modelMapper.map(cart, CartDTO.class))
+                .map(cartMapper::toDTO)
                 .toList();
 
         return cartDTOS;
     }
 
+    /**
+     * Also reprices lines whose product price changed since they were added, see CartRepricingService.
+     */
     @Override
     public CartDTO getUserCart() {
+        return optimisticLockRetry.execute("cart.read", () -> {
+            User user = authUtil.loggedInUser();
+            Cart cart = cartRepository.findByUser(user);
+            if (cartRepricingService.repriceStaleItems(cart))
+                cart = cartRepository.save(cart);
+
+            return cartMapper.toDTO(cart);
+        });
+    }
+
+    @Override
+    public CartDTO updateProductQuantityInCart(Long productId, Integer quantity) {
+        return optimisticLockRetry.execute("cart.update", () -> doUpdateProductQuantityInCart(productId, quantity));
+    }
+
+    private CartDTO doUpdateProductQuantityInCart(Long productId, Integer quantity) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "Product ID", productId));
+
+        checkNotDeleted(product);
+
         User user = authUtil.loggedInUser();
         Cart cart = cartRepository.findByUser(user);
+        cartRepricingService.repriceStaleItems(cart);
 
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
+        CartItem cartItem = cartItemRepository.findCartItemByProductAndCart(product, cart);
 
-        return cartDTO;
+        StockReservationService.Batch stockReservations = stockReservationService.batch(cart);
+        updateCartItem(cart, product, cartItem, quantity, stockReservations);
+        stockReservations.write();
+
+        cartItemRepository.save(cartItem);
+        if(quantity == 0)
+            cartItemRepository.delete(cartItem);
+
+        cartRepository.save(cart);
+
+        return cartMapper.toDTO(cart);
     }
 
     @Override
-    public CartDTO updateProductQuantityInCart(Long productId, Integer quantity) {
+    public CartDTO deleteProductFromCart(Long productId) {
+        return optimisticLockRetry.execute("cart.delete", () -> doDeleteProductFromCart(productId));
+    }
+
+    // deleted products can still be removed, their lines stay in carts until CartPurgeService gets to them
+    private CartDTO doDeleteProductFromCart(Long productId) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "Product ID", productId));
 
-        if(product.getDeleteDate() != null)
-            throw new APIException("Product with the name " + product.getProductName() + " has been deleted");
-
         User user = authUtil.loggedInUser();
         Cart cart = cartRepository.findByUser(user);
+        cartRepricingService.repriceStaleItems(cart);
 
-        if(product.getProductQuantity() == 0){
-            throw new APIException("Product with the name " + product.getProductName() + " is out of stock");
-        }
+        CartItem cartItem = cartItemRepository.findCartItemByProductAndCart(product, cart);
 
-        if(product.getProductQuantity() < quantity){
-            throw new APIException("Product with the name " + product.getProductName() +
-                    "is not available for the requested quantity, available quantity is " + product.getProductQuantity());
-        }
+        StockReservationService.Batch stockReservations = stockReservationService.batch(cart);
+        removeCartItem(cart, product, cartItem, stockReservations);
+        stockReservations.write();
+
+        Cart savedCart = cartRepository.save(cart); // cartItem deleted since orphanRemoval = true
+
+
+        return cartMapper.toDTO(savedCart);
 
-        CartItem cartItem = cartItemRepository.findCartItemByProductAndCart(product, cart);
-        if(cartItem == null){
-            throw new APIException("Product with name " + product.getProductName() +
-                    " is not added to the cart");
         }
-        Double oldTotalPrice = getCartItemTotalPrice(cartItem);
 
-        cartItem.setQuantity(quantity);
+    @Override
+    public CartDTO applyCartMutations(List<CartMutationDTO> cartMutations) {
+        return optimisticLockRetry.execute("cart.batch", () -> doApplyCartMutations(cartMutations));
+    }
 
-        cartItemRepository.save(cartItem);
+    /**
+     * Applies the mutations in order with the same rules as the single product endpoints, using one
+     * findAllById for the products and the cart's own lines instead of a lookup per product.
+     * Any failing mutation rejects the whole batch.
+     */
+    private CartDTO doApplyCartMutations(List<CartMutationDTO> cartMutations) {
+        if(cartMutations == null || cartMutations.isEmpty())
+            throw new APIException("No cart mutations given");
+
+        for(CartMutationDTO cartMutation : cartMutations){
+            if(cartMutation.getProductId() == null || cartMutation.getOperation() == null)
+                throw new APIException("Every cart mutation needs a productId and an operation");
+            if(cartMutation.getOperation() != CartOperation.DELETE && cartMutation.getQuantity() == null)
+                throw new APIException("Cart mutation for the product " + cartMutation.getProductId() +
+                        " needs a quantity");
+        }
 
-        List<CartItem> cartItems = cart.getCartItems();
-        for(CartItem item : cartItems){
-            if(item.getCartItemId() == cartItem.getCartItemId()){
-                item.setQuantity(quantity);
-                if(quantity == 0){
-                    cartItemRepository.delete(item);
-                    cartItems.remove(item);
+        Set<Long> productIds = cartMutations.stream()
+                .map(CartMutationDTO::getProductId)
+                .collect(Collectors.toSet());
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+
+        User user = authUtil.loggedInUser();
+        Cart cart = cartRepository.findByUser(user);
+        cartRepricingService.repriceStaleItems(cart);
+
+        Map<Long, CartItem> cartItems = new HashMap<>();
+        for(CartItem cartItem : cart.getCartItems())
+            cartItems.put(cartItem.getProduct().getProductId(), cartItem);
+        Set<Long> removedProductIds = new HashSet<>();
+        StockReservationService.Batch stockReservations = stockReservationService.batch(cart);
+
+        for(CartMutationDTO cartMutation : cartMutations){
+            Long productId = cartMutation.getProductId();
+            Product product = products.get(productId);
+            if(product == null)
+                throw new ResourceNotFoundException("Product", "Product ID", productId);
+
+            switch (cartMutation.getOperation()) {
+                case ADD -> {
+                    checkNotDeleted(product);
+                    // the removed line must be gone before its (cart_id, product_id) is inserted again
+                    if(removedProductIds.remove(productId))
+                        cartItemRepository.flush();
+                    cartItems.put(productId, addCartItem(cart, product, cartItems.get(productId),
+                            cartMutation.getQuantity(), stockReservations));
+                }
+                case UPDATE -> {
+                    checkNotDeleted(product);
+                    CartItem cartItem = cartItems.get(productId);
+                    updateCartItem(cart, product, cartItem, cartMutation.getQuantity(), stockReservations);
+                    if(cartMutation.getQuantity() == 0)
+                        forgetCartItem(cartItems, removedProductIds, productId);
+                }
+                case DELETE -> {
+                    removeCartItem(cart, product, cartItems.get(productId), stockReservations);
+                    forgetCartItem(cartItems, removedProductIds, productId);
                 }
             }
         }
 
-        cart.setCartItems(cartItems);
-        cart.setTotalPrice(cart.getTotalPrice() + ( product.getSpecialPrice() * quantity ) - oldTotalPrice);
-        cartRepository.save(cart);
+        // every hold was checked as its mutation ran, the reservation rows are written in one pass
+        stockReservations.write();
 
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
+        // new lines are inserted through the cart's cascade
+        Cart savedCart = cartRepository.save(cart);
 
-        List<CartItemDTO> cartItemDTOS = cartItems.stream()
-                .map(item -> modelMapper.map(item, CartItemDTO.class))
-                .toList();
+        return cartMapper.toDTO(savedCart);
+    }
 
-        for(CartItemDTO cartItemDTO : cartItemDTOS){
-            cartItemDTO.setTotalPrice(cartItemDTO.getTotalPrice());
-            cartItemDTO.getProduct().setProductSpecialPrice(cartItemDTO.getProduct().getProductSpecialPrice());
+    // a line added earlier in the batch may already have been inserted by an auto flush, which orphanRemoval
+    // does not clean up, so every persisted line is deleted explicitly as in the single update path
+    private void forgetCartItem(Map<Long, CartItem> cartItems, Set<Long> removedProductIds, Long productId) {
+        CartItem cartItem = cartItems.remove(productId);
+        if(cartItem.getCartItemId() != null){
+            cartItemRepository.delete(cartItem);
+            removedProductIds.add(productId);
         }
-        cartDTO.setCartItems(cartItemDTOS);
-
-        return cartDTO;
     }
 
-    @Override
-    public CartDTO deleteProductFromCart(Long productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "Product ID", productId));
-
+    private void checkNotDeleted(Product product) {
         if(product.getDeleteDate() != null)
             throw new APIException("Product with the name " + product.getProductName() + " has been deleted");
+    }
 
-        User user = authUtil.loggedInUser();
-        Cart cart = cartRepository.findByUser(user);
+    private CartItem addCartItem(Cart cart, Product product, CartItem cartItem, Integer quantity,
+                                 StockReservationService.Batch stockReservations) {
+        if(cartItem != null){
+            throw new APIException("Product with the name " + product.getProductName() + " has been added to the cart");
+        }
 
-        CartItem cartItem = cartItemRepository.findCartItemByProductAndCart(product, cart);
+        if(stockReservationService.getAvailableToSell(product.getProductId(), product.getProductQuantity()) == 0){
+            throw new APIException("Product with the name " + product.getProductName() + " is out of stock");
+        }
+
+        stockReservations.reserve(product, quantity);
+
+        CartItem newCartItem = new CartItem();
+
+        newCartItem.setCart(cart);
+        newCartItem.setProduct(product);
+        newCartItem.setQuantity(quantity);
+        newCartItem.setProductPrice(product.getProductPrice());
+        newCartItem.setProductDiscountPercentage(product.getProductDiscountPercentage());
+        newCartItem.setProductPriceVersion(product.getPriceVersion());
+
+        cart.getCartItems().add(newCartItem);
+        cart.setTotalPrice(cart.getTotalPrice().add(getCartItemTotalPrice(newCartItem)));
+
+        return newCartItem;
+    }
+
+    private void updateCartItem(Cart cart, Product product, CartItem cartItem, Integer quantity,
+                                StockReservationService.Batch stockReservations) {
+        if(product.getProductQuantity() == 0){
+            throw new APIException("Product with the name " + product.getProductName() + " is out of stock");
+        }
 
         if(cartItem == null){
             throw new APIException("Product with name " + product.getProductName() +
                     " is not added to the cart");
         }
 
-        cart.setTotalPrice(cart.getTotalPrice() - getCartItemTotalPrice(cartItem));
+        if(quantity == 0)
+            stockReservations.release(product);
+        else
+            stockReservations.reserve(product, quantity);
 
-        cart.getCartItems().remove(cartItem);
-
-        Cart savedCart = cartRepository.save(cart); // cartItem deleted since orphanRemoval = true
+        BigDecimal oldTotalPrice = getCartItemTotalPrice(cartItem);
 
+        cartItem.setQuantity(quantity);
 
-        CartDTO cartDTO = modelMapper.map(savedCart, CartDTO.class);
+        List<CartItem> cartItems = cart.getCartItems();
+        for(CartItem item : cartItems){
+            if(isSameCartItem(item, cartItem))
+                item.setQuantity(quantity);
+        }
+        if(quantity == 0)
+            cartItems.removeIf(item -> isSameCartItem(item, cartItem));
 
-        List<CartItemDTO> cartItemDTOS = cart.getCartItems().stream()
-                .map(item -> modelMapper.map(item, CartItemDTO.class))
-                .toList();
-        cartDTO.setCartItems(cartItemDTOS);
+        cart.setTotalPrice(cart.getTotalPrice().add(getCartItemTotalPrice(cartItem)).subtract(oldTotalPrice));
+    }
 
-        return cartDTO;
+    // lines added earlier in a batch have no id yet, so they can only be matched by identity
+    private boolean isSameCartItem(CartItem item, CartItem cartItem) {
+        return item == cartItem
+                || (item.getCartItemId() != null && Objects.equals(item.getCartItemId(), cartItem.getCartItemId()));
+    }
 
+    private void removeCartItem(Cart cart, Product product, CartItem cartItem,
+                                StockReservationService.Batch stockReservations) {
+        if(cartItem == null){
+            throw new APIException("Product with name " + product.getProductName() +
+                    " is not added to the cart");
         }
 
+        stockReservations.release(product);
 
+        cart.setTotalPrice(cart.getTotalPrice().subtract(getCartItemTotalPrice(cartItem)));
 
-}
+        cart.getCartItems().remove(cartItem);
+    }
 
+}
@@ -2,9 +2,12 @@ package com.shopit.project.service;
 
 import com.shopit.project.payload.CategoryDTO;
 import com.shopit.project.payload.CategoryResponse;
+import com.shopit.project.payload.CategoryScrollResponse;
 
 public interface CategoryService {
     CategoryResponse getCategories(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
+    CategoryScrollResponse scrollCategories(String cursor, Integer pageSize, String sortBy, String sortOrder,
+                                            boolean includeTotal);
     CategoryDTO addCategory(CategoryDTO categoryDTO);
     CategoryDTO deleteCategory(Long categoryId);
     CategoryDTO permanentDeleteCategory(Long categoryId);
@@ -2,16 +2,21 @@ package com.shopit.project.service;
 
 import com.shopit.project.exceptions.APIException;
 import com.shopit.project.exceptions.ResourceNotFoundException;
+import com.shopit.project.mapper.CategoryMapper;
 import com.shopit.project.model.Category;
 import com.shopit.project.payload.CategoryDTO;
 import com.shopit.project.payload.CategoryResponse;
+import com.shopit.project.payload.CategoryScrollResponse;
 import com.shopit.project.repository.CategoryRepository;
-import org.modelmapper.ModelMapper;
+import com.shopit.project.util.CursorUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
@@ -23,12 +28,16 @@ public class CategoryServiceImpl implements CategoryService{
 
     CategoryRepository categoryRepository;
 
-    ModelMapper modelMapper;
+    CategoryMapper categoryMapper;
+
+    ProductCatalogCacheService productCatalogCacheService;
 
     @Autowired
-    public CategoryServiceImpl(CategoryRepository categoryRepository, ModelMapper modelMapper){
+    public CategoryServiceImpl(CategoryRepository categoryRepository, CategoryMapper categoryMapper,
+                               ProductCatalogCacheService productCatalogCacheService){
         this.categoryRepository = categoryRepository;
-        this.modelMapper = modelMapper;
+        this.categoryMapper = categoryMapper;
+        this.productCatalogCacheService = productCatalogCacheService;
     }
 
     public CategoryServiceImpl(){}
@@ -46,9 +55,7 @@ public class CategoryServiceImpl implements CategoryService{
         if(categories.isEmpty()){
             throw new APIException("No Category has been created till now");
         }
-        List<CategoryDTO> categoryDTOS = categories.stream()
-                .map(category -> modelMapper.map(category, CategoryDTO.class))
-                .toList();
+        List<CategoryDTO> categoryDTOS = categoryMapper.toDTOs(categories);
 
         CategoryResponse categoryResponse = new CategoryResponse();
         categoryResponse.setContent(categoryDTOS);
@@ -60,6 +67,41 @@ public class CategoryServiceImpl implements CategoryService{
         return categoryResponse;
     }
 
+    @Override
+    public CategoryScrollResponse scrollCategories(String cursor, Integer pageSize, String sortBy, String sortOrder,
+                                                   boolean includeTotal) {
+        Sort sort = sortOrder.equalsIgnoreCase("asc")
+                ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
+
+        // keyset scrolling appends categoryId to the sort, so the cursor carries both keys and the
+        // sort it was issued for
+        ScrollPosition position = cursor == null
+                ? ScrollPosition.keyset()
+                : CursorUtil.decode(cursor, sort, sortBy, "categoryId");
+
+        Window<Category> categoryWindow =
+                categoryRepository.findByDeleteDateIsNull(position, sort, Limit.of(pageSize));
+
+        if(categoryWindow.isEmpty() && cursor == null){
+            throw new APIException("No Category has been created till now");
+        }
+
+        CategoryScrollResponse categoryScrollResponse = new CategoryScrollResponse();
+        categoryScrollResponse.setContent(categoryMapper.toDTOs(categoryWindow.getContent()));
+        categoryScrollResponse.setPageSize(pageSize);
+        categoryScrollResponse.setLastPage(!categoryWindow.hasNext());
+
+        if(categoryWindow.hasNext())
+            categoryScrollResponse.setNextCursor(
+                    CursorUtil.encode(categoryWindow.positionAt(categoryWindow.size() - 1), sort));
+
+        if(includeTotal)
+            categoryScrollResponse.setTotalElements(categoryRepository.countByDeleteDateIsNull());
+
+        return categoryScrollResponse;
+    }
+
     @Override
     public CategoryDTO addCategory(CategoryDTO categoryDTO) {
         Optional<Category> optionalCategory = categoryRepository.findByCategoryName(categoryDTO.getCategoryName());
@@ -71,11 +113,11 @@ public class CategoryServiceImpl implements CategoryService{
                 throw new APIException("Category with the name " + categoryDTO.getCategoryName() + " has been deleted");
         }
 
-        Category category = modelMapper.map(categoryDTO, Category.class);
+        Category category = categoryMapper.toEntity(categoryDTO);
 
         Category savedCategory = categoryRepository.save(category);
 
-        return modelMapper.map(savedCategory, CategoryDTO.class);
+        return categoryMapper.toDTO(savedCategory);
     }
 
     @Override
@@ -85,7 +127,10 @@ public class CategoryServiceImpl implements CategoryService{
 
         categoryRepository.delete(category);
 
-        return modelMapper.map(category, CategoryDTO.class);
+        // the category's products are removed with it
+        productCatalogCacheService.evictAll();
+
+        return categoryMapper.toDTO(category);
     }
 
     @Override
@@ -100,7 +145,7 @@ public class CategoryServiceImpl implements CategoryService{
 
         Category deletedCategory = categoryRepository.save(category);
 
-        return modelMapper.map(deletedCategory, CategoryDTO.class);
+        return categoryMapper.toDTO(deletedCategory);
     }
 
 
@@ -116,7 +161,7 @@ public class CategoryServiceImpl implements CategoryService{
 
         categoryRepository.save(category);
 
-        return modelMapper.map(category, CategoryDTO.class);
+        return categoryMapper.toDTO(category);
     }
 
     @Override
@@ -131,7 +176,7 @@ public class CategoryServiceImpl implements CategoryService{
 
         Category savedCategory = categoryRepository.save(category);
 
-        return modelMapper.map(savedCategory, CategoryDTO.class);
+        return categoryMapper.toDTO(savedCategory);
     }
 
 
@@ -0,0 +1,54 @@
+package com.shopit.project.service;
+
+import com.shopit.project.mapper.ProductMapper;
+import com.shopit.project.model.Product;
+import com.shopit.project.payload.ProductResponse;
+import com.shopit.project.repository.ProductRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keyword search straight against the products table with a case-insensitive
+ * LIKE on the product name. Selected with spring.app.productSearchMode=database.
+ */
+@Service
+@ConditionalOnProperty(name = "spring.app.productSearchMode", havingValue = "database")
+public class DatabaseProductSearchService implements ProductSearchService {
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+
+    public DatabaseProductSearchService(ProductRepository productRepository, ProductMapper productMapper) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+    }
+
+    @Override
+    public ProductResponse searchProducts(String keyword, Integer pageNumber, Integer pageSize,
+                                          String sortBy, String sortOrder) {
+        Sort sort = sortOrder.equalsIgnoreCase("asc")
+                ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
+
+        Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sort);
+
+        Page<Product> productsByKeywordPage =
+                productRepository.findByProductNameContainingIgnoreCaseAndDeleteDateIsNull(keyword, pageDetails);
+
+        return productMapper.toResponse(productsByKeywordPage);
+    }
+
+    @Override
+    public void indexProduct(Product product) {
+        // nothing to maintain, the table is the index
+    }
+
+    @Override
+    public void removeProduct(Long productId) {
+        // nothing to maintain, the table is the index
+    }
+}
@@ -0,0 +1,71 @@
+package com.shopit.project.service;
+
+import com.shopit.project.mapper.ProductMapper;
+import com.shopit.project.model.Product;
+import com.shopit.project.payload.ProductResponse;
+import com.shopit.project.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+
+/**
+ * Keyword search with Postgres full text search: a generated, weighted tsvector over product
+ * name and description behind a GIN index, ranked with ts_rank. Partial words that the text
+ * search cannot stem to a lexeme fall back to a trigram indexed ILIKE on the product name.
+ * Results are ordered by rank, so sortBy and sortOrder do not apply in this mode.
+ * The column and indexes are created on startup from db/product-fulltext-search.sql.
+ * Selected with spring.app.productSearchMode=fulltext.
+ */
+@Service
+@ConditionalOnProperty(name = "spring.app.productSearchMode", havingValue = "fulltext")
+public class FullTextProductSearchService implements ProductSearchService {
+
+    private static final String SCHEMA_SCRIPT = "db/product-fulltext-search.sql";
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final DataSource dataSource;
+
+    public FullTextProductSearchService(ProductRepository productRepository, ProductMapper productMapper,
+                                        DataSource dataSource) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.dataSource = dataSource;
+    }
+
+    @PostConstruct
+    public void createSearchIndexes() {
+        new ResourceDatabasePopulator(new ClassPathResource(SCHEMA_SCRIPT)).execute(dataSource);
+    }
+
+    @Override
+    public ProductResponse searchProducts(String keyword, Integer pageNumber, Integer pageSize,
+                                          String sortBy, String sortOrder) {
+        Page<Product> productsByKeywordPage = productRepository.searchByFullText(keyword,
+                "%" + escapeLike(keyword) + "%", PageRequest.of(pageNumber, pageSize));
+
+        return productMapper.toResponse(productsByKeywordPage);
+    }
+
+    @Override
+    public void indexProduct(Product product) {
+        // search_vector is a generated column, Postgres keeps it current
+    }
+
+    @Override
+    public void removeProduct(Long productId) {
+        // search_vector is a generated column, Postgres keeps it current
+    }
+
+    private static String escapeLike(String keyword) {
+        return keyword.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,15 @@
+package com.shopit.project.service;
+
+import com.shopit.project.model.IdempotencyKey;
+
+import java.util.Optional;
+
+public interface IdempotencyService {
+    <T> Optional<T> findResponse(Long userId, String idempotencyKey, Class<T> responseType);
+
+    IdempotencyKey claimKey(Long userId, String idempotencyKey);
+
+    void saveResponse(IdempotencyKey claimedKey, Object response);
+
+    void recordOutcome(boolean replayed);
+}
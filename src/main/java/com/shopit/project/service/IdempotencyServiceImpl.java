@@ -0,0 +1,154 @@
+package com.shopit.project.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shopit.project.exceptions.APIException;
+import com.shopit.project.model.IdempotencyKey;
+import com.shopit.project.repository.IdempotencyKeyRepository;
+import com.shopit.project.util.TransactionUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Stores responses under the (user, Idempotency-Key) they were sent with. The idempotency_keys
+ * table is the durable record and its unique constraint is what stops two concurrent requests
+ * with the same key from both committing. A bounded in-memory cache in front of it answers most
+ * retries without a query. The caller records once per request whether it was replayed or
+ * executed, since one request can look its key up twice. Keys are kept for at least spring.app.idempotencyKeyRetentionMinutes,
+ * a scheduled sweep deletes older ones.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+
+    private static final String CACHE_NAME = "idempotencyKeys";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private record ResponseKey(Long userId, String idempotencyKey) {
+    }
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final long retentionMinutes;
+    private final int sweepBatchSize;
+    private final Cache<ResponseKey, String> responseCache;
+    private final Counter replayedCounter;
+    private final Counter executedCounter;
+
+    public IdempotencyServiceImpl(IdempotencyKeyRepository idempotencyKeyRepository, ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${spring.app.idempotencyKeyRetentionMinutes}") long retentionMinutes,
+                                  @Value("${spring.app.idempotencyCacheMaxSize}") long cacheMaxSize,
+                                  @Value("${spring.app.idempotencyKeySweepBatchSize}") int sweepBatchSize) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.retentionMinutes = retentionMinutes;
+        this.sweepBatchSize = sweepBatchSize;
+        this.responseCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofMinutes(retentionMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responseCache, CACHE_NAME);
+        this.replayedCounter = Counter.builder("shopit.idempotency.requests")
+                .tag("outcome", "replayed")
+                .description("Requests with an Idempotency-Key answered with the stored response")
+                .register(meterRegistry);
+        this.executedCounter = Counter.builder("shopit.idempotency.requests")
+                .tag("outcome", "executed")
+                .description("Requests with an Idempotency-Key that had no stored response and ran")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public <T> Optional<T> findResponse(Long userId, String idempotencyKey, Class<T> responseType) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH)
+            throw new APIException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+
+        ResponseKey key = new ResponseKey(userId, idempotencyKey);
+        String response = responseCache.getIfPresent(key);
+        if (response == null) {
+            response = idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey)
+                    .map(IdempotencyKey::getResponse)
+                    .orElse(null);
+            if (response != null)
+                responseCache.put(key, response);
+        }
+
+        if (response == null)
+            return Optional.empty();
+
+        try {
+            return Optional.of(objectMapper.readValue(response, responseType));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response for Idempotency-Key " + idempotencyKey
+                    + " cannot be read as " + responseType.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Inserts the key before the request does any work, flushed so the insert does not wait for
+     * the end of the transaction. A concurrent request with the same key blocks on the unique
+     * constraint until this transaction ends, then fails and can replay the stored response.
+     */
+    @Override
+    public IdempotencyKey claimKey(Long userId, String idempotencyKey) {
+        return idempotencyKeyRepository.saveAndFlush(
+                new IdempotencyKey(null, userId, idempotencyKey, null, LocalDateTime.now()));
+    }
+
+    /**
+     * Stores the response on the claimed key, written with the rest of the transaction. The cache
+     * is only filled once it commits.
+     */
+    @Override
+    public void saveResponse(IdempotencyKey claimedKey, Object response) {
+        String serialized;
+        try {
+            serialized = objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response for Idempotency-Key " + claimedKey.getIdempotencyKey()
+                    + " cannot be serialized", e);
+        }
+
+        claimedKey.setResponse(serialized);
+        idempotencyKeyRepository.save(claimedKey);
+
+        ResponseKey key = new ResponseKey(claimedKey.getUserId(), claimedKey.getIdempotencyKey());
+        TransactionUtil.afterCommit(() -> responseCache.put(key, serialized));
+    }
+
+    @Override
+    public void recordOutcome(boolean replayed) {
+        (replayed ? replayedCounter : executedCounter).increment();
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.idempotencyKeySweepIntervalMs}",
+            initialDelayString = "${spring.app.idempotencyKeySweepIntervalMs}")
+    public void sweepExpiredKeys() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        long deleted = 0;
+        int batchDeleted;
+        do {
+            batchDeleted = idempotencyKeyRepository.deleteExpiredBatch(cutoff, sweepBatchSize);
+            deleted += batchDeleted;
+        } while (batchDeleted == sweepBatchSize);
+
+        if (deleted > 0) {
+            logger.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+}
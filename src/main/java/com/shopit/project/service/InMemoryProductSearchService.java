@@ -0,0 +1,226 @@
+package com.shopit.project.service;
+
+import com.shopit.project.mapper.ProductMapper;
+import com.shopit.project.model.Product;
+import com.shopit.project.payload.ProductResponse;
+import com.shopit.project.repository.ProductRepository;
+import com.shopit.project.util.TransactionUtil;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.*;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keyword search served from an in-process trigram index over product name and description.
+ * Keywords of three or more characters are resolved by intersecting the posting lists of their
+ * trigrams and then verified as real substrings; shorter keywords scan the indexed documents.
+ * Matches are ranked by relevance (name before description, prefix and whole word matches first)
+ * with productId as the tie breaker, so sortBy and sortOrder do not apply in this mode.
+ * Only the ids of the requested page are loaded back from the database.
+ * The index is built at startup and kept current by ProductServiceImpl after each committed write.
+ * Selected with spring.app.productSearchMode=memory.
+ */
+@Service
+@ConditionalOnProperty(name = "spring.app.productSearchMode", havingValue = "memory")
+public class InMemoryProductSearchService implements ProductSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryProductSearchService.class);
+
+    private static final int GRAM_LENGTH = 3;
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private record IndexedProduct(Long productId, String name, String description,
+                                  Set<String> nameTokens, Set<String> descriptionTokens) {
+    }
+
+    private record ScoredProduct(Long productId, int score) {
+    }
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+
+    private final Map<Long, IndexedProduct> documents = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public InMemoryProductSearchService(ProductRepository productRepository, ProductMapper productMapper) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+    }
+
+    @PostConstruct
+    public void buildIndex() {
+        ScrollPosition position = ScrollPosition.keyset();
+        Window<Product> productWindow;
+        do {
+            productWindow = productRepository.findByDeleteDateIsNull(position, Sort.by("productId"),
+                    Limit.of(LOAD_BATCH_SIZE));
+            productWindow.forEach(product -> add(toDocument(product)));
+            if (!productWindow.isEmpty())
+                position = productWindow.positionAt(productWindow.size() - 1);
+        } while (productWindow.hasNext());
+
+        logger.info("Indexed {} products for keyword search", documents.size());
+    }
+
+    @Override
+    public ProductResponse searchProducts(String keyword, Integer pageNumber, Integer pageSize,
+                                          String sortBy, String sortOrder) {
+        Pageable pageDetails = PageRequest.of(pageNumber, pageSize);
+        String query = normalize(keyword).trim();
+
+        List<Long> rankedIds;
+        lock.readLock().lock();
+        try {
+            rankedIds = candidates(query).stream()
+                    .map(document -> new ScoredProduct(document.productId(), score(document, query)))
+                    .filter(scoredProduct -> scoredProduct.score() > 0)
+                    .sorted(Comparator.comparingInt(ScoredProduct::score).reversed()
+                            .thenComparing(ScoredProduct::productId))
+                    .map(ScoredProduct::productId)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int from = (int) Math.min(pageDetails.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageSize, rankedIds.size());
+        List<Long> pageIds = rankedIds.subList(from, to);
+
+        Map<Long, Product> productsById = productRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        List<Product> products = pageIds.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        return productMapper.toResponse(new PageImpl<>(products, pageDetails, rankedIds.size()));
+    }
+
+    @Override
+    public void indexProduct(Product product) {
+        if (product.getDeleteDate() != null) {
+            removeProduct(product.getProductId());
+            return;
+        }
+
+        IndexedProduct document = toDocument(product);
+        TransactionUtil.afterCommit(() -> add(document));
+    }
+
+    @Override
+    public void removeProduct(Long productId) {
+        TransactionUtil.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(productId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void add(IndexedProduct document) {
+        lock.writeLock().lock();
+        try {
+            remove(document.productId());
+            documents.put(document.productId(), document);
+            for (String gram : grams(document)) {
+                postings.computeIfAbsent(gram, g -> new HashSet<>()).add(document.productId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Long productId) {
+        IndexedProduct document = documents.remove(productId);
+        if (document == null)
+            return;
+
+        for (String gram : grams(document)) {
+            Set<Long> productIds = postings.get(gram);
+            if (productIds != null) {
+                productIds.remove(productId);
+                if (productIds.isEmpty())
+                    postings.remove(gram);
+            }
+        }
+    }
+
+    private Collection<IndexedProduct> candidates(String query) {
+        if (query.length() < GRAM_LENGTH)
+            return documents.values();
+
+        List<Set<Long>> queryPostings = new ArrayList<>();
+        for (String gram : grams(query)) {
+            Set<Long> productIds = postings.get(gram);
+            if (productIds == null)
+                return List.of();
+            queryPostings.add(productIds);
+        }
+        queryPostings.sort(Comparator.comparingInt(Set::size));
+
+        List<IndexedProduct> candidates = new ArrayList<>();
+        for (Long productId : queryPostings.getFirst()) {
+            if (queryPostings.stream().allMatch(productIds -> productIds.contains(productId)))
+                candidates.add(documents.get(productId));
+        }
+        return candidates;
+    }
+
+    private static int score(IndexedProduct document, String query) {
+        int score = 0;
+        if (document.name().contains(query)) {
+            score += 10;
+            if (document.name().startsWith(query))
+                score += 5;
+            if (document.nameTokens().contains(query))
+                score += 5;
+        }
+        if (document.description().contains(query)) {
+            score += 3;
+            if (document.descriptionTokens().contains(query))
+                score += 1;
+        }
+        return score;
+    }
+
+    private static IndexedProduct toDocument(Product product) {
+        String name = normalize(product.getProductName());
+        String description = normalize(product.getProductDescription());
+        return new IndexedProduct(product.getProductId(), name, description, tokens(name), tokens(description));
+    }
+
+    private static Set<String> grams(IndexedProduct document) {
+        Set<String> grams = grams(document.name());
+        grams.addAll(grams(document.description()));
+        return grams;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static Set<String> tokens(String text) {
+        return Arrays.stream(text.split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,16 @@
+package com.shopit.project.service;
+
+import com.shopit.project.payload.ProductDTO;
+import com.shopit.project.repository.ProductStockRepository.StockDecrement;
+
+import java.util.List;
+
+public interface InventoryService {
+    int[] decrementStock(List<StockDecrement> decrements);
+
+    ProductDTO shardStock(Long productId, Integer shardCount);
+
+    void setStock(Long productId, Integer quantity);
+
+    void removeShards(Long productId);
+}
@@ -0,0 +1,141 @@
+package com.shopit.project.service;
+
+import com.shopit.project.exceptions.APIException;
+import com.shopit.project.exceptions.ResourceNotFoundException;
+import com.shopit.project.mapper.ProductMapper;
+import com.shopit.project.model.InventoryShard;
+import com.shopit.project.model.Product;
+import com.shopit.project.payload.ProductDTO;
+import com.shopit.project.repository.InventoryShardRepository;
+import com.shopit.project.repository.InventoryShardStockRepository.ShardedStock;
+import com.shopit.project.repository.ProductRepository;
+import com.shopit.project.repository.ProductStockRepository.StockDecrement;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Stock writes for checkout. Most products keep their stock in products.product_quantity and
+ * are decremented with the batched conditional UPDATE. Hot products can be split into
+ * inventory_shards rows; a checkout then decrements one shard, picked at random, so concurrent
+ * orders for the same product lock different rows. When no single shard can cover a line, all
+ * shards of the product are locked and the quantity is taken across them.
+ * For sharded products product_quantity is a read copy, refreshed from the shard totals by
+ * {@link #reconcileProductQuantities()}.
+ */
+@Service
+public class InventoryServiceImpl implements InventoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryServiceImpl.class);
+
+    private final ProductRepository productRepository;
+    private final InventoryShardRepository inventoryShardRepository;
+    private final ProductMapper productMapper;
+    private final int maxShards;
+    private final Counter fallbackCounter;
+
+    public InventoryServiceImpl(ProductRepository productRepository, InventoryShardRepository inventoryShardRepository,
+                                ProductMapper productMapper, MeterRegistry meterRegistry,
+                                @Value("${spring.app.inventoryMaxShards}") int maxShards) {
+        this.productRepository = productRepository;
+        this.inventoryShardRepository = inventoryShardRepository;
+        this.productMapper = productMapper;
+        this.maxShards = maxShards;
+        this.fallbackCounter = Counter.builder("shopit.inventory.shard.fallbacks")
+                .description("Sharded decrements that had to lock every shard of the product")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int[] decrementStock(List<StockDecrement> decrements) {
+        int[] updatedRows = new int[decrements.size()];
+        if (decrements.isEmpty())
+            return updatedRows;
+
+        Map<Long, List<InventoryShard>> shardsByProduct = inventoryShardRepository
+                .findByProductIdIn(decrements.stream().map(StockDecrement::productId).toList()).stream()
+                .collect(Collectors.groupingBy(InventoryShard::getProductId));
+
+        List<Integer> unshardedLines = new ArrayList<>();
+        for (int i = 0; i < decrements.size(); i++) {
+            List<InventoryShard> shards = shardsByProduct.get(decrements.get(i).productId());
+            if (shards == null)
+                unshardedLines.add(i);
+            else
+                updatedRows[i] = decrementSharded(decrements.get(i), shards);
+        }
+
+        if (!unshardedLines.isEmpty()) {
+            int[] productRows = productRepository.decrementStock(unshardedLines.stream().map(decrements::get).toList());
+            for (int i = 0; i < unshardedLines.size(); i++) {
+                updatedRows[unshardedLines.get(i)] = productRows[i];
+            }
+        }
+        return updatedRows;
+    }
+
+    private int decrementSharded(StockDecrement decrement, List<InventoryShard> shards) {
+        // the shard quantities were read without locks, they only steer which shards to try first
+        int start = ThreadLocalRandom.current().nextInt(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            InventoryShard shard = shards.get((start + i) % shards.size());
+            if (shard.getQuantity() >= decrement.quantity()
+                    && inventoryShardRepository.decrementShard(decrement.productId(), shard.getShardIndex(),
+                    decrement.quantity()) == 1)
+                return 1;
+        }
+
+        fallbackCounter.increment();
+        return inventoryShardRepository.decrementAcrossShards(decrement.productId(), decrement.quantity());
+    }
+
+    @Transactional
+    @Override
+    public ProductDTO shardStock(Long productId, Integer shardCount) {
+        if (shardCount < 1 || shardCount > maxShards)
+            throw new APIException("Shard count must be between 1 and " + maxShards);
+
+        if (!productRepository.existsById(productId))
+            throw new ResourceNotFoundException("Product", "Product ID", productId);
+
+        ShardedStock stock = inventoryShardRepository.lockStock(productId);
+        inventoryShardRepository.replaceShards(productId, shardCount, stock.quantity());
+        inventoryShardRepository.updateProductQuantity(productId, stock.quantity());
+
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "Product ID", productId));
+        return productMapper.toDTO(product);
+    }
+
+    @Override
+    public void setStock(Long productId, Integer quantity) {
+        ShardedStock stock = inventoryShardRepository.lockStock(productId);
+        if (stock.shardCount() > 0)
+            inventoryShardRepository.replaceShards(productId, stock.shardCount(), quantity);
+    }
+
+    @Override
+    public void removeShards(Long productId) {
+        inventoryShardRepository.deleteShards(productId);
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.inventoryReconcileIntervalMs}",
+            initialDelayString = "${spring.app.inventoryReconcileIntervalMs}")
+    public void reconcileProductQuantities() {
+        int updated = inventoryShardRepository.reconcileProductQuantities();
+        if (updated > 0) {
+            logger.debug("Refreshed product_quantity of {} sharded products", updated);
+        }
+    }
+}
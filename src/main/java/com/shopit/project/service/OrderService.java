@@ -2,9 +2,14 @@ package com.shopit.project.service;
 
 import com.shopit.project.payload.OrderDTO;
 import com.shopit.project.payload.OrderRequestDTO;
+import com.shopit.project.payload.OrderSummaryScrollResponse;
 
 public interface OrderService {
-    OrderDTO placeOrder(OrderRequestDTO orderRequestDTO);
+    OrderDTO placeOrder(OrderRequestDTO orderRequestDTO, String idempotencyKey);
 
     OrderDTO updateOrder(OrderDTO orderDTO, Long orderId);
+
+    OrderSummaryScrollResponse getUserOrders(String cursor, Integer pageSize);
+
+    OrderSummaryScrollResponse getAllOrders(String cursor, Integer pageSize);
 }
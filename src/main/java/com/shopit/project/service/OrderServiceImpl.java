@@ -1,105 +1,180 @@
 package com.shopit.project.service;
 
+import com.shopit.project.config.AppConstants;
+import com.shopit.project.event.OrderPlaced;
+import com.shopit.project.event.OrderStatusChanged;
 import com.shopit.project.exceptions.APIException;
 import com.shopit.project.exceptions.ResourceNotFoundException;
+import com.shopit.project.mapper.OrderMapper;
 import com.shopit.project.model.*;
 import com.shopit.project.payload.OrderDTO;
 import com.shopit.project.payload.OrderRequestDTO;
-import com.shopit.project.payload.PaymentDTO;
+import com.shopit.project.payload.OrderSummaryScrollResponse;
 import com.shopit.project.repository.*;
+import com.shopit.project.repository.ProductStockRepository.StockDecrement;
 import com.shopit.project.util.AuthUtil;
-import jakarta.transaction.Transactional;
-import org.hibernate.sql.Update;
-import org.modelmapper.ModelMapper;
+import com.shopit.project.util.CursorUtil;
+import com.shopit.project.util.MoneyUtil;
+import com.shopit.project.util.OptimisticLockRetry;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 @Service
 public class OrderServiceImpl implements OrderService {
-    private final ModelMapper modelMapper;
+    private final OrderMapper orderMapper;
     private final AddressRepository addressRepository;
     private final AuthUtil authUtil;
-    private final PaymentService paymentService;
-    private final OrderItemRepository orderItemRepository;
-    private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
     private final CartRepository cartRepository;
     private final ProductRepository productRepository;
-
-    public OrderServiceImpl(ModelMapper modelMapper, AddressRepository addressRepository,
-                            AuthUtil authUtil, PaymentService paymentService, OrderItemRepository orderItemRepository, PaymentRepository paymentRepository, OrderRepository orderRepository, CartRepository cartRepository, ProductRepository productRepository) {
-        this.modelMapper = modelMapper;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final StockReservationService stockReservationService;
+    private final InventoryService inventoryService;
+    private final CartRepricingService cartRepricingService;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final IdempotencyService idempotencyService;
+    private final OutboxService outboxService;
+
+    public OrderServiceImpl(OrderMapper orderMapper, AddressRepository addressRepository,
+                            AuthUtil authUtil, OrderRepository orderRepository, CartRepository cartRepository, ProductRepository productRepository,
+                            OptimisticLockRetry optimisticLockRetry, StockReservationService stockReservationService,
+                            InventoryService inventoryService, CartRepricingService cartRepricingService,
+                            OrderSummaryRepository orderSummaryRepository, IdempotencyService idempotencyService,
+                            OutboxService outboxService) {
+        this.orderMapper = orderMapper;
         this.addressRepository = addressRepository;
         this.authUtil = authUtil;
-        this.paymentService = paymentService;
-        this.orderItemRepository = orderItemRepository;
-        this.paymentRepository = paymentRepository;
         this.orderRepository = orderRepository;
         this.cartRepository = cartRepository;
         this.productRepository = productRepository;
+        this.optimisticLockRetry = optimisticLockRetry;
+        this.stockReservationService = stockReservationService;
+        this.inventoryService = inventoryService;
+        this.cartRepricingService = cartRepricingService;
+        this.orderSummaryRepository = orderSummaryRepository;
+        this.idempotencyService = idempotencyService;
+        this.outboxService = outboxService;
     }
 
+    /**
+     * Decrements stock for every cart line with conditional UPDATEs (batched, or per shard for
+     * sharded products), so concurrent checkouts cannot oversell. Lines are sent in productId
+     * order to keep row locks ordered.
+     * If any line is short the whole order is rejected and the transaction rolls back.
+     */
     private void updateProductStock(Cart cart) {
-        List<CartItem> cartItems = cart.getCartItems();
-        for(CartItem cartItem : cartItems) {
-            Product product = cartItem.getProduct();
-            Integer availableStock = product.getProductQuantity();
-            Integer requestStock = cartItem.getQuantity();
-            if(requestStock > availableStock)
-                throw new APIException("Stock Not Available for the Product " +
-                        product.getProductName() + " for the quantity " + requestStock +
-                        ". Available stock is " + availableStock);
-
-            product.setProductQuantity(availableStock - requestStock);
-            productRepository.save(product);
+        List<CartItem> cartItems = cart.getCartItems().stream()
+                .sorted(Comparator.comparing(cartItem -> cartItem.getProduct().getProductId(),
+                        Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+        List<StockDecrement> decrements = cartItems.stream()
+                .map(cartItem -> new StockDecrement(cartItem.getProduct().getProductId(), cartItem.getQuantity()))
+                .toList();
+
+        int[] updatedRows = inventoryService.decrementStock(decrements);
+
+        List<String> outOfStock = new ArrayList<>();
+        for (int i = 0; i < cartItems.size(); i++) {
+            if (updatedRows[i] == 0) {
+                CartItem cartItem = cartItems.get(i);
+                outOfStock.add(cartItem.getProduct().getProductName() + " for the quantity " + cartItem.getQuantity());
+            }
         }
+        if (!outOfStock.isEmpty())
+            throw new APIException("Stock Not Available for the Product " + String.join(", ", outOfStock));
     }
 
-    @Transactional
+    /**
+     * With an idempotency key, a retry of a checkout that already went through returns the stored
+     * order instead of placing it again. The key is claimed first thing in the checkout transaction,
+     * so of two requests racing with the same key the second waits for the first and replays it.
+     * Each request is counted once, as replayed or executed.
+     */
     @Override
-    public OrderDTO placeOrder(OrderRequestDTO orderRequestDTO) {
+    public OrderDTO placeOrder(OrderRequestDTO orderRequestDTO, String idempotencyKey) {
+        if (idempotencyKey == null)
+            return optimisticLockRetry.execute("order.place", () -> doPlaceOrder(orderRequestDTO));
+
+        Long userId = authUtil.loggedInUser().getUserId();
+        Optional<OrderDTO> storedOrder = idempotencyService.findResponse(userId, idempotencyKey, OrderDTO.class);
+        if (storedOrder.isPresent()) {
+            idempotencyService.recordOutcome(true);
+            return storedOrder.get();
+        }
+
+        boolean replayed = false;
+        try {
+            return optimisticLockRetry.execute("order.place", () -> {
+                IdempotencyKey claimedKey = idempotencyService.claimKey(userId, idempotencyKey);
+                OrderDTO orderDTO = doPlaceOrder(orderRequestDTO);
+                idempotencyService.saveResponse(claimedKey, orderDTO);
+                return orderDTO;
+            });
+        } catch (DataIntegrityViolationException e) {
+            OrderDTO winnerOrder = idempotencyService.findResponse(userId, idempotencyKey, OrderDTO.class)
+                    .orElseThrow(() -> e);
+            replayed = true;
+            return winnerOrder;
+        } finally {
+            idempotencyService.recordOutcome(replayed);
+        }
+    }
+
+    /**
+     * Loads the cart with its lines and products in one select and writes the order, its lines and
+     * the payment in one pass: the order save cascades to both, and the lines go out as one JDBC batch.
+     * Follow-up work such as the order history summary runs from the OrderPlaced event once the order
+     * has committed.
+     */
+    private OrderDTO doPlaceOrder(OrderRequestDTO orderRequestDTO) {
         Order order = new Order();
 
         User user = authUtil.loggedInUser();
         order.setUser(user);
 
-        Cart cart = user.getCart();
-        List<CartItem> cartsItems = cart.getCartItems();
+        Cart cart = cartRepository.findCartWithItemsByUser(user);
 
-        if(cartsItems.isEmpty())
+        if(cart == null || cart.getCartItems().isEmpty())
             throw new APIException("No Item has been added to the Cart!");
 
+        List<CartItem> cartsItems = cart.getCartItems();
+
+        // orders are placed at the current price, not the one captured when the line was added
+        cartRepricingService.repriceStaleItems(cart);
+
+        stockReservationService.confirm(cart);
         updateProductStock(cart);
+        stockReservationService.consume(cart);
 
-        List<OrderItem> orderItems = new ArrayList<>();
         for (CartItem cartItem : cartsItems) {
             OrderItem orderItem = new OrderItem();
+            orderItem.setOrder(order);
             orderItem.setProduct(cartItem.getProduct());
             orderItem.setQuantity(cartItem.getQuantity());
             orderItem.setProductPrice(cartItem.getProductPrice());
             orderItem.setProductDiscountPercentage(cartItem.getProductDiscountPercentage());
-            orderItems.add(orderItem);
+            order.getOrderItems().add(orderItem);
         }
 
-        List<OrderItem> savedOrderItems = orderItemRepository.saveAll(orderItems);
-        order.setOrderItems(savedOrderItems);
-
-        PaymentDTO paymentDTO = new PaymentDTO();
-        paymentDTO.setPaymentMethod(orderRequestDTO.getPaymentMethod());
-        paymentDTO.setGatewayName(orderRequestDTO.getGatewayName());
-        paymentDTO.setTransactionId(orderRequestDTO.getTransactionId());
-        paymentDTO.setStatus(orderRequestDTO.getPaymentStatus());
-        paymentDTO.setResponseMessage(orderRequestDTO.getPaymentResponseMessage());
-
-        PaymentDTO savedPaymentDTO = paymentService.savePayment(paymentDTO);
-
-        Payment payment = paymentRepository.findById(savedPaymentDTO.getPaymentId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Payment", "Payment ID",
-                                savedPaymentDTO.getPaymentId()));
+        Payment payment = new Payment();
+        payment.setPaymentMethod(orderRequestDTO.getPaymentMethod());
+        payment.setGatewayName(orderRequestDTO.getGatewayName());
+        payment.setTransactionId(orderRequestDTO.getTransactionId());
+        payment.setStatus(orderRequestDTO.getPaymentStatus());
+        payment.setResponseMessage(orderRequestDTO.getPaymentResponseMessage());
+        payment.setOrder(order);
         order.setPayment(payment);
 
         Address address = addressRepository.findById(orderRequestDTO.getAddressId())
@@ -118,23 +193,17 @@ public class OrderServiceImpl implements OrderService {
         order.setOrderDate(LocalDate.now());
 
         Order savedOrder = orderRepository.save(order);
+        outboxService.publish(new OrderPlaced(savedOrder.getOrderId(), user.getUserId(), savedOrder.getTotalPrice()));
 
-
-        payment.setOrder(savedOrder);
-        paymentRepository.save(payment);
-
-        for (OrderItem orderItem : savedOrderItems) {
-            orderItem.setOrder(savedOrder);
-        }
-        orderItemRepository.saveAll(orderItems);
-
+        // cleared here rather than from OrderPlaced, so the same cart cannot be checked out twice
         cart.getCartItems().clear(); //Clear Cart
-        cart.setTotalPrice(0.0);
+        cart.setTotalPrice(MoneyUtil.ZERO);
         cartRepository.save(cart);
 
-        return modelMapper.map(savedOrder, OrderDTO.class);
+        return orderMapper.toDTO(savedOrder);
     }
 
+    @Transactional
     @Override
     public OrderDTO updateOrder(OrderDTO orderDTO, Long orderId) {
         Order order = orderRepository.findById(orderId)
@@ -142,9 +211,81 @@ public class OrderServiceImpl implements OrderService {
 
         order.setOrderStatus(orderDTO.getOrderStatus());
         orderRepository.save(order);
+        outboxService.publish(new OrderStatusChanged(orderId, order.getOrderStatus()));
 
-        return modelMapper.map(order, OrderDTO.class);
+        return orderMapper.toDTO(order);
     }
 
+    @Override
+    public OrderSummaryScrollResponse getUserOrders(String cursor, Integer pageSize) {
+        Limit limit = historyLimit(pageSize);
+        Long userId = authUtil.loggedInUser().getUserId();
+
+        List<OrderSummary> orderSummaries;
+        if (cursor == null) {
+            orderSummaries = orderSummaryRepository.findUserHistory(userId, limit);
+        } else {
+            OrderHistoryCursor after = OrderHistoryCursor.decode(cursor);
+            orderSummaries = orderSummaryRepository.findUserHistoryAfter(userId, after.orderDate(), after.orderId(), limit);
+        }
+        return toScrollResponse(orderSummaries, pageSize);
+    }
+
+    @Override
+    public OrderSummaryScrollResponse getAllOrders(String cursor, Integer pageSize) {
+        Limit limit = historyLimit(pageSize);
+
+        List<OrderSummary> orderSummaries;
+        if (cursor == null) {
+            orderSummaries = orderSummaryRepository.findHistory(limit);
+        } else {
+            OrderHistoryCursor after = OrderHistoryCursor.decode(cursor);
+            orderSummaries = orderSummaryRepository.findHistoryAfter(after.orderDate(), after.orderId(), limit);
+        }
+        return toScrollResponse(orderSummaries, pageSize);
+    }
+
+    private static Limit historyLimit(Integer pageSize) {
+        if (pageSize == null || pageSize < 1 || pageSize > AppConstants.MAX_PAGE_SIZE)
+            throw new APIException("pageSize must be between 1 and " + AppConstants.MAX_PAGE_SIZE);
+        // one extra row tells whether another page follows
+        return Limit.of(pageSize + 1);
+    }
+
+    private OrderSummaryScrollResponse toScrollResponse(List<OrderSummary> orderSummaries, Integer pageSize) {
+        boolean hasNext = orderSummaries.size() > pageSize;
+        List<OrderSummary> page = hasNext ? orderSummaries.subList(0, pageSize) : orderSummaries;
 
+        OrderSummaryScrollResponse orderSummaryScrollResponse = new OrderSummaryScrollResponse();
+        orderSummaryScrollResponse.setContent(page.stream()
+                .map(orderMapper::toDTO)
+                .toList());
+        orderSummaryScrollResponse.setPageSize(pageSize);
+        orderSummaryScrollResponse.setLastPage(!hasNext);
+
+        if(hasNext)
+            orderSummaryScrollResponse.setNextCursor(OrderHistoryCursor.encode(page.getLast()));
+
+        return orderSummaryScrollResponse;
+    }
+
+    /**
+     * Position in order history: the (orderDate, orderId) of the last row on the previous page.
+     */
+    private record OrderHistoryCursor(LocalDate orderDate, Long orderId) {
+
+        static String encode(OrderSummary orderSummary) {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("orderDate", orderSummary.getOrderDate());
+            keys.put("orderId", orderSummary.getOrderId());
+            return CursorUtil.encode(ScrollPosition.forward(keys));
+        }
+
+        static OrderHistoryCursor decode(String cursor) {
+            Map<String, Object> keys = CursorUtil.decode(cursor, "orderDate", "orderId").getKeys();
+            if (!(keys.get("orderDate") instanceof LocalDate orderDate) || !(keys.get("orderId") instanceof Long orderId))
+                throw new APIException("Invalid cursor");
+            return new OrderHistoryCursor(orderDate, orderId);
+        }
+    }
 }
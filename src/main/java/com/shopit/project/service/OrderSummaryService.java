@@ -0,0 +1,7 @@
+package com.shopit.project.service;
+
+import com.shopit.project.model.Order;
+
+public interface OrderSummaryService {
+    void refreshSummary(Order order);
+}
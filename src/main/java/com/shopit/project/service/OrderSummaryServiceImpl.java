@@ -0,0 +1,62 @@
+package com.shopit.project.service;
+
+import com.shopit.project.event.OrderEvent;
+import com.shopit.project.event.OrderEventHandler;
+import com.shopit.project.model.Order;
+import com.shopit.project.model.OrderItem;
+import com.shopit.project.model.OrderSummary;
+import com.shopit.project.repository.OrderRepository;
+import com.shopit.project.repository.OrderSummaryRepository;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the order_summaries row of an order in step with it. The row is a projection of order
+ * events: it is rewritten from the order whenever one of its events is dispatched from the outbox,
+ * so history pages catch up shortly after the change commits.
+ */
+@Service
+public class OrderSummaryServiceImpl implements OrderSummaryService, OrderEventHandler {
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderRepository orderRepository;
+
+    public OrderSummaryServiceImpl(OrderSummaryRepository orderSummaryRepository, OrderRepository orderRepository) {
+        this.orderSummaryRepository = orderSummaryRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    @Override
+    public void handle(OrderEvent event) {
+        orderRepository.findById(event.orderId()).ifPresent(this::refreshSummary);
+    }
+
+    /**
+     * Rewrites the summary from the order, creating it on the first event of the order.
+     */
+    @Override
+    public void refreshSummary(Order order) {
+        OrderSummary orderSummary = orderSummaryRepository.findById(order.getOrderId())
+                .orElseGet(OrderSummary::new);
+        orderSummaryRepository.save(copyOf(order, orderSummary));
+    }
+
+    private OrderSummary copyOf(Order order, OrderSummary orderSummary) {
+        orderSummary.setOrderId(order.getOrderId());
+        if (order.getUser() != null) {
+            orderSummary.setUserId(order.getUser().getUserId());
+            orderSummary.setUserEmail(order.getUser().getUserEmail());
+        }
+        orderSummary.setOrderDate(order.getOrderDate());
+        orderSummary.setOrderStatus(order.getOrderStatus());
+        orderSummary.setTotalPrice(order.getTotalPrice());
+        orderSummary.setItemCount(order.getOrderItems().stream()
+                .mapToInt(OrderItem::getQuantity)
+                .sum());
+        if (order.getPayment() != null) {
+            orderSummary.setPaymentMethod(order.getPayment().getPaymentMethod());
+            orderSummary.setPaymentStatus(order.getPayment().getStatus());
+        }
+        if (order.getAddress() != null)
+            orderSummary.setShippingCity(order.getAddress().getCity());
+        return orderSummary;
+    }
+}
@@ -0,0 +1,9 @@
+package com.shopit.project.service;
+
+import com.shopit.project.event.OrderEvent;
+
+public interface OutboxService {
+    void publish(OrderEvent event);
+
+    int dispatchPending();
+}
@@ -0,0 +1,193 @@
+package com.shopit.project.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopit.project.event.OrderEvent;
+import com.shopit.project.event.OrderEventHandler;
+import com.shopit.project.model.OutboxEvent;
+import com.shopit.project.repository.OutboxEventRepository;
+import com.shopit.project.util.TransactionUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transactional outbox for order events. publish() writes the event to outbox_events in the
+ * caller's transaction, so it exists exactly when the order change commits, and once that commit
+ * happens a drain of the outbox is queued on a small bounded executor. The request does not wait
+ * for the handlers.
+ * Each event is dispatched in its own transaction that locks the row, runs every handler and
+ * marks it published. A failed event is retried after spring.app.outboxRetryDelayMs times the
+ * attempt number, up to spring.app.outboxMaxAttempts, and then stays unpublished with its last
+ * error for inspection. A scheduled poll picks up events whose drain was dropped because the
+ * executor queue was full or that were written before a restart. Published events are deleted
+ * after spring.app.outboxRetentionMinutes.
+ */
+@Service
+public class OutboxServiceImpl implements OutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxServiceImpl.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OrderEventHandler> handlers;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+    private final long retentionMinutes;
+    private final int sweepBatchSize;
+    private final ThreadPoolExecutor dispatchExecutor;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+
+    public OutboxServiceImpl(OutboxEventRepository outboxEventRepository, List<OrderEventHandler> handlers,
+                             ObjectMapper objectMapper, TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${spring.app.outboxDispatchThreads}") int dispatchThreads,
+                             @Value("${spring.app.outboxDispatchQueueCapacity}") int dispatchQueueCapacity,
+                             @Value("${spring.app.outboxMaxAttempts}") int maxAttempts,
+                             @Value("${spring.app.outboxRetryDelayMs}") long retryDelayMs,
+                             @Value("${spring.app.outboxRetentionMinutes}") long retentionMinutes,
+                             @Value("${spring.app.outboxSweepBatchSize}") int sweepBatchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.handlers = handlers;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMs = retryDelayMs;
+        this.retentionMinutes = retentionMinutes;
+        this.sweepBatchSize = sweepBatchSize;
+        // a drain dropped because the queue is full is covered by the next poll
+        this.dispatchExecutor = new ThreadPoolExecutor(dispatchThreads, dispatchThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(dispatchQueueCapacity), new CustomizableThreadFactory("outbox-"),
+                new ThreadPoolExecutor.DiscardPolicy());
+        ExecutorServiceMetrics.monitor(meterRegistry, dispatchExecutor, "outbox");
+        this.publishedCounter = Counter.builder("shopit.outbox.events")
+                .tag("outcome", "published")
+                .description("Order events handed to every handler")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("shopit.outbox.events")
+                .tag("outcome", "failed")
+                .description("Order event dispatch attempts that failed in a handler")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void publish(OrderEvent event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Order event " + event + " cannot be serialized", e);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        outboxEventRepository.save(new OutboxEvent(null, event.getClass().getSimpleName(), event.orderId(),
+                payload, now, now, null, 0, null));
+
+        TransactionUtil.afterCommit(() -> dispatchExecutor.execute(this::drain));
+    }
+
+    @Override
+    public int dispatchPending() {
+        int dispatched = 0;
+        while (dispatchNext())
+            dispatched++;
+        return dispatched;
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.outboxPollIntervalMs}",
+            initialDelayString = "${spring.app.outboxPollIntervalMs}")
+    public void pollPending() {
+        drain();
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.outboxSweepIntervalMs}",
+            initialDelayString = "${spring.app.outboxSweepIntervalMs}")
+    public void sweepPublishedEvents() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        long deleted = 0;
+        int batchDeleted;
+        do {
+            batchDeleted = outboxEventRepository.deletePublishedBatch(cutoff, sweepBatchSize);
+            deleted += batchDeleted;
+        } while (batchDeleted == sweepBatchSize);
+
+        if (deleted > 0) {
+            logger.info("Deleted {} published outbox events", deleted);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatchExecutor.shutdown();
+    }
+
+    private void drain() {
+        try {
+            dispatchPending();
+        } catch (RuntimeException e) {
+            logger.warn("Dispatching order events failed", e);
+        }
+    }
+
+    /**
+     * Dispatches the oldest pending event. Returns false once nothing is left to dispatch now.
+     */
+    private boolean dispatchNext() {
+        OutboxEvent[] locked = new OutboxEvent[1];
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                Optional<OutboxEvent> next = outboxEventRepository.lockNextPending(LocalDateTime.now(), maxAttempts);
+                if (next.isEmpty())
+                    return false;
+
+                OutboxEvent outboxEvent = next.get();
+                locked[0] = outboxEvent;
+                OrderEvent event = read(outboxEvent);
+                for (OrderEventHandler handler : handlers)
+                    handler.handle(event);
+
+                outboxEvent.setPublishedAt(LocalDateTime.now());
+                TransactionUtil.afterCommit(publishedCounter::increment);
+                return true;
+            }));
+        } catch (RuntimeException e) {
+            OutboxEvent failed = locked[0];
+            if (failed == null)
+                throw e;
+
+            int attempt = failed.getAttempts() + 1;
+            outboxEventRepository.recordFailure(failed.getEventId(),
+                    LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(retryDelayMs * attempt)),
+                    String.valueOf(e));
+            failedCounter.increment();
+            logger.warn("Order event {} ({}) failed on attempt {} of {}", failed.getEventId(),
+                    failed.getEventType(), attempt, maxAttempts, e);
+            return true;
+        }
+    }
+
+    private OrderEvent read(OutboxEvent outboxEvent) {
+        try {
+            return objectMapper.readValue(outboxEvent.getPayload(), OrderEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Outbox event " + outboxEvent.getEventId() + " cannot be read", e);
+        }
+    }
+}
@@ -1,36 +1,41 @@
 package com.shopit.project.service;
 
+import com.shopit.project.event.PaymentUpdated;
 import com.shopit.project.exceptions.ResourceNotFoundException;
+import com.shopit.project.mapper.PaymentMapper;
 import com.shopit.project.model.Order;
 import com.shopit.project.model.Payment;
 import com.shopit.project.payload.PaymentDTO;
 import com.shopit.project.repository.OrderRepository;
 import com.shopit.project.repository.PaymentRepository;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class PaymentServiceImpl implements PaymentService{
-    private final ModelMapper modelMapper;
+    private final PaymentMapper paymentMapper;
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
+    private final OutboxService outboxService;
 
-    public PaymentServiceImpl(ModelMapper modelMapper, PaymentRepository paymentRepository,
-                              OrderRepository orderRepository) {
-        this.modelMapper = modelMapper;
+    public PaymentServiceImpl(PaymentMapper paymentMapper, PaymentRepository paymentRepository,
+                              OrderRepository orderRepository, OutboxService outboxService) {
+        this.paymentMapper = paymentMapper;
         this.paymentRepository = paymentRepository;
         this.orderRepository = orderRepository;
+        this.outboxService = outboxService;
     }
 
     @Override
     public PaymentDTO savePayment(PaymentDTO paymentDTO) {
-        Payment payment = modelMapper.map(paymentDTO, Payment.class);
+        Payment payment = paymentMapper.toEntity(paymentDTO);
 
         Payment savedPayment = paymentRepository.save(payment);
 
-        return modelMapper.map(savedPayment, PaymentDTO.class);
+        return paymentMapper.toDTO(savedPayment);
     }
 
+    @Transactional
     @Override
     public PaymentDTO updatePaymentStatus(PaymentDTO paymentDTO, Long paymentId) {
         Payment payment = paymentRepository.findById(paymentId)
@@ -43,7 +48,8 @@ public class PaymentServiceImpl implements PaymentService{
 
         Payment savedPayment = paymentRepository.save(payment);
         orderRepository.save(order);
+        outboxService.publish(new PaymentUpdated(order.getOrderId(), paymentId, payment.getStatus()));
 
-        return modelMapper.map(savedPayment, PaymentDTO.class);
+        return paymentMapper.toDTO(savedPayment);
     }
 }
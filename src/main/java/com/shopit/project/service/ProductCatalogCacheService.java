@@ -0,0 +1,21 @@
+package com.shopit.project.service;
+
+import com.shopit.project.payload.ProductResponse;
+
+import java.util.function.Supplier;
+
+public interface ProductCatalogCacheService {
+
+    ProductResponse getProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder,
+                                Supplier<ProductResponse> loader);
+
+    ProductResponse getProductsByCategory(Long categoryId, Integer pageNumber, Integer pageSize,
+                                          String sortBy, String sortOrder, Supplier<ProductResponse> loader);
+
+    ProductResponse getProductsByKeyword(String keyword, Integer pageNumber, Integer pageSize,
+                                         String sortBy, String sortOrder, Supplier<ProductResponse> loader);
+
+    void evictProduct(Long categoryId, String... productTexts);
+
+    void evictAll();
+}
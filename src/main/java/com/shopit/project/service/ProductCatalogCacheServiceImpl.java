@@ -0,0 +1,105 @@
+package com.shopit.project.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shopit.project.payload.ProductResponse;
+import com.shopit.project.util.TransactionUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL based cache of the public product browse pages keyed by (query, page, size, sort).
+ * Writes to a product evict only the pages that product can appear on: every unfiltered page,
+ * the pages of its category and the keyword pages whose keyword matches its old or new name
+ * or description. With spring.app.productSearchMode=fulltext keywords also match by stem, which a
+ * substring test cannot see, so every keyword page is evicted instead.
+ * Evictions run after the surrounding transaction commits so a concurrent read cannot
+ * repopulate the cache with the pre-commit state.
+ * Stock changes from orders are not evicted and are bounded by the TTL.
+ */
+@Service
+public class ProductCatalogCacheServiceImpl implements ProductCatalogCacheService {
+
+    private static final String CACHE_NAME = "productCatalog";
+
+    private enum Scope { ALL, CATEGORY, KEYWORD }
+
+    private record CatalogKey(Scope scope, String value, Integer pageNumber, Integer pageSize,
+                              String sortBy, String sortOrder) {
+    }
+
+    private static final String FULLTEXT_SEARCH_MODE = "fulltext";
+
+    private final Cache<CatalogKey, ProductResponse> catalogCache;
+    private final boolean keywordsMatchAsSubstrings;
+
+    @Autowired
+    public ProductCatalogCacheServiceImpl(MeterRegistry meterRegistry,
+                                          @Value("${spring.app.productCatalogCacheMaxSize}") long maxSize,
+                                          @Value("${spring.app.productCatalogCacheTtlSeconds}") long ttlSeconds,
+                                          @Value("${spring.app.productSearchMode}") String productSearchMode) {
+        this.catalogCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, catalogCache, CACHE_NAME);
+        this.keywordsMatchAsSubstrings = !FULLTEXT_SEARCH_MODE.equals(productSearchMode);
+    }
+
+    @Override
+    public ProductResponse getProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder,
+                                       Supplier<ProductResponse> loader) {
+        return get(Scope.ALL, null, pageNumber, pageSize, sortBy, sortOrder, loader);
+    }
+
+    @Override
+    public ProductResponse getProductsByCategory(Long categoryId, Integer pageNumber, Integer pageSize,
+                                                 String sortBy, String sortOrder, Supplier<ProductResponse> loader) {
+        return get(Scope.CATEGORY, String.valueOf(categoryId), pageNumber, pageSize, sortBy, sortOrder, loader);
+    }
+
+    @Override
+    public ProductResponse getProductsByKeyword(String keyword, Integer pageNumber, Integer pageSize,
+                                                String sortBy, String sortOrder, Supplier<ProductResponse> loader) {
+        // the keyword query is case-insensitive, so differently cased keywords share one entry
+        return get(Scope.KEYWORD, keyword.toLowerCase(Locale.ROOT), pageNumber, pageSize, sortBy, sortOrder, loader);
+    }
+
+    @Override
+    public void evictProduct(Long categoryId, String... productTexts) {
+        String category = String.valueOf(categoryId);
+        List<String> texts = Arrays.stream(productTexts)
+                .filter(Objects::nonNull)
+                .map(text -> text.toLowerCase(Locale.ROOT))
+                .toList();
+
+        TransactionUtil.afterCommit(() -> catalogCache.asMap().keySet().removeIf(key -> switch (key.scope()) {
+            case ALL -> true;
+            case CATEGORY -> categoryId == null || key.value().equals(category);
+            case KEYWORD -> !keywordsMatchAsSubstrings || texts.stream().anyMatch(text -> text.contains(key.value()));
+        }));
+    }
+
+    @Override
+    public void evictAll() {
+        TransactionUtil.afterCommit(catalogCache::invalidateAll);
+    }
+
+    private ProductResponse get(Scope scope, String value, Integer pageNumber, Integer pageSize,
+                                String sortBy, String sortOrder, Supplier<ProductResponse> loader) {
+        CatalogKey key = new CatalogKey(scope, value, pageNumber, pageSize,
+                sortBy, sortOrder.toLowerCase(Locale.ROOT));
+        return catalogCache.get(key, k -> loader.get());
+    }
+}
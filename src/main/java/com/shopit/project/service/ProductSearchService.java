@@ -0,0 +1,14 @@
+package com.shopit.project.service;
+
+import com.shopit.project.model.Product;
+import com.shopit.project.payload.ProductResponse;
+
+public interface ProductSearchService {
+
+    ProductResponse searchProducts(String keyword, Integer pageNumber, Integer pageSize,
+                                   String sortBy, String sortOrder);
+
+    void indexProduct(Product product);
+
+    void removeProduct(Long productId);
+}
@@ -2,6 +2,7 @@ package com.shopit.project.service;
 
 import com.shopit.project.payload.ProductDTO;
 import com.shopit.project.payload.ProductResponse;
+import com.shopit.project.payload.ProductScrollResponse;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -12,6 +13,8 @@ public interface ProductService {
     ProductResponse getProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
     ProductResponse getProductsByCategory(Long categoryId, Integer pageNumber, Integer pageSize,
                                           String sortBy, String sortOrder);
+    ProductScrollResponse scrollProducts(String cursor, Integer pageSize, String sortBy, String sortOrder,
+                                         boolean includeTotal);
     ProductResponse getProductsByKeyword(String keyword, Integer pageNumber, Integer pageSize,
                                          String sortBy, String sortOrder);
 
@@ -2,26 +2,27 @@ package com.shopit.project.service;
 
 import com.shopit.project.exceptions.APIException;
 import com.shopit.project.exceptions.ResourceNotFoundException;
+import com.shopit.project.mapper.ProductMapper;
 import com.shopit.project.model.*;
 import com.shopit.project.payload.ProductDTO;
 import com.shopit.project.payload.ProductResponse;
+import com.shopit.project.payload.ProductScrollResponse;
 import com.shopit.project.repository.CartItemRepository;
 import com.shopit.project.repository.CartRepository;
 import com.shopit.project.repository.CategoryRepository;
 import com.shopit.project.repository.ProductRepository;
 import com.shopit.project.util.AuthUtil;
-import org.modelmapper.ModelMapper;
+import com.shopit.project.util.CursorUtil;
+import com.shopit.project.util.MoneyUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.*;
 
 @Service
@@ -29,13 +30,19 @@ public class ProductServiceImpl implements ProductService {
 
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
-    ModelMapper modelMapper;
+    private final ProductMapper productMapper;
     CategoryRepository categoryRepository;
     ProductRepository productRepository;
     FileService fileService;
     CartService cartService;
 
     private final AuthUtil authUtil;
+    private final ProductCatalogCacheService productCatalogCacheService;
+    private final ProductSearchService productSearchService;
+    private final InventoryService inventoryService;
+    private final CartRepricingService cartRepricingService;
+    private final CartPurgeService cartPurgeService;
+    private final StockReservationService stockReservationService;
 
     @Value("${project.image}")
     private String path;
@@ -43,35 +50,87 @@ public class ProductServiceImpl implements ProductService {
     @Autowired
     public ProductServiceImpl(CategoryRepository categoryRepository,
                               ProductRepository productRepository,
-                              ModelMapper modelMapper,
+                              ProductMapper productMapper,
                               FileService fileService, CartRepository cartRepository,
                               AuthUtil authUtil, CartItemRepository cartItemRepository,
-                              CartService cartService) {
+                              CartService cartService,
+                              ProductCatalogCacheService productCatalogCacheService,
+                              ProductSearchService productSearchService,
+                              InventoryService inventoryService,
+                              CartRepricingService cartRepricingService,
+                              CartPurgeService cartPurgeService,
+                              StockReservationService stockReservationService) {
         this.categoryRepository = categoryRepository;
         this.productRepository = productRepository;
-        this.modelMapper = modelMapper;
+        this.productMapper = productMapper;
         this.fileService = fileService;
         this.cartRepository = cartRepository;
         this.authUtil = authUtil;
         this.cartItemRepository = cartItemRepository;
         this.cartService = cartService;
+        this.productCatalogCacheService = productCatalogCacheService;
+        this.productSearchService = productSearchService;
+        this.inventoryService = inventoryService;
+        this.cartRepricingService = cartRepricingService;
+        this.cartPurgeService = cartPurgeService;
+        this.stockReservationService = stockReservationService;
     }
 
-    private Double calculateSpecialPrice(Double productPrice, Double productDiscountPercentage) {
-        return productPrice - ((productDiscountPercentage * 0.01) * productPrice);
+    private static Long categoryIdOf(Product product) {
+        return product.getCategory() == null ? null : product.getCategory().getCategoryId();
     }
 
-    private void setSpecialPrice(List<ProductDTO> productDTOS) {
-        for (ProductDTO productDTO : productDTOS) {
-            Double specialPrice = calculateSpecialPrice(productDTO.getProductPrice(),
-                    productDTO.getProductDiscountPercentage());
-            productDTO.setProductSpecialPrice(specialPrice);
-        }
+    // keeps the catalog cache and the search index in line with a saved product,
+    // previousTexts being the name and description it had before the write
+    private void productChanged(Product product, String... previousTexts) {
+        List<String> productTexts = new ArrayList<>(Arrays.asList(previousTexts));
+        productTexts.add(product.getProductName());
+        productTexts.add(product.getProductDescription());
+
+        productCatalogCacheService.evictProduct(categoryIdOf(product), productTexts.toArray(String[]::new));
+        productSearchService.indexProduct(product);
+    }
+
+    private ProductDTO toDTO(Product product) {
+        ProductDTO productDTO = productMapper.toDTO(product);
+        productDTO.setProductAvailableToSell(availableToSell(productDTO));
+        return productDTO;
+    }
+
+    // available-to-sell moves with every cart hold, so cached pages are copied with the ledger's
+    // current figure instead of caching it
+    private ProductResponse withAvailableToSell(ProductResponse cachedResponse) {
+        List<ProductDTO> productDTOS = cachedResponse.getContent().stream()
+                .map(productDTO -> new ProductDTO(productDTO.getProductId(), productDTO.getProductName(),
+                        productDTO.getProductImage(), productDTO.getProductDescription(),
+                        productDTO.getProductQuantity(), availableToSell(productDTO), productDTO.getProductPrice(),
+                        productDTO.getProductDiscountPercentage(), productDTO.getProductSpecialPrice()))
+                .toList();
+        return new ProductResponse(productDTOS, cachedResponse.getPageNumber(), cachedResponse.getPageSize(),
+                cachedResponse.getTotalElements(), cachedResponse.getTotalPages(), cachedResponse.isLastPage());
+    }
+
+    private Integer availableToSell(ProductDTO productDTO) {
+        if(productDTO.getProductQuantity() == null)
+            return null;
+        return stockReservationService.getAvailableToSell(productDTO.getProductId(), productDTO.getProductQuantity());
+    }
+
+    private void productRemoved(Product product) {
+        productCatalogCacheService.evictProduct(categoryIdOf(product), product.getProductName(),
+                product.getProductDescription());
+        productSearchService.removeProduct(product.getProductId());
     }
 
     @Override
     public ProductResponse getProducts(Integer pageNumber, Integer pageSize,
                                        String sortBy, String sortOrder) {
+        return withAvailableToSell(productCatalogCacheService.getProducts(pageNumber, pageSize, sortBy, sortOrder,
+                () -> loadProducts(pageNumber, pageSize, sortBy, sortOrder)));
+    }
+
+    private ProductResponse loadProducts(Integer pageNumber, Integer pageSize,
+                                         String sortBy, String sortOrder) {
         Sort sort = sortOrder.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
@@ -87,11 +146,7 @@ public class ProductServiceImpl implements ProductService {
 
         ProductResponse productResponse = new ProductResponse();
 
-        List<ProductDTO> productDTOS = products.stream()
-                .map(product -> modelMapper.map(product, ProductDTO.class))
-                .toList();
-
-        setSpecialPrice(productDTOS);
+        List<ProductDTO> productDTOS = productMapper.toDTOs(products);
 
         productResponse.setContent(productDTOS);
 
@@ -105,9 +160,52 @@ public class ProductServiceImpl implements ProductService {
     }
 
 
+    @Override
+    public ProductScrollResponse scrollProducts(String cursor, Integer pageSize, String sortBy, String sortOrder,
+                                                boolean includeTotal) {
+        Sort sort = sortOrder.equalsIgnoreCase("asc")
+                ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
+
+        // keyset scrolling appends productId to the sort, so the cursor carries both keys and the
+        // sort it was issued for
+        ScrollPosition position = cursor == null
+                ? ScrollPosition.keyset()
+                : CursorUtil.decode(cursor, sort, sortBy, "productId");
+
+        Window<Product> productWindow =
+                productRepository.findByDeleteDateIsNull(position, sort, Limit.of(pageSize));
+
+        if(productWindow.isEmpty() && cursor == null){
+            throw new APIException("No Product exists for the request!!");
+        }
+
+        ProductScrollResponse productScrollResponse = new ProductScrollResponse();
+        productScrollResponse.setContent(productWindow.getContent().stream()
+                .map(this::toDTO)
+                .toList());
+        productScrollResponse.setPageSize(pageSize);
+        productScrollResponse.setLastPage(!productWindow.hasNext());
+
+        if(productWindow.hasNext())
+            productScrollResponse.setNextCursor(
+                    CursorUtil.encode(productWindow.positionAt(productWindow.size() - 1), sort));
+
+        if(includeTotal)
+            productScrollResponse.setTotalElements(productRepository.countByDeleteDateIsNull());
+
+        return productScrollResponse;
+    }
+
     @Override
     public ProductResponse getProductsByCategory(Long categoryId, Integer pageNumber, Integer pageSize,
                                                  String sortBy, String sortOrder) {
+        return withAvailableToSell(productCatalogCacheService.getProductsByCategory(categoryId, pageNumber, pageSize,
+                sortBy, sortOrder, () -> loadProductsByCategory(categoryId, pageNumber, pageSize, sortBy, sortOrder)));
+    }
+
+    private ProductResponse loadProductsByCategory(Long categoryId, Integer pageNumber, Integer pageSize,
+                                                   String sortBy, String sortOrder) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "Category ID", categoryId));
 
@@ -128,11 +226,7 @@ public class ProductServiceImpl implements ProductService {
 
         ProductResponse productResponse = new ProductResponse();
 
-        List<ProductDTO> productByCategoryDTOS = productsByCategory.stream()
-                .map(product -> modelMapper.map(product, ProductDTO.class))
-                .toList();
-
-        setSpecialPrice(productByCategoryDTOS);
+        List<ProductDTO> productByCategoryDTOS = productMapper.toDTOs(productsByCategory);
 
         productResponse.setContent(productByCategoryDTOS);
 
@@ -148,37 +242,19 @@ public class ProductServiceImpl implements ProductService {
     @Override
     public ProductResponse getProductsByKeyword(String keyword, Integer pageNumber, Integer pageSize,
                                                 String sortBy, String sortOrder) {
-        Sort sort = sortOrder.equalsIgnoreCase("asc")
-                ? Sort.by(sortBy).ascending()
-                : Sort.by(sortBy).descending();
-
-        Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sort);
-
-        Page<Product> productsByKeywordPage =
-                productRepository.findByProductNameContainingIgnoreCaseAndDeleteDateIsNull(keyword, pageDetails);
+        return withAvailableToSell(productCatalogCacheService.getProductsByKeyword(keyword, pageNumber, pageSize,
+                sortBy, sortOrder, () -> loadProductsByKeyword(keyword, pageNumber, pageSize, sortBy, sortOrder)));
+    }
 
-        List<Product> productsByKeyword = productsByKeywordPage.getContent();
+    private ProductResponse loadProductsByKeyword(String keyword, Integer pageNumber, Integer pageSize,
+                                                  String sortBy, String sortOrder) {
+        ProductResponse productResponse =
+                productSearchService.searchProducts(keyword, pageNumber, pageSize, sortBy, sortOrder);
 
-        if(productsByKeyword.isEmpty()){
+        if(productResponse.getContent().isEmpty()){
             throw new APIException("No Product found with keyword " + keyword + "for the request");
         }
 
-        ProductResponse productResponse = new ProductResponse();
-
-        List<ProductDTO> productsByKeywordDTOS = productsByKeyword.stream()
-                .map(product -> modelMapper.map(product, ProductDTO.class))
-                .toList();
-
-        setSpecialPrice(productsByKeywordDTOS);
-
-        productResponse.setContent(productsByKeywordDTOS);
-
-        productResponse.setPageNumber(productsByKeywordPage.getNumber());
-        productResponse.setPageSize(productsByKeywordPage.getSize());
-        productResponse.setTotalElements(productsByKeywordPage.getTotalElements());
-        productResponse.setTotalPages(productsByKeywordPage.getTotalPages());
-        productResponse.setLastPage(productsByKeywordPage.isLast());
-
         return productResponse;
     }
 
@@ -205,20 +281,16 @@ public class ProductServiceImpl implements ProductService {
                 throw new APIException("Product with the name " + productDTO.getProductName() + " has been deleted");
         }
 
-        Product product = modelMapper.map(productDTO, Product.class);
+        Product product = productMapper.toEntity(productDTO);
 
         product.setProductImage("default.png");
         product.setCategory(category);
 
         Product productSaved = productRepository.save(product);
 
-        ProductDTO productDTOSaved = modelMapper.map(productSaved, ProductDTO.class);
-
-        Double specialPrice = calculateSpecialPrice(productSaved.getProductPrice(),
-                productSaved.getProductDiscountPercentage());
-        productDTOSaved.setProductSpecialPrice(specialPrice);
+        productChanged(productSaved);
 
-        return productDTOSaved;
+        return toDTO(productSaved);
     }
 
     @Override
@@ -226,11 +298,14 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "Product ID", productId));
 
+        cartPurgeService.purgeProductNow(productId);
+        stockReservationService.releaseProduct(productId);
+        inventoryService.removeShards(productId);
         productRepository.delete(product);
 
-        //        ToDo update Cart with deleted products with deleteProductFromCart
+        productRemoved(product);
 
-        return modelMapper.map(product, ProductDTO.class);
+        return toDTO(product);
     }
 
     @Override
@@ -245,9 +320,10 @@ public class ProductServiceImpl implements ProductService {
 
         Product savedProduct = productRepository.save(product);
 
-        //        ToDo update Cart with deleted products with deleteProductFromCart
+        productChanged(savedProduct);
+        cartPurgeService.purgeProduct(productId);
 
-        return modelMapper.map(savedProduct, ProductDTO.class);
+        return toDTO(savedProduct);
     }
 
     @Override
@@ -262,7 +338,9 @@ public class ProductServiceImpl implements ProductService {
 
         Product unDeletedProduct = productRepository.save(product);
 
-        return modelMapper.map(unDeletedProduct, ProductDTO.class);
+        productChanged(unDeletedProduct);
+
+        return toDTO(unDeletedProduct);
     }
 
 
@@ -276,53 +354,30 @@ public class ProductServiceImpl implements ProductService {
         if(product.getDeleteDate() != null)
             throw new APIException("Product with the name " + product.getProductName() + " has been deleted");
 
+        String oldProductName = product.getProductName();
+        String oldProductDescription = product.getProductDescription();
+
         product.setProductName(productDTO.getProductName());
         product.setProductDescription(productDTO.getProductDescription());
         product.setProductQuantity(productDTO.getProductQuantity());
 
-        double productPrice = productDTO.getProductPrice();
-        double productDiscountPercentage = productDTO.getProductDiscountPercentage();
+        BigDecimal productPrice = MoneyUtil.normalize(productDTO.getProductPrice());
+        boolean repriced = !Objects.equals(product.getProductPrice(), productPrice) ||
+                !Objects.equals(product.getProductDiscountPercentage(), productDTO.getProductDiscountPercentage());
 
         product.setProductPrice(productPrice);
-        product.setProductDiscountPercentage(productDiscountPercentage);
-
-        List<CartItem> cartItems = product.getCartItems();
-        //Set<Cart> modifiedCarts = new HashSet<>();
-        for(CartItem cartItem : cartItems){
-            cartItem.getProduct().setProductName(productDTO.getProductName());
-            cartItem.getProduct().setProductDescription(productDTO.getProductDescription());
-            cartItem.getProduct().setProductQuantity(productDTO.getProductQuantity());
-            cartItem.getProduct().setProductPrice(productPrice);
-            cartItem.getProduct().setProductDiscountPercentage(productDiscountPercentage);
-
-            cartItem.setProductPrice(productPrice);
-            cartItem.setProductDiscountPercentage(productDiscountPercentage);
-            CartItem savedCartItem = cartItemRepository.save(cartItem);
-
-//            modifiedCarts.add(savedCartItem.getCart());
-        }
+        product.setProductDiscountPercentage(productDTO.getProductDiscountPercentage());
+        if (repriced)
+            product.setPriceVersion(product.getPriceVersion() + 1);
 
         Product savedProduct = productRepository.save(product);
+        inventoryService.setStock(productId, productDTO.getProductQuantity());
+        if (repriced)
+            cartRepricingService.repriceCarts(savedProduct);
 
-//        ToDo update Cart with modified products with updateProductsInCart
-
-//        for(Cart cart : modifiedCarts){
-//            Double cartTotalPrice = 0.0;
-//            for(CartItem cartItem : cart.getCartItems()){
-//                cartTotalPrice = cartService.getCartItemTotalPrice(cartItem) + cartTotalPrice;
-//            }
-//            cart.setTotalPrice(cartTotalPrice);
-//            System.out.println("Check2");
-//            cartRepository.save(cart);
-//        }
-
+        productChanged(savedProduct, oldProductName, oldProductDescription);
 
-        ProductDTO productDTOSaved = modelMapper.map(savedProduct, ProductDTO.class);
-
-        double specialPrice = calculateSpecialPrice(productPrice, productDiscountPercentage);
-        productDTOSaved.setProductSpecialPrice(specialPrice);
-
-        return productDTOSaved;
+        return toDTO(savedProduct);
     }
 
     @Override
@@ -342,7 +397,9 @@ public class ProductServiceImpl implements ProductService {
 
         Product updatedProduct = productRepository.save(product);
 
-        return modelMapper.map(updatedProduct, ProductDTO.class);
+        productChanged(updatedProduct);
+
+        return toDTO(updatedProduct);
     }
 
 
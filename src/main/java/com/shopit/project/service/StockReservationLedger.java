@@ -0,0 +1,213 @@
+package com.shopit.project.service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory view of the stock held by carts, split into lock stripes by productId so that holds
+ * on different products never contend. Each product keeps a running total of its held quantity,
+ * which makes the available-to-sell lookup O(1). Expired holds are dropped when the product is
+ * reserved again and by {@link #expire(LocalDateTime)}.
+ */
+class StockReservationLedger {
+
+    record Hold(int quantity, LocalDateTime expiresAt) {
+    }
+
+    /**
+     * A hold placed by {@link #tryReserve} and the one it replaced, or {@code null} for none. The
+     * pair is what an undo needs: put {@code replaced} back if the ledger still has {@code placed}.
+     */
+    record Reservation(Hold placed, Hold replaced) {
+    }
+
+    private static final class ProductHolds {
+        private final Map<Long, Hold> byCart = new HashMap<>();
+        private long reserved;
+
+        private Hold put(Long cartId, Hold hold) {
+            Hold previous = hold == null ? byCart.remove(cartId) : byCart.put(cartId, hold);
+            reserved += (hold == null ? 0 : hold.quantity()) - (previous == null ? 0 : previous.quantity());
+            return previous;
+        }
+
+        private int expire(LocalDateTime now) {
+            int expired = 0;
+            Iterator<Hold> holds = byCart.values().iterator();
+            while (holds.hasNext()) {
+                Hold hold = holds.next();
+                if (!hold.expiresAt().isAfter(now)) {
+                    reserved -= hold.quantity();
+                    holds.remove();
+                    expired++;
+                }
+            }
+            return expired;
+        }
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, ProductHolds> products = new HashMap<>();
+    }
+
+    private final Stripe[] stripes;
+
+    StockReservationLedger(int stripeCount) {
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Places or replaces the cart's hold on a product if the stock not held by other carts covers it.
+     *
+     * @return the placed and replaced hold, or null, leaving the ledger untouched, when there is not
+     * enough unreserved stock
+     */
+    Reservation tryReserve(Long productId, Long cartId, int quantity, int onHand,
+                       LocalDateTime expiresAt, LocalDateTime now) {
+        Stripe stripe = stripe(productId);
+        stripe.lock.lock();
+        try {
+            ProductHolds holds = stripe.products.computeIfAbsent(productId, id -> new ProductHolds());
+            holds.expire(now);
+            Hold current = holds.byCart.get(cartId);
+            long heldByOthers = holds.reserved - (current == null ? 0 : current.quantity());
+            if (onHand - heldByOthers < quantity) {
+                if (holds.byCart.isEmpty())
+                    stripe.products.remove(productId);
+                return null;
+            }
+
+            Hold placed = new Hold(quantity, expiresAt);
+            return new Reservation(placed, holds.put(cartId, placed));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the cart's hold on a product without any availability check, {@code null} removes it.
+     *
+     * @return the hold that was replaced, or null
+     */
+    Hold put(Long productId, Long cartId, Hold hold) {
+        Stripe stripe = stripe(productId);
+        stripe.lock.lock();
+        try {
+            ProductHolds holds = stripe.products.computeIfAbsent(productId, id -> new ProductHolds());
+            Hold previous = holds.put(cartId, hold);
+            if (holds.byCart.isEmpty())
+                stripe.products.remove(productId);
+            return previous;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the cart's hold on a product only if the current one is still {@code expected}, the same
+     * instance or both null. An undo therefore never overwrites a hold another transaction placed
+     * or removed since.
+     *
+     * @return whether the hold was set
+     */
+    boolean replace(Long productId, Long cartId, Hold expected, Hold hold) {
+        Stripe stripe = stripe(productId);
+        stripe.lock.lock();
+        try {
+            ProductHolds holds = stripe.products.computeIfAbsent(productId, id -> new ProductHolds());
+            boolean replaced = holds.byCart.get(cartId) == expected;
+            if (replaced)
+                holds.put(cartId, hold);
+            if (holds.byCart.isEmpty())
+                stripe.products.remove(productId);
+            return replaced;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Drops every hold on a product.
+     */
+    void removeProduct(Long productId) {
+        Stripe stripe = stripe(productId);
+        stripe.lock.lock();
+        try {
+            stripe.products.remove(productId);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    Hold hold(Long productId, Long cartId) {
+        Stripe stripe = stripe(productId);
+        stripe.lock.lock();
+        try {
+            ProductHolds holds = stripe.products.get(productId);
+            return holds == null ? null : holds.byCart.get(cartId);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    long reserved(Long productId) {
+        Stripe stripe = stripe(productId);
+        stripe.lock.lock();
+        try {
+            ProductHolds holds = stripe.products.get(productId);
+            return holds == null ? 0 : holds.reserved;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Drops every hold that expired at or before {@code now}, one stripe at a time.
+     *
+     * @return the number of holds dropped
+     */
+    int expire(LocalDateTime now) {
+        int expired = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                Iterator<ProductHolds> products = stripe.products.values().iterator();
+                while (products.hasNext()) {
+                    ProductHolds holds = products.next();
+                    expired += holds.expire(now);
+                    if (holds.byCart.isEmpty())
+                        products.remove();
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return expired;
+    }
+
+    long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                for (ProductHolds holds : stripe.products.values()) {
+                    size += holds.byCart.size();
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripe(Long productId) {
+        return stripes[Math.floorMod(productId.hashCode(), stripes.length)];
+    }
+}
@@ -0,0 +1,44 @@
+package com.shopit.project.service;
+
+import com.shopit.project.model.Cart;
+import com.shopit.project.model.Product;
+
+import java.util.Collection;
+
+public interface StockReservationService {
+    void reserve(Cart cart, Product product, Integer quantity);
+
+    Batch batch(Cart cart);
+
+    void confirm(Cart cart);
+
+    void consume(Cart cart);
+
+    /**
+     * Drops the holds of the given carts on the product, for cart lines removed without going
+     * through the cart. Undone in the ledger if the transaction rolls back.
+     */
+    void release(Long productId, Collection<Long> cartIds);
+
+    /**
+     * Drops every hold on the product, for a product that is deleted for good.
+     */
+    void releaseProduct(Long productId);
+
+    /**
+     * Stock not held by any cart, from the ledger's running total for the product.
+     */
+    int getAvailableToSell(Long productId, int productQuantity);
+
+    /**
+     * Holds on one cart that are checked against the ledger as they are made, in call order, while
+     * their stock_reservations rows are written together by {@link #write()}.
+     */
+    interface Batch {
+        void reserve(Product product, Integer quantity);
+
+        void release(Product product);
+
+        void write();
+    }
+}
@@ -0,0 +1,245 @@
+package com.shopit.project.service;
+
+import com.shopit.project.exceptions.APIException;
+import com.shopit.project.model.Cart;
+import com.shopit.project.model.CartItem;
+import com.shopit.project.model.Product;
+import com.shopit.project.model.StockReservation;
+import com.shopit.project.repository.StockReservationRepository;
+import com.shopit.project.service.StockReservationLedger.Hold;
+import com.shopit.project.service.StockReservationLedger.Reservation;
+import com.shopit.project.util.TransactionUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Time-boxed stock holds per (cart, product). Adding to or updating a cart holds the quantity
+ * for spring.app.stockReservationTtlMinutes, placeOrder turns the holds into the stock decrement
+ * and consumes them, and a scheduled sweep drops the ones that expired.
+ * The stock_reservations table is the durable record; the striped in-memory ledger is loaded from
+ * it at startup and is where availability is checked and reserved, so concurrent holds on the
+ * same product serialize on a short lock rather than on the products row. Ledger changes made
+ * inside a transaction are undone if it rolls back, unless another transaction changed the same
+ * hold since.
+ * Holds are tracked per instance, the conditional stock decrement in placeOrder stays the final
+ * guard against overselling.
+ */
+@Service
+public class StockReservationServiceImpl implements StockReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationServiceImpl.class);
+
+    private static final int LEDGER_STRIPES = 64;
+
+    private final StockReservationRepository stockReservationRepository;
+    private final long ttlMinutes;
+    private final int sweepBatchSize;
+    private final StockReservationLedger ledger = new StockReservationLedger(LEDGER_STRIPES);
+    private final Counter expiredCounter;
+
+    public StockReservationServiceImpl(StockReservationRepository stockReservationRepository,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${spring.app.stockReservationTtlMinutes}") long ttlMinutes,
+                                       @Value("${spring.app.stockReservationSweepBatchSize}") int sweepBatchSize) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.ttlMinutes = ttlMinutes;
+        this.sweepBatchSize = sweepBatchSize;
+        this.expiredCounter = Counter.builder("shopit.stock.reservations.expired")
+                .description("Stock holds dropped because their cart did not check out in time")
+                .register(meterRegistry);
+        Gauge.builder("shopit.stock.reservations.active", ledger, StockReservationLedger::size)
+                .description("Stock holds currently tracked by the ledger")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void loadReservations() {
+        List<StockReservation> reservations = stockReservationRepository.findByExpiresAtAfter(LocalDateTime.now());
+        for (StockReservation reservation : reservations) {
+            ledger.put(reservation.getProductId(), reservation.getCartId(),
+                    new Hold(reservation.getQuantity(), reservation.getExpiresAt()));
+        }
+
+        logger.info("Loaded {} stock reservations", reservations.size());
+    }
+
+    @Override
+    public void reserve(Cart cart, Product product, Integer quantity) {
+        Long cartId = cart.getCartId();
+        Long productId = product.getProductId();
+        LocalDateTime expiresAt = reserveInLedger(cartId, product, quantity);
+
+        StockReservation stockReservation = stockReservationRepository.findByCartIdAndProductId(cartId, productId)
+                .orElseGet(() -> new StockReservation(null, cartId, productId, null, null));
+        stockReservation.setQuantity(quantity);
+        stockReservation.setExpiresAt(expiresAt);
+        stockReservationRepository.save(stockReservation);
+    }
+
+    @Override
+    public Batch batch(Cart cart) {
+        return new PendingReservations(cart.getCartId());
+    }
+
+    @Override
+    public void confirm(Cart cart) {
+        LocalDateTime now = LocalDateTime.now();
+        for (CartItem cartItem : cart.getCartItems()) {
+            Hold hold = ledger.hold(cartItem.getProduct().getProductId(), cart.getCartId());
+            if (hold == null || hold.quantity() != cartItem.getQuantity() || !hold.expiresAt().isAfter(now))
+                reserve(cart, cartItem.getProduct(), cartItem.getQuantity());
+        }
+    }
+
+    @Override
+    public void consume(Cart cart) {
+        Long cartId = cart.getCartId();
+        List<Long> productIds = cart.getCartItems().stream()
+                .map(cartItem -> cartItem.getProduct().getProductId())
+                .toList();
+
+        stockReservationRepository.deleteByCartId(cartId);
+        // until the stock decrement commits the holds keep covering the ordered quantity
+        TransactionUtil.afterCommit(() -> productIds.forEach(productId -> ledger.put(productId, cartId, null)));
+    }
+
+    @Override
+    public void release(Long productId, Collection<Long> cartIds) {
+        stockReservationRepository.deleteByProductIdAndCartIdIn(productId, cartIds);
+        cartIds.forEach(cartId -> releaseInLedger(cartId, productId));
+    }
+
+    @Override
+    public void releaseProduct(Long productId) {
+        stockReservationRepository.deleteByProductId(productId);
+        TransactionUtil.afterCommit(() -> ledger.removeProduct(productId));
+    }
+
+    @Override
+    public int getAvailableToSell(Long productId, int productQuantity) {
+        return (int) Math.max(productQuantity - ledger.reserved(productId), 0);
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.stockReservationSweepIntervalMs}",
+            initialDelayString = "${spring.app.stockReservationSweepIntervalMs}")
+    public void sweepExpiredReservations() {
+        LocalDateTime now = LocalDateTime.now();
+        long deleted = 0;
+        int batchDeleted;
+        do {
+            batchDeleted = stockReservationRepository.deleteExpiredBatch(now, sweepBatchSize);
+            deleted += batchDeleted;
+        } while (batchDeleted == sweepBatchSize);
+
+        int expired = ledger.expire(now);
+        expiredCounter.increment(expired);
+
+        if (deleted > 0 || expired > 0) {
+            logger.info("Expired {} stock reservations ({} rows deleted)", expired, deleted);
+        }
+    }
+
+    /**
+     * Places the cart's hold in the ledger, undone if the transaction rolls back.
+     *
+     * @return when the hold expires
+     */
+    private LocalDateTime reserveInLedger(Long cartId, Product product, Integer quantity) {
+        Long productId = product.getProductId();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusMinutes(ttlMinutes);
+
+        Reservation reservation = ledger.tryReserve(productId, cartId, quantity, product.getProductQuantity(),
+                expiresAt, now);
+        if (reservation == null) {
+            Hold current = ledger.hold(productId, cartId);
+            long available = product.getProductQuantity() - ledger.reserved(productId)
+                    + (current == null ? 0 : current.quantity());
+            throw new APIException("Product with the name " + product.getProductName() +
+                    " is not available for the requested quantity " + quantity +
+                    ", available quantity is " + Math.max(available, 0));
+        }
+        TransactionUtil.afterRollback(() ->
+                ledger.replace(productId, cartId, reservation.placed(), reservation.replaced()));
+        return expiresAt;
+    }
+
+    private void releaseInLedger(Long cartId, Long productId) {
+        Hold previous = ledger.put(productId, cartId, null);
+        TransactionUtil.afterRollback(() -> ledger.replace(productId, cartId, null, previous));
+    }
+
+    /**
+     * Keeps the last hold made per product, null for a release, so that write() needs one delete
+     * for the releases and one select plus a saveAll for the holds however many calls were made.
+     */
+    private class PendingReservations implements Batch {
+
+        private final Long cartId;
+        private final Map<Long, Hold> holds = new LinkedHashMap<>();
+
+        private PendingReservations(Long cartId) {
+            this.cartId = cartId;
+        }
+
+        @Override
+        public void reserve(Product product, Integer quantity) {
+            LocalDateTime expiresAt = reserveInLedger(cartId, product, quantity);
+            holds.put(product.getProductId(), new Hold(quantity, expiresAt));
+        }
+
+        @Override
+        public void release(Product product) {
+            releaseInLedger(cartId, product.getProductId());
+            holds.put(product.getProductId(), null);
+        }
+
+        @Override
+        public void write() {
+            List<Long> releasedProductIds = new ArrayList<>();
+            Map<Long, Hold> heldProducts = new LinkedHashMap<>();
+            holds.forEach((productId, hold) -> {
+                if (hold == null)
+                    releasedProductIds.add(productId);
+                else
+                    heldProducts.put(productId, hold);
+            });
+            holds.clear();
+
+            if (!releasedProductIds.isEmpty())
+                stockReservationRepository.deleteByCartIdAndProductIdIn(cartId, releasedProductIds);
+            if (heldProducts.isEmpty())
+                return;
+
+            Map<Long, StockReservation> stockReservations = new HashMap<>();
+            for (StockReservation stockReservation :
+                    stockReservationRepository.findByCartIdAndProductIdIn(cartId, heldProducts.keySet()))
+                stockReservations.put(stockReservation.getProductId(), stockReservation);
+
+            List<StockReservation> changed = new ArrayList<>();
+            heldProducts.forEach((productId, hold) -> {
+                StockReservation stockReservation = stockReservations.computeIfAbsent(productId,
+                        id -> new StockReservation(null, cartId, id, null, null));
+                stockReservation.setQuantity(hold.quantity());
+                stockReservation.setExpiresAt(hold.expiresAt());
+                changed.add(stockReservation);
+            });
+            stockReservationRepository.saveAll(changed);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.shopit.project.util;
 
 import com.shopit.project.model.User;
 import com.shopit.project.repository.UserRepository;
+import com.shopit.project.security.model.UserDetailsImpl;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -18,6 +19,14 @@ public class AuthUtil {
 
     public User loggedInUser(){
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        // JwtFilter already resolved the user, so hand back an id-only proxy that Hibernate
+        // initializes only if a caller reads more than the id
+        if (authentication.getPrincipal() instanceof UserDetailsImpl userDetails
+                && userDetails.getUserId() != null) {
+            return userRepository.getReferenceById(userDetails.getUserId());
+        }
+
         User user = userRepository.findByUserName(authentication.getName())
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
@@ -0,0 +1,130 @@
+package com.shopit.project.util;
+
+import com.shopit.project.exceptions.APIException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Encodes keyset scroll positions as opaque, URL safe cursors and back.
+ * Each key is stored with its type so the decoded values bind to the same
+ * attribute types the keyset query was built from. A cursor can also carry the
+ * sort it was issued for, keys are only meaningful under that same sort.
+ */
+public final class CursorUtil {
+
+    private static final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder decoder = Base64.getUrlDecoder();
+
+    private CursorUtil() {
+    }
+
+    public static String encode(ScrollPosition position) {
+        return encode(position, Sort.unsorted());
+    }
+
+    public static String encode(ScrollPosition position, Sort sort) {
+        if (!(position instanceof KeysetScrollPosition keysetPosition))
+            throw new APIException("Only keyset positions can be encoded as a cursor");
+
+        StringJoiner cursor = new StringJoiner("&");
+        for (Map.Entry<String, Object> key : keysetPosition.getKeys().entrySet()) {
+            cursor.add(escape(key.getKey()) + "=" + typeOf(key.getKey(), key.getValue()) + ":"
+                    + escape(String.valueOf(key.getValue())));
+        }
+
+        String encoded = sort.isSorted() ? cursor + "#" + describe(sort) : cursor.toString();
+        return encoder.encodeToString(encoded.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetScrollPosition decode(String cursor, String... requiredKeys) {
+        return decode(cursor, Sort.unsorted(), requiredKeys);
+    }
+
+    /**
+     * @throws APIException if the cursor is malformed, or was issued for another sort or lacks a
+     * required key
+     */
+    public static KeysetScrollPosition decode(String cursor, Sort sort, String... requiredKeys) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        String issuedSort;
+        try {
+            String decoded = new String(decoder.decode(cursor), StandardCharsets.UTF_8);
+            int sortSeparator = decoded.indexOf('#');
+            issuedSort = sortSeparator < 0 ? "" : decoded.substring(sortSeparator + 1);
+            String encodedKeys = sortSeparator < 0 ? decoded : decoded.substring(0, sortSeparator);
+            for (String entry : encodedKeys.split("&")) {
+                int separator = entry.indexOf('=');
+                int typeSeparator = entry.indexOf(':', separator);
+                String key = unescape(entry.substring(0, separator));
+                String type = entry.substring(separator + 1, typeSeparator);
+                String value = unescape(entry.substring(typeSeparator + 1));
+                keys.put(key, parse(type, value));
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new APIException("Invalid cursor");
+        }
+
+        if (!issuedSort.equals(describe(sort)))
+            throw new APIException("Cursor does not match the requested sort order");
+        for (String requiredKey : requiredKeys) {
+            if (!keys.containsKey(requiredKey))
+                throw new APIException("Cursor does not match the requested sort order");
+        }
+
+        return ScrollPosition.forward(keys);
+    }
+
+    // keys and values are escaped, so '#' only ever separates the sort
+    private static String describe(Sort sort) {
+        StringJoiner description = new StringJoiner(",");
+        for (Sort.Order order : sort) {
+            description.add(escape(order.getProperty()) + ":" + order.getDirection());
+        }
+        return description.toString();
+    }
+
+    private static String typeOf(String key, Object value) {
+        return switch (value) {
+            case String s -> "S";
+            case Long l -> "L";
+            case Integer i -> "I";
+            case Double d -> "D";
+            case BigDecimal b -> "B";
+            case LocalDate t -> "LD";
+            case null -> throw new APIException("Cannot page by " + key + " because it has no value");
+            default -> throw new APIException("Cursor pagination is not supported when sorting by " + key);
+        };
+    }
+
+    private static Object parse(String type, String value) {
+        return switch (type) {
+            case "S" -> value;
+            case "L" -> Long.valueOf(value);
+            case "I" -> Integer.valueOf(value);
+            case "D" -> Double.valueOf(value);
+            case "B" -> new BigDecimal(value);
+            case "LD" -> LocalDate.parse(value);
+            default -> throw new IllegalArgumentException("Unknown cursor value type " + type);
+        };
+    }
+
+    private static String escape(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String unescape(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+}
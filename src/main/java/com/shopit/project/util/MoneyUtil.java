@@ -0,0 +1,41 @@
+package com.shopit.project.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money is a BigDecimal with two decimal places. Prices are rounded once, when the discount is
+ * applied to a unit price; line and cart totals are exact sums and products of those unit prices,
+ * so a total kept up to date with deltas always equals the total computed from scratch.
+ */
+public final class MoneyUtil {
+
+    public static final int SCALE = 2;
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+    public static final BigDecimal ZERO = BigDecimal.ZERO.setScale(SCALE);
+
+    private MoneyUtil() {
+    }
+
+    public static BigDecimal normalize(BigDecimal amount) {
+        return amount == null ? null : amount.setScale(SCALE, ROUNDING);
+    }
+
+    /**
+     * Unit price after the percentage discount, rounded to the cent.
+     */
+    public static BigDecimal specialPrice(BigDecimal price, Double discountPercentage) {
+        if (price == null || discountPercentage == null)
+            return normalize(price);
+
+        BigDecimal discount = price.multiply(BigDecimal.valueOf(discountPercentage)).movePointLeft(2);
+        return price.subtract(discount).setScale(SCALE, ROUNDING);
+    }
+
+    public static BigDecimal lineTotal(BigDecimal price, Double discountPercentage, Integer quantity) {
+        if (price == null || quantity == null)
+            return null;
+
+        return specialPrice(price, discountPercentage).multiply(BigDecimal.valueOf(quantity));
+    }
+}
@@ -0,0 +1,87 @@
+package com.shopit.project.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a read-modify-write operation on versioned entities in its own transaction and re-runs it
+ * when a concurrent writer bumped a @Version first. Each attempt starts from freshly loaded state,
+ * since rolling back clears the persistence context. After maxAttempts the conflict is rethrown.
+ * Conflicts and exhausted retries are counted per operation.
+ */
+@Component
+public class OptimisticLockRetry {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticLockRetry.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long backoffMs;
+
+    public OptimisticLockRetry(TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                               @Value("${spring.app.optimisticLockMaxAttempts}") int maxAttempts,
+                               @Value("${spring.app.optimisticLockBackoffMs}") long backoffMs) {
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+    }
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        // retrying inside someone else's transaction would only see the same stale state
+        if (TransactionSynchronizationManager.isActualTransactionActive())
+            return action.get();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                conflicts(operation).increment();
+                if (attempt >= maxAttempts) {
+                    exhausted(operation).increment();
+                    logger.warn("Giving up on {} after {} conflicting attempts", operation, attempt);
+                    throw e;
+                }
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    private Counter conflicts(String operation) {
+        return Counter.builder("shopit.optimistic.lock.conflicts")
+                .description("Writes that lost an optimistic lock race")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private Counter exhausted(String operation) {
+        return Counter.builder("shopit.optimistic.lock.exhausted")
+                .description("Operations that still conflicted after the last retry")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private void backoff(int attempt, OptimisticLockingFailureException conflict) {
+        if (backoffMs <= 0)
+            return;
+
+        try {
+            // jitter so that the writers that collided do not collide again
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMs * attempt) + 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.shopit.project.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public final class TransactionUtil {
+
+    private TransactionUtil() {
+    }
+
+    /**
+     * Runs the action once the surrounding transaction commits, or right away when
+     * there is no transaction. Used to keep in-process state (caches, indexes) from
+     * observing writes that may still roll back.
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Runs the action if the surrounding transaction rolls back. Without a transaction there is
+     * nothing to roll back and the action is dropped. Used to undo in-process state that had to
+     * be changed before the commit.
+     */
+    public static void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK)
+                    action.run();
+            }
+        });
+    }
+}
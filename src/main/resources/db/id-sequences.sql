@@ -0,0 +1,28 @@
+-- Ids of the write-heavy tables come from <table>_seq sequences (created by ddl-auto=update, see
+-- @PooledSequence) instead of identity columns. Rows inserted before the switch would collide with
+-- a new sequence, so each one is moved past the highest existing id. Sequences are only ever moved
+-- forward, never back into a block another instance may already have allocated.
+
+SELECT setval('orders_seq', (SELECT MAX(order_id) FROM orders))
+WHERE (SELECT MAX(order_id) FROM orders) > (SELECT last_value FROM orders_seq);
+
+SELECT setval('order_items_seq', (SELECT MAX(order_item_id) FROM order_items))
+WHERE (SELECT MAX(order_item_id) FROM order_items) > (SELECT last_value FROM order_items_seq);
+
+SELECT setval('carts_seq', (SELECT MAX(cart_id) FROM carts))
+WHERE (SELECT MAX(cart_id) FROM carts) > (SELECT last_value FROM carts_seq);
+
+SELECT setval('cart_item_seq', (SELECT MAX(cart_item_id) FROM cart_item))
+WHERE (SELECT MAX(cart_item_id) FROM cart_item) > (SELECT last_value FROM cart_item_seq);
+
+SELECT setval('payments_seq', (SELECT MAX(payment_id) FROM payments))
+WHERE (SELECT MAX(payment_id) FROM payments) > (SELECT last_value FROM payments_seq);
+
+SELECT setval('users_seq', (SELECT MAX(user_id) FROM users))
+WHERE (SELECT MAX(user_id) FROM users) > (SELECT last_value FROM users_seq);
+
+SELECT setval('products_seq', (SELECT MAX(product_id) FROM products))
+WHERE (SELECT MAX(product_id) FROM products) > (SELECT last_value FROM products_seq);
+
+SELECT setval('stock_reservations_seq', (SELECT MAX(reservation_id) FROM stock_reservations))
+WHERE (SELECT MAX(reservation_id) FROM stock_reservations) > (SELECT last_value FROM stock_reservations_seq);
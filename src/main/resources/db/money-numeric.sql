@@ -0,0 +1,26 @@
+-- Money columns are numeric(19,2). ddl-auto=update never changes the type of an existing column,
+-- so databases created while prices were double precision are converted here, rounding values to
+-- the cent. ALTER COLUMN TYPE takes an ACCESS EXCLUSIVE lock and rewrites the table even when the
+-- type already matches, so only columns still stored as double precision are altered and a run
+-- against a converted database takes no locks. The block is single-quoted because script
+-- splitting does not understand dollar quoting.
+
+DO '
+DECLARE
+    money_column record;
+BEGIN
+    FOR money_column IN
+        SELECT table_name, column_name
+        FROM information_schema.columns
+        WHERE table_schema = current_schema()
+          AND data_type = ''double precision''
+          AND (table_name, column_name) IN ((''products'', ''product_price''),
+                                            (''cart_item'', ''product_price''),
+                                            (''carts'', ''total_price''),
+                                            (''orders'', ''total_price''),
+                                            (''order_items'', ''product_price''))
+    LOOP
+        EXECUTE format(''ALTER TABLE %I ALTER COLUMN %I TYPE numeric(19,2)'',
+                       money_column.table_name, money_column.column_name);
+    END LOOP;
+END';
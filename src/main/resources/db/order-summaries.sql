@@ -0,0 +1,13 @@
+-- Backfills order_summaries for orders placed before the table existed. Orders that already
+-- have a summary are skipped, so later runs insert nothing.
+
+INSERT INTO order_summaries (order_id, user_id, user_email, order_date, order_status, total_price,
+                             item_count, payment_method, payment_status, shipping_city, version)
+SELECT o.order_id, o.user_id, u.user_email, o.order_date, o.order_status, o.total_price,
+       (SELECT COALESCE(SUM(oi.quantity), 0) FROM order_items oi WHERE oi.order_id = o.order_id),
+       p.payment_method, p.status, a.city, 0
+FROM orders o
+LEFT JOIN users u ON u.user_id = o.user_id
+LEFT JOIN payments p ON p.payment_id = o.payment_id
+LEFT JOIN addresses a ON a.address_id = o.address_id
+WHERE NOT EXISTS (SELECT 1 FROM order_summaries s WHERE s.order_id = o.order_id);
@@ -0,0 +1,14 @@
+-- Full text search support for products, applied when spring.app.productSearchMode=fulltext.
+-- Adding the generated column rewrites the products table once; later runs are no-ops.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(product_name, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(product_description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS ix_products_search_vector ON products USING GIN (search_vector);
+
+CREATE INDEX IF NOT EXISTS ix_products_product_name_trgm ON products USING GIN (product_name gin_trgm_ops);
@@ -0,0 +1,158 @@
+package com.shopit.project.benchmark;
+
+import com.shopit.project.repository.CartRepricingRepositoryImpl;
+import com.shopit.project.util.MoneyUtil;
+import com.zaxxer.hikari.HikariDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a price change of a product that sits in 100k carts, against an embedded Postgres.
+ * "eagerPriceChange" is spring.app.cartRepriceMode=eager: the product UPDATE plus the two set-based
+ * UPDATEs over every cart line and cart. "lazyPriceChange" is the lazy mode: only the product row.
+ * "lazyCartRead" is what the lazy mode moves to the read side, the statements a cart read flushes
+ * when its line of the product is stale (every cart is made stale before each iteration).
+ * Run with: mvn test-compile, then the main method on the test classpath (not as root, the
+ * embedded Postgres refuses to start as root).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CartRepricingBenchmark {
+
+    private static final long PRODUCT_ID = 1L;
+    private static final long OTHER_PRODUCT_ID = 2L;
+    private static final int CARTS = 100_000;
+
+    private EmbeddedPostgres postgres;
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private CartRepricingRepositoryImpl cartRepricingRepository;
+    private long priceChanges;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.builder()
+                .setServerConfig("fsync", "off")
+                .setServerConfig("synchronous_commit", "off")
+                .start();
+        dataSource = new HikariDataSource();
+        dataSource.setDataSource(postgres.getPostgresDatabase());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        cartRepricingRepository = new CartRepricingRepositoryImpl(jdbcTemplate);
+
+        jdbcTemplate.execute("CREATE TABLE products (product_id bigint PRIMARY KEY, product_price numeric(19,2), " +
+                "product_discount_percentage double precision, price_version bigint NOT NULL DEFAULT 0, " +
+                "version bigint NOT NULL DEFAULT 0)");
+        jdbcTemplate.execute("CREATE TABLE carts (cart_id bigint PRIMARY KEY, total_price numeric(19,2), " +
+                "version bigint NOT NULL DEFAULT 0)");
+        jdbcTemplate.execute("CREATE TABLE cart_item (cart_item_id bigint GENERATED BY DEFAULT AS IDENTITY " +
+                "PRIMARY KEY, cart_id bigint, product_id bigint, quantity integer, product_price numeric(19,2), " +
+                "product_discount_percentage double precision, product_price_version bigint NOT NULL DEFAULT 0, " +
+                "version bigint NOT NULL DEFAULT 0, UNIQUE (cart_id, product_id))");
+        jdbcTemplate.execute("CREATE INDEX ix_cart_item_product_id ON cart_item (product_id)");
+
+        jdbcTemplate.update("INSERT INTO products (product_id, product_price, product_discount_percentage) " +
+                "VALUES (?, 10.00, 0), (?, 25.00, 10)", PRODUCT_ID, OTHER_PRODUCT_ID);
+        jdbcTemplate.update("INSERT INTO carts (cart_id, total_price) " +
+                "SELECT c, 10.00 * (1 + c % 3) + 22.50 FROM generate_series(1, ?) c", CARTS);
+        jdbcTemplate.update("INSERT INTO cart_item (cart_id, product_id, quantity, product_price, " +
+                "product_discount_percentage) SELECT c, ?, 1 + c % 3, 10.00, 0 FROM generate_series(1, ?) c",
+                PRODUCT_ID, CARTS);
+        jdbcTemplate.update("INSERT INTO cart_item (cart_id, product_id, quantity, product_price, " +
+                "product_discount_percentage) SELECT c, ?, 1, 25.00, 10 FROM generate_series(1, ?) c",
+                OTHER_PRODUCT_ID, CARTS);
+        jdbcTemplate.execute("VACUUM ANALYZE");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        dataSource.close();
+        postgres.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void makeCartsStale() {
+        changePrice();
+    }
+
+    private Long changePrice() {
+        BigDecimal price = new BigDecimal("10.00").add(BigDecimal.valueOf(++priceChanges % 100, 2));
+        return jdbcTemplate.queryForObject("UPDATE products SET product_price = ?, " +
+                "price_version = price_version + 1, version = version + 1 WHERE product_id = ? " +
+                "RETURNING price_version", Long.class, price, PRODUCT_ID);
+    }
+
+    @Benchmark
+    public int eagerPriceChange() {
+        return transactionTemplate.execute(status -> {
+            Long priceVersion = changePrice();
+            Map<String, Object> product = jdbcTemplate.queryForMap("SELECT product_price, " +
+                    "product_discount_percentage FROM products WHERE product_id = ?", PRODUCT_ID);
+            List<Long> cartIds = cartRepricingRepository.repriceCartItems(PRODUCT_ID,
+                    (BigDecimal) product.get("product_price"), (Double) product.get("product_discount_percentage"),
+                    priceVersion, Integer.MAX_VALUE);
+            return cartRepricingRepository.recomputeCartTotals(cartIds.stream().distinct().toList());
+        });
+    }
+
+    @Benchmark
+    public Long lazyPriceChange() {
+        return transactionTemplate.execute(status -> changePrice());
+    }
+
+    @Benchmark
+    public int lazyCartRead() {
+        long cartId = ThreadLocalRandom.current().nextLong(1, CARTS + 1);
+        return transactionTemplate.execute(status -> {
+            List<Map<String, Object>> staleLines = jdbcTemplate.queryForList("SELECT ci.cart_item_id, ci.quantity, " +
+                    "ci.product_price, ci.product_discount_percentage, p.product_price AS current_price, " +
+                    "p.product_discount_percentage AS current_discount, p.price_version " +
+                    "FROM cart_item ci JOIN products p ON p.product_id = ci.product_id " +
+                    "WHERE ci.cart_id = ? AND ci.product_price_version < p.price_version", cartId);
+            if (staleLines.isEmpty())
+                return 0;
+
+            BigDecimal delta = BigDecimal.ZERO;
+            for (Map<String, Object> line : staleLines) {
+                Integer quantity = (Integer) line.get("quantity");
+                delta = delta.add(MoneyUtil.lineTotal((BigDecimal) line.get("current_price"),
+                                (Double) line.get("current_discount"), quantity))
+                        .subtract(MoneyUtil.lineTotal((BigDecimal) line.get("product_price"),
+                                (Double) line.get("product_discount_percentage"), quantity));
+                jdbcTemplate.update("UPDATE cart_item SET product_price = ?, product_discount_percentage = ?, " +
+                                "product_price_version = ?, version = version + 1 WHERE cart_item_id = ?",
+                        line.get("current_price"), line.get("current_discount"), line.get("price_version"),
+                        line.get("cart_item_id"));
+            }
+            return jdbcTemplate.update("UPDATE carts SET total_price = total_price + ?, version = version + 1 " +
+                    "WHERE cart_id = ?", delta, cartId);
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CartRepricingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,171 @@
+package com.shopit.project.benchmark;
+
+import com.shopit.project.mapper.AddressMapper;
+import com.shopit.project.mapper.CartMapper;
+import com.shopit.project.mapper.OrderMapper;
+import com.shopit.project.mapper.PaymentMapper;
+import com.shopit.project.mapper.ProductMapper;
+import com.shopit.project.model.*;
+import com.shopit.project.payload.CartDTO;
+import com.shopit.project.payload.OrderDTO;
+import com.shopit.project.payload.ProductDTO;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping cost for the shapes our endpoints return: a 30 product page,
+ * a 10 item cart and a 10 item order with payment and address.
+ * "modelMapper*" is the reflective ModelMapper the services used before, "mapper*" the
+ * hand written mappers in com.shopit.project.mapper.
+ * Run with: mvn test-compile, then the main method on the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoMappingBenchmark {
+
+    private static final int PAGE_SIZE = 30;
+    private static final int LINE_ITEMS = 10;
+
+    private ModelMapper modelMapper;
+
+    private ProductMapper productMapper;
+    private CartMapper cartMapper;
+    private OrderMapper orderMapper;
+
+    private List<Product> products;
+    private Cart cart;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        productMapper = new ProductMapper();
+        cartMapper = new CartMapper(productMapper);
+        orderMapper = new OrderMapper(productMapper, new AddressMapper(), new PaymentMapper());
+
+        Category category = new Category();
+        category.setCategoryId(1L);
+        category.setCategoryName("Electronics");
+
+        products = new ArrayList<>();
+        for (long i = 1; i <= PAGE_SIZE; i++) {
+            Product product = new Product();
+            product.setProductId(i);
+            product.setProductName("Product " + i);
+            product.setProductImage("product-" + i + ".png");
+            product.setProductDescription("Description of product " + i);
+            product.setProductQuantity(100);
+            product.setProductPrice(BigDecimal.valueOf(100 + i).setScale(2));
+            product.setProductDiscountPercentage(10.0);
+            product.setCategory(category);
+            products.add(product);
+        }
+
+        cart = new Cart();
+        cart.setCartId(1L);
+        order = new Order();
+        order.setOrderId(1L);
+        BigDecimal totalPrice = BigDecimal.ZERO.setScale(2);
+        for (int i = 0; i < LINE_ITEMS; i++) {
+            Product product = products.get(i);
+
+            CartItem cartItem = new CartItem();
+            cartItem.setCartItemId((long) i);
+            cartItem.setCart(cart);
+            cartItem.setProduct(product);
+            cartItem.setQuantity(2);
+            cartItem.setProductPrice(product.getProductPrice());
+            cartItem.setProductDiscountPercentage(product.getProductDiscountPercentage());
+            cart.getCartItems().add(cartItem);
+
+            OrderItem orderItem = new OrderItem();
+            orderItem.setOrderItemId((long) i);
+            orderItem.setOrder(order);
+            orderItem.setProduct(product);
+            orderItem.setQuantity(2);
+            orderItem.setProductPrice(product.getProductPrice());
+            orderItem.setProductDiscountPercentage(product.getProductDiscountPercentage());
+            order.getOrderItems().add(orderItem);
+
+            totalPrice = totalPrice.add(product.getSpecialPrice().multiply(BigDecimal.TWO));
+        }
+        cart.setTotalPrice(totalPrice);
+
+        Address address = new Address();
+        address.setAddressId(1L);
+        address.setAddressLine1("221B Baker Street");
+        address.setAddressLine2("Marylebone");
+        address.setCity("London");
+        address.setState("London");
+        address.setPincode("NW16XE");
+        address.setCountry("UK");
+
+        Payment payment = new Payment();
+        payment.setPaymentId(1L);
+        payment.setOrder(order);
+        payment.setPaymentMethod("Card");
+        payment.setGatewayName("Stripe");
+        payment.setTransactionId("txn_1");
+        payment.setStatus("Succeeded");
+        payment.setResponseMessage("Payment successful");
+
+        order.setAddress(address);
+        order.setPayment(payment);
+        order.setTotalPrice(totalPrice);
+        order.setOrderStatus("Processing");
+        order.setOrderDate(LocalDate.now());
+    }
+
+    @Benchmark
+    public List<ProductDTO> modelMapperProductPage() {
+        return products.stream()
+                .map(product -> modelMapper.map(product, ProductDTO.class))
+                .toList();
+    }
+
+    @Benchmark
+    public List<ProductDTO> mapperProductPage() {
+        return productMapper.toDTOs(products);
+    }
+
+    @Benchmark
+    public CartDTO modelMapperCart() {
+        return modelMapper.map(cart, CartDTO.class);
+    }
+
+    @Benchmark
+    public CartDTO mapperCart() {
+        return cartMapper.toDTO(cart);
+    }
+
+    @Benchmark
+    public OrderDTO modelMapperOrder() {
+        return modelMapper.map(order, OrderDTO.class);
+    }
+
+    @Benchmark
+    public OrderDTO mapperOrder() {
+        return orderMapper.toDTO(order);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DtoMappingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
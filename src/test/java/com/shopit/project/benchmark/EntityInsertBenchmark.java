@@ -0,0 +1,157 @@
+package com.shopit.project.benchmark;
+
+import com.shopit.project.ShopitApplication;
+import com.shopit.project.model.Order;
+import com.shopit.project.model.OrderItem;
+import com.shopit.project.model.Payment;
+import com.shopit.project.model.Product;
+import com.shopit.project.repository.OrderRepository;
+import com.shopit.project.repository.ProductRepository;
+import com.shopit.project.util.StatementCounter;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts of the write-heavy entities through the application's own Hibernate setup (id
+ * strategies, JDBC batching) against an embedded Postgres.
+ * "checkout" writes what placeOrder writes: an order, its 20 lines and the payment, in one
+ * transaction. "productImport" persists 500 products in one transaction.
+ * jdbcBatchSize overrides hibernate.jdbc.batch_size, 1 turns JDBC batching off.
+ * Each trial ends by printing the statements sent per flush, sequence calls included. That is
+ * the figure the id strategy changes and it barely varies between runs. The rows per second JMH
+ * reports only mean something on a machine where the database does not share the benchmark's cores.
+ * Run with: mvn test-compile, then the main method on the test classpath (not as root, the
+ * embedded Postgres refuses to start as root).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntityInsertBenchmark {
+
+    private static final int ORDER_LINES = 20;
+    private static final int CHECKOUT_ROWS = ORDER_LINES + 2;
+    private static final int IMPORTED_PRODUCTS = 500;
+
+    @Param({"1", "50"})
+    private int jdbcBatchSize;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private OrderRepository orderRepository;
+    private ProductRepository productRepository;
+    private long importedProducts;
+    private final StatementCounter statementCounter = new StatementCounter();
+    private long statements;
+    private long flushes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.builder()
+                .setServerConfig("fsync", "off")
+                .setServerConfig("synchronous_commit", "off")
+                .start();
+        context = new SpringApplicationBuilder(ShopitApplication.class)
+                .web(WebApplicationType.NONE)
+                .initializers(applicationContext -> applicationContext.getBeanFactory()
+                        .addBeanPostProcessor(statementCounter.dataSourceWrapper()))
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=",
+                        "--spring.app.jwtExpirationMs=60000",
+                        "--spring.app.refreshTokenCookieName=shopit-refresh",
+                        "--spring.app.refreshTokenExpirationMinutes=60",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize,
+                        "--logging.level.root=WARN");
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        orderRepository = context.getBean(OrderRepository.class);
+        productRepository = context.getBean(ProductRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.out.printf("jdbcBatchSize %d: %.2f statements per flush%n", jdbcBatchSize,
+                (double) statements / flushes);
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHECKOUT_ROWS)
+    public Long checkout() {
+        statementCounter.start();
+        Long orderId = transactionTemplate.execute(status -> {
+            Order order = new Order();
+            order.setTotalPrice(new BigDecimal("200.00"));
+            order.setOrderStatus("Processing");
+            order.setOrderDate(LocalDate.now());
+            for (int i = 0; i < ORDER_LINES; i++) {
+                OrderItem orderItem = new OrderItem();
+                orderItem.setOrder(order);
+                orderItem.setQuantity(1);
+                orderItem.setProductPrice(new BigDecimal("10.00"));
+                orderItem.setProductDiscountPercentage(0.0);
+                order.getOrderItems().add(orderItem);
+            }
+            Payment payment = new Payment();
+            payment.setPaymentMethod("Card");
+            payment.setStatus("Success");
+            payment.setOrder(order);
+            order.setPayment(payment);
+            return orderRepository.save(order).getOrderId();
+        });
+        countFlush();
+        return orderId;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IMPORTED_PRODUCTS)
+    public int productImport() {
+        statementCounter.start();
+        Integer imported = transactionTemplate.execute(status -> {
+            List<Product> products = new ArrayList<>(IMPORTED_PRODUCTS);
+            for (int i = 0; i < IMPORTED_PRODUCTS; i++) {
+                Product product = new Product();
+                product.setProductName("Imported product " + ++importedProducts);
+                product.setProductDescription("Bulk imported product");
+                product.setProductQuantity(100);
+                product.setProductPrice(new BigDecimal("19.99"));
+                product.setProductDiscountPercentage(5.0);
+                products.add(product);
+            }
+            return productRepository.saveAll(products).size();
+        });
+        countFlush();
+        return imported;
+    }
+
+    private void countFlush() {
+        statements += statementCounter.stop();
+        flushes++;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(EntityInsertBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,120 @@
+package com.shopit.project.benchmark;
+
+import com.shopit.project.repository.InventoryShardStockRepositoryImpl;
+import com.shopit.project.repository.ProductStockRepository.StockDecrement;
+import com.shopit.project.repository.ProductStockRepositoryImpl;
+import com.zaxxer.hikari.HikariDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout throughput for a single hot product against an embedded Postgres, with the stock in
+ * the products row ("shards" = 1) or split into inventory_shards rows. Each checkout is one
+ * transaction that decrements the stock and then writes an order, an order item and a payment
+ * while it still holds the stock row lock, like placeOrder does.
+ * Run with: mvn test-compile, then the main method on the test classpath (not as root, the
+ * embedded Postgres refuses to start as root).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class InventoryCheckoutBenchmark {
+
+    private static final long PRODUCT_ID = 1L;
+    private static final int STOCK = 1_000_000_000;
+
+    @Param({"1", "8"})
+    public int shards;
+
+    private EmbeddedPostgres postgres;
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ProductStockRepositoryImpl productStockRepository;
+    private InventoryShardStockRepositoryImpl inventoryShardStockRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // commit durability is not what is measured here, keep the disk out of the picture
+        postgres = EmbeddedPostgres.builder()
+                .setServerConfig("fsync", "off")
+                .setServerConfig("synchronous_commit", "off")
+                .start();
+        dataSource = new HikariDataSource();
+        dataSource.setDataSource(postgres.getPostgresDatabase());
+        dataSource.setMaximumPoolSize(16);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        productStockRepository = new ProductStockRepositoryImpl(jdbcTemplate);
+        inventoryShardStockRepository = new InventoryShardStockRepositoryImpl(jdbcTemplate);
+
+        jdbcTemplate.execute("CREATE TABLE products (product_id bigint PRIMARY KEY, product_quantity integer, " +
+                "delete_date timestamp, version bigint NOT NULL DEFAULT 0)");
+        jdbcTemplate.execute("CREATE TABLE inventory_shards (shard_id bigint GENERATED BY DEFAULT AS IDENTITY " +
+                "PRIMARY KEY, product_id bigint NOT NULL, shard_index integer NOT NULL, quantity integer NOT NULL, " +
+                "UNIQUE (product_id, shard_index))");
+        jdbcTemplate.execute("CREATE TABLE orders (order_id bigserial PRIMARY KEY, total_price double precision)");
+        jdbcTemplate.execute("CREATE TABLE order_items (order_item_id bigserial PRIMARY KEY, order_id bigint, " +
+                "product_id bigint, quantity integer)");
+        jdbcTemplate.execute("CREATE TABLE payments (payment_id bigserial PRIMARY KEY, order_id bigint, status text)");
+
+        jdbcTemplate.update("INSERT INTO products (product_id, product_quantity) VALUES (?, ?)", PRODUCT_ID, STOCK);
+        if (shards > 1)
+            transactionTemplate.executeWithoutResult(status ->
+                    inventoryShardStockRepository.replaceShards(PRODUCT_ID, shards, STOCK));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        dataSource.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public Long checkout() {
+        return transactionTemplate.execute(status -> {
+            if (decrementStock() == 0)
+                throw new IllegalStateException("Out of stock");
+
+            Long orderId = jdbcTemplate.queryForObject(
+                    "INSERT INTO orders (total_price) VALUES (9.99) RETURNING order_id", Long.class);
+            jdbcTemplate.update("INSERT INTO order_items (order_id, product_id, quantity) VALUES (?, ?, 1)",
+                    orderId, PRODUCT_ID);
+            jdbcTemplate.update("INSERT INTO payments (order_id, status) VALUES (?, 'Succeeded')", orderId);
+            return orderId;
+        });
+    }
+
+    private int decrementStock() {
+        if (shards == 1)
+            return productStockRepository.decrementStock(List.of(new StockDecrement(PRODUCT_ID, 1)))[0];
+
+        int shardIndex = ThreadLocalRandom.current().nextInt(shards);
+        if (inventoryShardStockRepository.decrementShard(PRODUCT_ID, shardIndex, 1) == 1)
+            return 1;
+        return inventoryShardStockRepository.decrementAcrossShards(PRODUCT_ID, 1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(InventoryCheckoutBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
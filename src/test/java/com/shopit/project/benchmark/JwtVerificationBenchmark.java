@@ -0,0 +1,69 @@
+package com.shopit.project.benchmark;
+
+import com.shopit.project.security.service.JwtServiceImpl;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request JWT authentication cost in JwtFilter.
+ * "legacy" rebuilds the key and parser and parses the token twice (validateJwt followed by
+ * getUserNameFromJwt), "parseOnce" is the single getClaimsFromJwt pass on the prebuilt parser.
+ * Run with: mvn test-compile, then the main method on the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+
+    private JwtServiceImpl jwtService;
+
+    private String jwtSecret;
+
+    private String jwt;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtServiceImpl();
+        ReflectionTestUtils.setField(jwtService, "jwtExpirationMs", 3600000);
+        SecretKey key = (SecretKey) ReflectionTestUtils.getField(jwtService, "key");
+        jwtSecret = Base64.getEncoder().encodeToString(key.getEncoded());
+        jwt = jwtService.generateJwtFromUsername("benchmarkUser");
+    }
+
+    private SecretKey legacyKey() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    }
+
+    @Benchmark
+    public String legacy() {
+        Jwts.parser().verifyWith(legacyKey()).build().parseSignedClaims(jwt);
+        return Jwts.parser().verifyWith(legacyKey()).build().parseSignedClaims(jwt)
+                .getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String parseOnce() {
+        return jwtService.getClaimsFromJwt(jwt).getSubject();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
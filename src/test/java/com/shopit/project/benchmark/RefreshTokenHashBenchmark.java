@@ -0,0 +1,67 @@
+package com.shopit.project.benchmark;
+
+import com.shopit.project.security.service.RefreshTokenServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refresh token hashing throughput on the login and refresh path, with several threads
+ * hashing at once as they would during a refresh storm.
+ * "legacy" looks up and initializes a new Mac per call, "threadLocalMac" is hashRefreshToken.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RefreshTokenHashBenchmark {
+
+    private RefreshTokenServiceImpl refreshTokenService;
+
+    private byte[] refreshTokenSecret;
+
+    private String refreshToken;
+
+    @Setup
+    public void setUp() {
+        refreshTokenService = new RefreshTokenServiceImpl(null, null, null);
+        SecretKeySpec key = (SecretKeySpec) ReflectionTestUtils.getField(refreshTokenService, "refreshTokenKey");
+        refreshTokenSecret = key.getEncoded();
+
+        byte[] tokenBytes = new byte[32];
+        new SecureRandom().nextBytes(tokenBytes);
+        refreshToken = Base64.getUrlEncoder().encodeToString(tokenBytes);
+    }
+
+    @Benchmark
+    public String legacy() throws Exception {
+        SecretKeySpec secretKeySpec = new SecretKeySpec(refreshTokenSecret, "HmacSHA256");
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(secretKeySpec);
+        return Base64.getEncoder().encodeToString(mac.doFinal(refreshToken.getBytes()));
+    }
+
+    @Benchmark
+    public String threadLocalMac() {
+        return refreshTokenService.hashRefreshToken(refreshToken);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RefreshTokenHashBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -1,6 +1,8 @@
 package com.shopit.project.controller;
 
 import com.shopit.project.payload.CartDTO;
+import com.shopit.project.payload.CartMutationDTO;
+import com.shopit.project.payload.CartMutationDTO.CartOperation;
 import com.shopit.project.service.CartService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,6 +10,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
@@ -15,6 +18,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -95,4 +99,22 @@ class CartControllerTest {
 
         verify(cartService, times(1)).deleteProductFromCart(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testApplyCartMutations() throws Exception {
+        CartDTO cartDTO = new CartDTO();
+
+        when(cartService.applyCartMutations(anyList())).thenReturn(cartDTO);
+
+        mockMvc.perform(post("/api/cart/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"productId": 1, "quantity": 2, "operation": "ADD"},
+                                 {"productId": 2, "operation": "DELETE"}]"""))
+                .andExpect(status().isOk());
+
+        verify(cartService, times(1)).applyCartMutations(List.of(
+                new CartMutationDTO(1L, 2, CartOperation.ADD),
+                new CartMutationDTO(2L, null, CartOperation.DELETE)));
+    }
+}
@@ -0,0 +1,49 @@
+package com.shopit.project.controller;
+
+import com.shopit.project.payload.ProductDTO;
+import com.shopit.project.service.InventoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryControllerTest {
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @InjectMocks
+    private InventoryController inventoryController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(inventoryController).build();
+    }
+
+    @Test
+    void testShardStock() throws Exception {
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setProductId(1L);
+        productDTO.setProductQuantity(100);
+        when(inventoryService.shardStock(1L, 8)).thenReturn(productDTO);
+
+        mockMvc.perform(put("/api/admin/products/{productId}/inventory/shards/{shardCount}", 1L, 8))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productId").value(1L))
+                .andExpect(jsonPath("$.productQuantity").value(100));
+
+        verify(inventoryService, times(1)).shardStock(1L, 8);
+    }
+}
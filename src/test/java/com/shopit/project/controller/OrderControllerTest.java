@@ -3,6 +3,8 @@ package com.shopit.project.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.shopit.project.payload.OrderDTO;
 import com.shopit.project.payload.OrderRequestDTO;
+import com.shopit.project.payload.OrderSummaryDTO;
+import com.shopit.project.payload.OrderSummaryScrollResponse;
 import com.shopit.project.service.OrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,8 +15,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.List;
+
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -46,15 +51,16 @@ class OrderControllerTest {
         OrderRequestDTO orderRequestDTO = new OrderRequestDTO();
         orderRequestDTO.setTransactionId("123456");
 
-        when(orderService.placeOrder(any(OrderRequestDTO.class))).thenReturn(orderDTO);
+        when(orderService.placeOrder(any(OrderRequestDTO.class), eq("checkout-1"))).thenReturn(orderDTO);
 
         mockMvc.perform(post("/api/order")
+                        .header("Idempotency-Key", "checkout-1")
                         .contentType("application/json")
                         .content(objectMapper.writeValueAsString(orderRequestDTO)))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.orderId").value(1L));
 
-        verify(orderService, times(1)).placeOrder(any(OrderRequestDTO.class));
+        verify(orderService, times(1)).placeOrder(any(OrderRequestDTO.class), eq("checkout-1"));
     }
 
     @Test
@@ -74,4 +80,33 @@ class OrderControllerTest {
 
         verify(orderService, times(1)).updateOrder(any(OrderDTO.class), eq(1L));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetUserOrders() throws Exception {
+        OrderSummaryDTO orderSummaryDTO = new OrderSummaryDTO();
+        orderSummaryDTO.setOrderId(7L);
+        OrderSummaryScrollResponse response =
+                new OrderSummaryScrollResponse(List.of(orderSummaryDTO), "next", 1, false);
+
+        when(orderService.getUserOrders("abc", 1)).thenReturn(response);
+
+        mockMvc.perform(get("/api/orders")
+                        .param("cursor", "abc")
+                        .param("pageSize", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].orderId").value(7L))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void testGetAllOrders() throws Exception {
+        when(orderService.getAllOrders(null, 30))
+                .thenReturn(new OrderSummaryScrollResponse(List.of(), null, 30, true));
+
+        mockMvc.perform(get("/api/admin/orders"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastPage").value(true));
+
+        verify(orderService, times(1)).getAllOrders(null, 30);
+    }
+}
@@ -2,6 +2,7 @@ package com.shopit.project.controller;
 
 import com.shopit.project.payload.ProductDTO;
 import com.shopit.project.payload.ProductResponse;
+import com.shopit.project.payload.ProductScrollResponse;
 import com.shopit.project.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +17,8 @@ import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.math.BigDecimal;
+
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -55,6 +58,25 @@ class ProductControllerTest {
         verify(productService, times(1)).getProducts(anyInt(), anyInt(), anyString(), anyString());
     }
 
+    @Test
+    void testScrollProducts() throws Exception {
+        ProductScrollResponse productScrollResponse = new ProductScrollResponse();
+        productScrollResponse.setNextCursor("next");
+        when(productService.scrollProducts("cursor", 10, "productName", "asc", true))
+                .thenReturn(productScrollResponse);
+
+        mockMvc.perform(get("/api/public/products/scroll")
+                        .param("cursor", "cursor")
+                        .param("pageSize", "10")
+                        .param("sortBy", "productName")
+                        .param("sortOrder", "asc")
+                        .param("includeTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"nextCursor\":\"next\"}"));
+
+        verify(productService, times(1)).scrollProducts("cursor", 10, "productName", "asc", true);
+    }
+
     @Test
     void testGetProductsByCategory() throws Exception {
         ProductResponse productResponse = new ProductResponse();
@@ -90,7 +112,7 @@ class ProductControllerTest {
     @Test
     void testAddProduct() throws Exception {
         ProductDTO productDTO = new ProductDTO();
-        productDTO.setProductPrice(100.0);
+        productDTO.setProductPrice(new BigDecimal("100.00"));
         productDTO.setProductDiscountPercentage(10.0);
         when(productService.addProduct(any(ProductDTO.class), anyLong())).thenReturn(productDTO);
 
@@ -105,7 +127,7 @@ class ProductControllerTest {
     @Test
     void testPermanentDeleteProduct() throws Exception {
         ProductDTO productDTO = new ProductDTO();
-        productDTO.setProductPrice(100.0);
+        productDTO.setProductPrice(new BigDecimal("100.00"));
         productDTO.setProductDiscountPercentage(10.0);
         when(productService.permanentDeleteProduct(anyLong())).thenReturn(productDTO);
 
@@ -118,7 +140,7 @@ class ProductControllerTest {
     @Test
     void testDeleteProduct() throws Exception {
         ProductDTO productDTO = new ProductDTO();
-        productDTO.setProductPrice(100.0);
+        productDTO.setProductPrice(new BigDecimal("100.00"));
         productDTO.setProductDiscountPercentage(10.0);
         when(productService.deleteProduct(anyLong())).thenReturn(productDTO);
 
@@ -131,7 +153,7 @@ class ProductControllerTest {
     @Test
     void testUnDeleteProduct() throws Exception {
         ProductDTO productDTO = new ProductDTO();
-        productDTO.setProductPrice(100.0);
+        productDTO.setProductPrice(new BigDecimal("100.00"));
         productDTO.setProductDiscountPercentage(10.0);
         when(productService.unDeleteProduct(anyLong())).thenReturn(productDTO);
 
@@ -144,7 +166,7 @@ class ProductControllerTest {
     @Test
     void testUpdateProduct() throws Exception {
         ProductDTO productDTO = new ProductDTO();
-        productDTO.setProductPrice(100.0);
+        productDTO.setProductPrice(new BigDecimal("100.00"));
         productDTO.setProductDiscountPercentage(10.0);
         when(productService.updateProduct(any(ProductDTO.class), anyLong())).thenReturn(productDTO);
 
@@ -159,7 +181,7 @@ class ProductControllerTest {
     @Test
     void testUpdateProductImage() throws Exception {
         ProductDTO productDTO = new ProductDTO();
-        productDTO.setProductPrice(100.0);
+        productDTO.setProductPrice(new BigDecimal("100.00"));
         productDTO.setProductDiscountPercentage(10.0);
         when(productService.updateProductImage(anyLong(), any(MultipartFile.class))).thenReturn(productDTO);
 
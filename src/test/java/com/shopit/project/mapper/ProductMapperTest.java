@@ -0,0 +1,56 @@
+package com.shopit.project.mapper;
+
+import com.shopit.project.model.Product;
+import com.shopit.project.payload.ProductDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductMapperTest {
+
+    private final ProductMapper productMapper = new ProductMapper();
+
+    @Test
+    void testToDTO_ComputesSpecialPrice() {
+        Product product = new Product();
+        product.setProductId(1L);
+        product.setProductName("Phone");
+        product.setProductQuantity(5);
+        product.setProductPrice(new BigDecimal("200.00"));
+        product.setProductDiscountPercentage(25.0);
+
+        ProductDTO productDTO = productMapper.toDTO(product);
+
+        assertEquals(1L, productDTO.getProductId());
+        assertEquals("Phone", productDTO.getProductName());
+        assertEquals(5, productDTO.getProductQuantity());
+        assertEquals(new BigDecimal("150.00"), productDTO.getProductSpecialPrice());
+    }
+
+    @Test
+    void testToDTO_WithoutDiscount() {
+        Product product = new Product();
+        product.setProductPrice(new BigDecimal("200.00"));
+
+        assertEquals(new BigDecimal("200.00"), productMapper.toDTO(product).getProductSpecialPrice());
+    }
+
+    @Test
+    void testToEntity() {
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setProductName("Phone");
+        productDTO.setProductDescription("Smart phone");
+        productDTO.setProductPrice(new BigDecimal("200.00"));
+        productDTO.setProductDiscountPercentage(25.0);
+
+        Product product = productMapper.toEntity(productDTO);
+
+        assertEquals("Phone", product.getProductName());
+        assertEquals("Smart phone", product.getProductDescription());
+        assertEquals(new BigDecimal("200.00"), product.getProductPrice());
+        assertEquals(25.0, product.getProductDiscountPercentage());
+        assertNull(product.getCategory());
+    }
+}
@@ -0,0 +1,33 @@
+package com.shopit.project.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartPurgeRepositoryImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private CartPurgeRepositoryImpl cartPurgeRepository;
+
+    @Test
+    void testDeleteCartItemsOfProduct_DeletesOneBatchReturningCarts() {
+        String sql = "DELETE FROM cart_item WHERE cart_item_id IN (SELECT cart_item_id FROM cart_item " +
+                "WHERE product_id = ? ORDER BY cart_item_id LIMIT ?) RETURNING cart_id";
+        when(jdbcTemplate.queryForList(eq(sql), eq(Long.class), eq(1L), eq(500))).thenReturn(List.of(3L, 4L));
+
+        assertEquals(List.of(3L, 4L), cartPurgeRepository.deleteCartItemsOfProduct(1L, 500));
+    }
+}
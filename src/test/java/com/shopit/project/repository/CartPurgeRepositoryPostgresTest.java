@@ -0,0 +1,96 @@
+package com.shopit.project.repository;
+
+import com.shopit.project.model.Cart;
+import com.shopit.project.model.CartItem;
+import com.shopit.project.model.Product;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// embedded Postgres refuses to start as root
+@DisabledIfSystemProperty(named = "user.name", matches = "root")
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class CartPurgeRepositoryPostgresTest {
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Product product(String name) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setProductDescription("Purged product");
+        product.setProductQuantity(10);
+        product.setProductPrice(new BigDecimal("10.00"));
+        product.setProductDiscountPercentage(0.0);
+        return productRepository.save(product);
+    }
+
+    private Cart cart(Product... products) {
+        Cart cart = new Cart();
+        for (Product product : products) {
+            CartItem cartItem = new CartItem();
+            cartItem.setCart(cart);
+            cartItem.setProduct(product);
+            cartItem.setQuantity(1);
+            cartItem.setProductPrice(product.getProductPrice());
+            cartItem.setProductDiscountPercentage(product.getProductDiscountPercentage());
+            cart.getCartItems().add(cartItem);
+        }
+        return cartRepository.save(cart);
+    }
+
+    private long lines(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_item WHERE product_id = ?", Long.class,
+                productId);
+    }
+
+    @Test
+    void testDeleteCartItemsOfProduct_DeletesInBatchesAndReturnsTheirCarts() {
+        Product purged = product("Purged");
+        Product kept = product("Kept");
+        List<Long> cartIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+            cartIds.add(cart(purged, kept).getCartId());
+        Long untouchedCartId = cart(kept).getCartId();
+        cartRepository.flush();
+
+        List<Long> deleted = new ArrayList<>(cartItemRepository.deleteCartItemsOfProduct(purged.getProductId(), 2));
+        assertEquals(2, deleted.size());
+        assertEquals(3, lines(purged.getProductId()));
+
+        List<Long> batch;
+        while (!(batch = cartItemRepository.deleteCartItemsOfProduct(purged.getProductId(), 2)).isEmpty())
+            deleted.addAll(batch);
+
+        assertEquals(cartIds, deleted.stream().sorted().toList());
+        assertEquals(0, lines(purged.getProductId()));
+        assertEquals(6, lines(kept.getProductId()));
+        assertFalse(deleted.contains(untouchedCartId));
+    }
+
+    @Test
+    void testDeleteCartItemsOfProduct_NoLinesReturnsNothing() {
+        Product product = product("Never added");
+
+        assertTrue(cartItemRepository.deleteCartItemsOfProduct(product.getProductId(), 10).isEmpty());
+    }
+}
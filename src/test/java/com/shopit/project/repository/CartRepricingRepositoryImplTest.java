@@ -0,0 +1,59 @@
+package com.shopit.project.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartRepricingRepositoryImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private CartRepricingRepositoryImpl cartRepricingRepository;
+
+    @Test
+    void testRepriceCartItems_UpdatesLinesOfOlderPriceVersionsUpToTheLimit() {
+        BigDecimal price = new BigDecimal("90.00");
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenReturn(List.of(3L, 4L));
+
+        assertEquals(List.of(3L, 4L), cartRepricingRepository.repriceCartItems(1L, price, 5.0, 7L, 500));
+
+        verify(jdbcTemplate).queryForList(
+                eq("UPDATE cart_item SET product_price = ?, product_discount_percentage = ?, " +
+                        "product_price_version = ?, version = version + 1 " +
+                        "WHERE cart_item_id IN (SELECT cart_item_id FROM cart_item WHERE product_id = ? " +
+                        "AND product_price_version < ? ORDER BY cart_item_id LIMIT ?) RETURNING cart_id"),
+                eq(Long.class), eq(price), eq(5.0), eq(7L), eq(1L), eq(7L), eq(500));
+    }
+
+    @Test
+    void testRecomputeCartTotals_OneStatementForAllCarts() {
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class))).thenReturn(2);
+
+        assertEquals(2, cartRepricingRepository.recomputeCartTotals(List.of(3L, 4L)));
+
+        verify(jdbcTemplate, times(1)).update(contains("WHERE c.cart_id = ANY (?)"), any(PreparedStatementSetter.class));
+    }
+
+    @Test
+    void testRecomputeCartTotals_NoCartsSkipsDatabase() {
+        assertEquals(0, cartRepricingRepository.recomputeCartTotals(List.of()));
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,140 @@
+package com.shopit.project.repository;
+
+import com.shopit.project.model.Cart;
+import com.shopit.project.model.CartItem;
+import com.shopit.project.model.Product;
+import com.shopit.project.util.MoneyUtil;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// embedded Postgres refuses to start as root
+@DisabledIfSystemProperty(named = "user.name", matches = "root")
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class CartRepricingRepositoryPostgresTest {
+
+    // doubles whose shortest decimal form has more than the 15 digits a plain float8::numeric cast keeps
+    private static final double[] DISCOUNTS = {0.0, 0.1 + 0.2, 12.5, 100.0 / 3, 33.3, 7.05, 0.5, 99.99, 1.1 * 3};
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Product> products = new ArrayList<>();
+
+    private Product product(int index) {
+        while (products.size() <= index) {
+            Product product = new Product();
+            product.setProductName("Product " + products.size());
+            product.setProductDescription("Repriced product");
+            product.setProductQuantity(100);
+            product.setProductPrice(new BigDecimal("10.00"));
+            product.setProductDiscountPercentage(0.0);
+            products.add(productRepository.save(product));
+        }
+        return products.get(index);
+    }
+
+    private CartItem cartItem(Cart cart, Product product, String price, Double discountPercentage, int quantity) {
+        CartItem cartItem = new CartItem();
+        cartItem.setCart(cart);
+        cartItem.setProduct(product);
+        cartItem.setProductPrice(new BigDecimal(price));
+        cartItem.setProductDiscountPercentage(discountPercentage);
+        cartItem.setQuantity(quantity);
+        cart.getCartItems().add(cartItem);
+        return cartItem;
+    }
+
+    private BigDecimal storedTotal(Long cartId) {
+        return jdbcTemplate.queryForObject("SELECT total_price FROM carts WHERE cart_id = ?", BigDecimal.class, cartId);
+    }
+
+    @Test
+    void testRecomputeCartTotals_RoundsLikeMoneyUtil() {
+        Random random = new Random(17);
+        Map<Long, BigDecimal> expectedTotals = new HashMap<>();
+        for (int c = 0; c < 20; c++) {
+            Cart cart = new Cart();
+            BigDecimal expected = MoneyUtil.ZERO;
+            for (int i = 0; i < 10; i++) {
+                String price = BigDecimal.valueOf(1 + random.nextInt(999_999), 2).toPlainString();
+                Double discount = i == 9 ? null : DISCOUNTS[random.nextInt(DISCOUNTS.length)];
+                int quantity = 1 + random.nextInt(5);
+                cartItem(cart, product(i), price, discount, quantity);
+                expected = expected.add(MoneyUtil.lineTotal(new BigDecimal(price), discount, quantity));
+            }
+            cartRepository.save(cart);
+            expectedTotals.put(cart.getCartId(), expected);
+        }
+        // 5.00 at 0.30000000000000004 % lands just below the half cent: 4.98, not 4.99
+        Cart halfCent = new Cart();
+        cartItem(halfCent, product(0), "5.00", 0.1 + 0.2, 1);
+        cartRepository.save(halfCent);
+        expectedTotals.put(halfCent.getCartId(), MoneyUtil.lineTotal(new BigDecimal("5.00"), 0.1 + 0.2, 1));
+        cartRepository.flush();
+
+        assertEquals(expectedTotals.size(), cartItemRepository.recomputeCartTotals(expectedTotals.keySet()));
+
+        assertEquals(new BigDecimal("4.98"), expectedTotals.get(halfCent.getCartId()));
+        expectedTotals.forEach((cartId, expected) -> assertEquals(expected, storedTotal(cartId), "cart " + cartId));
+    }
+
+    @Test
+    void testRecomputeCartTotals_EmptyCartIsZeroAndOtherCartsAreUntouched() {
+        Cart empty = cartRepository.save(new Cart());
+        Cart other = new Cart();
+        cartItem(other, product(0), "10.00", 0.0, 1);
+        cartRepository.saveAndFlush(other);
+
+        assertEquals(1, cartItemRepository.recomputeCartTotals(List.of(empty.getCartId())));
+
+        assertEquals(new BigDecimal("0.00"), storedTotal(empty.getCartId()));
+        assertEquals(new BigDecimal("0.00"), storedTotal(other.getCartId()));
+    }
+
+    @Test
+    void testRepriceCartItems_UpdatesOlderPriceVersionsUpToTheLimit() {
+        Product product = product(0);
+        List<Long> cartIds = new ArrayList<>();
+        for (int c = 0; c < 3; c++) {
+            Cart cart = new Cart();
+            cartItem(cart, product, "10.00", 0.0, 1).setProductPriceVersion(c == 2 ? 7L : 0L);
+            cartIds.add(cartRepository.save(cart).getCartId());
+        }
+        cartRepository.flush();
+
+        List<Long> repriced = cartItemRepository.repriceCartItems(product.getProductId(), new BigDecimal("8.00"),
+                5.0, 7L, 1);
+        assertEquals(List.of(cartIds.get(0)), repriced);
+        assertEquals(List.of(cartIds.get(1)), cartItemRepository.repriceCartItems(product.getProductId(),
+                new BigDecimal("8.00"), 5.0, 7L, 10));
+        assertTrue(cartItemRepository.repriceCartItems(product.getProductId(), new BigDecimal("8.00"),
+                5.0, 7L, 10).isEmpty());
+
+        assertEquals(List.of(Map.of("product_price", new BigDecimal("8.00"), "product_discount_percentage", 5.0)),
+                jdbcTemplate.queryForList("SELECT DISTINCT product_price, product_discount_percentage FROM cart_item " +
+                        "WHERE cart_id IN (?, ?)", cartIds.get(0), cartIds.get(1)));
+    }
+}
@@ -0,0 +1,114 @@
+package com.shopit.project.repository;
+
+import com.shopit.project.repository.InventoryShardStockRepository.ShardedStock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryShardStockRepositoryImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private InventoryShardStockRepositoryImpl inventoryShardStockRepository;
+
+    @SuppressWarnings("unchecked")
+    private void givenShards(int... quantities) {
+        when(jdbcTemplate.query(startsWith("SELECT shard_index, quantity"), any(RowMapper.class), eq(1L)))
+                .thenAnswer(invocation -> {
+                    RowMapper<Object> rowMapper = invocation.getArgument(1);
+                    List<Object> shards = new ArrayList<>();
+                    for (int i = 0; i < quantities.length; i++) {
+                        shards.add(rowMapper.mapRow(row(i, quantities[i]), i));
+                    }
+                    return shards;
+                });
+    }
+
+    private static ResultSet row(int shardIndex, int quantity) throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getInt("shard_index")).thenReturn(shardIndex);
+        when(resultSet.getInt("quantity")).thenReturn(quantity);
+        return resultSet;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDecrementAcrossShards_TakesFromShardsInOrder() {
+        givenShards(2, 0, 3, 5);
+        ArgumentCaptor<List<Object[]>> batchArgs = ArgumentCaptor.forClass(List.class);
+
+        assertEquals(1, inventoryShardStockRepository.decrementAcrossShards(1L, 4));
+
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE inventory_shards SET quantity = ?"), batchArgs.capture());
+        assertEquals(2, batchArgs.getValue().size());
+        assertArrayEquals(new Object[]{0, 1L, 0}, batchArgs.getValue().get(0));
+        assertArrayEquals(new Object[]{1, 1L, 2}, batchArgs.getValue().get(1));
+    }
+
+    @Test
+    void testDecrementAcrossShards_NotEnoughStock() {
+        givenShards(1, 1);
+
+        assertEquals(0, inventoryShardStockRepository.decrementAcrossShards(1L, 3));
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void testDecrementAcrossShards_FallsBackToProductRowWhenShardsWereRemoved() {
+        givenShards();
+        when(jdbcTemplate.update(startsWith("UPDATE products"), eq(3), eq(1L), eq(3))).thenReturn(1);
+
+        assertEquals(1, inventoryShardStockRepository.decrementAcrossShards(1L, 3));
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void testLockStock_SumsShardsWhenSharded() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT product_quantity"), eq(Integer.class), eq(1L)))
+                .thenReturn(99);
+        givenShards(4, 6);
+
+        assertEquals(new ShardedStock(10, 2), inventoryShardStockRepository.lockStock(1L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReplaceShards_SplitsQuantityEvenly() {
+        ArgumentCaptor<List<Object[]>> batchArgs = ArgumentCaptor.forClass(List.class);
+
+        inventoryShardStockRepository.replaceShards(1L, 3, 10);
+
+        verify(jdbcTemplate).update("DELETE FROM inventory_shards WHERE product_id = ?", 1L);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO inventory_shards"), batchArgs.capture());
+        assertArrayEquals(new Object[]{1L, 0, 4}, batchArgs.getValue().get(0));
+        assertArrayEquals(new Object[]{1L, 1, 3}, batchArgs.getValue().get(1));
+        assertArrayEquals(new Object[]{1L, 2, 3}, batchArgs.getValue().get(2));
+    }
+
+    @Test
+    void testReplaceShards_SingleShardOnlyRemovesShards() {
+        inventoryShardStockRepository.replaceShards(1L, 1, 10);
+
+        verify(jdbcTemplate).update("DELETE FROM inventory_shards WHERE product_id = ?", 1L);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+}
@@ -0,0 +1,139 @@
+package com.shopit.project.repository;
+
+import com.shopit.project.model.Product;
+import com.shopit.project.repository.InventoryShardStockRepository.ShardedStock;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// embedded Postgres refuses to start as root
+@DisabledIfSystemProperty(named = "user.name", matches = "root")
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class InventoryShardStockRepositoryPostgresTest {
+
+    @Autowired
+    private InventoryShardRepository inventoryShardRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long product(String name, int quantity) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setProductDescription("Sharded product");
+        product.setProductQuantity(quantity);
+        product.setProductPrice(new BigDecimal("10.00"));
+        product.setProductDiscountPercentage(0.0);
+        return productRepository.saveAndFlush(product).getProductId();
+    }
+
+    private List<Integer> shardQuantities(Long productId) {
+        // read through JDBC, shard entities loaded earlier in the test would be stale
+        return jdbcTemplate.queryForList(
+                "SELECT quantity FROM inventory_shards WHERE product_id = ? ORDER BY shard_index",
+                Integer.class, productId);
+    }
+
+    private int productQuantity(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT product_quantity FROM products WHERE product_id = ?",
+                Integer.class, productId);
+    }
+
+    private long productVersion(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT version FROM products WHERE product_id = ?", Long.class, productId);
+    }
+
+    @Test
+    void testReplaceShards_SplitsEvenlyAndFoldsBack() {
+        Long productId = product("Console", 10);
+
+        inventoryShardRepository.replaceShards(productId, 3, 10);
+        assertEquals(List.of(4, 3, 3), shardQuantities(productId));
+        assertEquals(new ShardedStock(10, 3), inventoryShardRepository.lockStock(productId));
+
+        inventoryShardRepository.replaceShards(productId, 1, 10);
+        assertTrue(shardQuantities(productId).isEmpty());
+        assertEquals(new ShardedStock(10, 0), inventoryShardRepository.lockStock(productId));
+    }
+
+    @Test
+    void testDecrementShard_OnlyWhenThatShardHoldsEnough() {
+        Long productId = product("Console", 10);
+        inventoryShardRepository.replaceShards(productId, 2, 10);
+
+        assertEquals(1, inventoryShardRepository.decrementShard(productId, 1, 5));
+        assertEquals(0, inventoryShardRepository.decrementShard(productId, 1, 1));
+        assertEquals(0, inventoryShardRepository.decrementShard(productId, 0, 6));
+        assertEquals(List.of(5, 0), shardQuantities(productId));
+    }
+
+    @Test
+    void testDecrementAcrossShards_TakesFromSeveralShardsOrNone() {
+        Long productId = product("Console", 10);
+        inventoryShardRepository.replaceShards(productId, 3, 10);
+
+        assertEquals(0, inventoryShardRepository.decrementAcrossShards(productId, 11));
+        assertEquals(List.of(4, 3, 3), shardQuantities(productId));
+
+        assertEquals(1, inventoryShardRepository.decrementAcrossShards(productId, 6));
+        assertEquals(List.of(0, 1, 3), shardQuantities(productId));
+
+        assertEquals(1, inventoryShardRepository.decrementAcrossShards(productId, 4));
+        assertEquals(List.of(0, 0, 0), shardQuantities(productId));
+    }
+
+    @Test
+    void testDecrementAcrossShards_UsesProductRowOnceShardsAreFoldedBack() {
+        Long productId = product("Console", 10);
+        inventoryShardRepository.replaceShards(productId, 2, 10);
+        inventoryShardRepository.replaceShards(productId, 1, 10);
+
+        assertEquals(1, inventoryShardRepository.decrementAcrossShards(productId, 4));
+        assertEquals(0, inventoryShardRepository.decrementAcrossShards(productId, 7));
+        assertEquals(6, productQuantity(productId));
+    }
+
+    @Test
+    void testReconcileProductQuantities_UpdatesOnlyShardedProductsThatDrifted() {
+        Long drifted = product("Drifted", 10);
+        Long inSync = product("In sync", 6);
+        Long unsharded = product("Unsharded", 7);
+        inventoryShardRepository.replaceShards(drifted, 2, 10);
+        inventoryShardRepository.replaceShards(inSync, 3, 6);
+        inventoryShardRepository.decrementShard(drifted, 0, 3);
+        long inSyncVersion = productVersion(inSync);
+        long unshardedVersion = productVersion(unsharded);
+
+        assertEquals(1, inventoryShardRepository.reconcileProductQuantities());
+
+        assertEquals(7, productQuantity(drifted));
+        assertEquals(6, productQuantity(inSync));
+        assertEquals(inSyncVersion, productVersion(inSync));
+        assertEquals(7, productQuantity(unsharded));
+        assertEquals(unshardedVersion, productVersion(unsharded));
+        assertEquals(0, inventoryShardRepository.reconcileProductQuantities());
+    }
+
+    @Test
+    void testUpdateProductQuantity_BumpsVersion() {
+        Long productId = product("Console", 10);
+        long version = productVersion(productId);
+
+        inventoryShardRepository.updateProductQuantity(productId, 4);
+
+        assertEquals(4, productQuantity(productId));
+        assertEquals(version + 1, productVersion(productId));
+    }
+}
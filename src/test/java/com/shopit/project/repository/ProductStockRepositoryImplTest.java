@@ -0,0 +1,51 @@
+package com.shopit.project.repository;
+
+import com.shopit.project.repository.ProductStockRepository.StockDecrement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductStockRepositoryImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ProductStockRepositoryImpl productStockRepository;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDecrementStock_SendsOneConditionalBatch() {
+        ArgumentCaptor<List<Object[]>> batchArgs = ArgumentCaptor.forClass(List.class);
+        when(jdbcTemplate.batchUpdate(anyString(), batchArgs.capture())).thenReturn(new int[]{1, 0});
+
+        int[] updatedRows = productStockRepository.decrementStock(
+                List.of(new StockDecrement(1L, 2), new StockDecrement(2L, 5)));
+
+        assertArrayEquals(new int[]{1, 0}, updatedRows);
+        verify(jdbcTemplate, times(1)).batchUpdate(
+                eq("UPDATE products SET product_quantity = product_quantity - ?, version = version + 1 " +
+                        "WHERE product_id = ? AND product_quantity >= ? AND delete_date IS NULL"),
+                anyList());
+        assertArrayEquals(new Object[]{2, 1L, 2}, batchArgs.getValue().get(0));
+        assertArrayEquals(new Object[]{5, 2L, 5}, batchArgs.getValue().get(1));
+    }
+
+    @Test
+    void testDecrementStock_EmptyCartSkipsDatabase() {
+        assertEquals(0, productStockRepository.decrementStock(List.of()).length);
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,83 @@
+package com.shopit.project.repository;
+
+import com.shopit.project.model.Product;
+import com.shopit.project.repository.ProductStockRepository.StockDecrement;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// embedded Postgres refuses to start as root
+@DisabledIfSystemProperty(named = "user.name", matches = "root")
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class ProductStockRepositoryPostgresTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long product(String name, int quantity, Date deleteDate) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setProductDescription("Stocked product");
+        product.setProductQuantity(quantity);
+        product.setProductPrice(new BigDecimal("10.00"));
+        product.setProductDiscountPercentage(0.0);
+        product.setDeleteDate(deleteDate);
+        return productRepository.saveAndFlush(product).getProductId();
+    }
+
+    private int productQuantity(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT product_quantity FROM products WHERE product_id = ?",
+                Integer.class, productId);
+    }
+
+    private long productVersion(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT version FROM products WHERE product_id = ?", Long.class, productId);
+    }
+
+    @Test
+    void testDecrementStock_AppliesOnlyLinesWithEnoughStockOnLiveProducts() {
+        Long exact = product("Exact stock", 5, null);
+        Long plenty = product("Plenty of stock", 10, null);
+        Long scarce = product("Short of stock", 2, null);
+        Long deleted = product("Deleted product", 10, new Date());
+        long exactVersion = productVersion(exact);
+        long shortVersion = productVersion(scarce);
+        long deletedVersion = productVersion(deleted);
+
+        int[] updated = productRepository.decrementStock(List.of(new StockDecrement(exact, 5),
+                new StockDecrement(plenty, 3), new StockDecrement(scarce, 3), new StockDecrement(deleted, 1)));
+
+        assertArrayEquals(new int[]{1, 1, 0, 0}, updated);
+        assertEquals(0, productQuantity(exact));
+        assertEquals(exactVersion + 1, productVersion(exact));
+        assertEquals(7, productQuantity(plenty));
+        assertEquals(2, productQuantity(scarce));
+        assertEquals(shortVersion, productVersion(scarce));
+        assertEquals(10, productQuantity(deleted));
+        assertEquals(deletedVersion, productVersion(deleted));
+    }
+
+    @Test
+    void testDecrementStock_RepeatedLinesForOneProductDrainItInOrder() {
+        Long productId = product("Console", 4, null);
+
+        int[] updated = productRepository.decrementStock(List.of(new StockDecrement(productId, 3),
+                new StockDecrement(productId, 2), new StockDecrement(productId, 1)));
+
+        assertArrayEquals(new int[]{1, 0, 1}, updated);
+        assertEquals(0, productQuantity(productId));
+    }
+}
@@ -2,21 +2,29 @@ package com.shopit.project.security.filter;
 
 import com.shopit.project.exceptions.APIException;
 import com.shopit.project.security.service.JwtService;
-import com.shopit.project.security.service.UserDetailsServiceImpl;
+import com.shopit.project.security.model.UserDetailsImpl;
+import com.shopit.project.security.service.PrincipalCacheService;
+import com.shopit.project.security.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Date;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,7 +39,10 @@ class JwtFilterTest {
     private JwtService jwtService;
 
     @Mock
-    private UserDetailsServiceImpl userDetailsService;
+    private PrincipalCacheService principalCacheService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
 
     @Mock
     private HttpServletRequest request;
@@ -45,24 +56,65 @@ class JwtFilterTest {
     @Mock
     private UserDetails userDetails;
 
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.clearContext();
+    }
+
     @Test
     void testDoFilterInternal_WithValidJwt() throws ServletException, IOException {
         when(request.getRequestURI()).thenReturn("/api/admin/endpoint");
         when(jwtService.getJwtFromHeader(request)).thenReturn("valid-jwt");
-        when(jwtService.getUserNameFromJwt("valid-jwt")).thenReturn("testUser");
-        when(userDetailsService.loadUserByUsername("testUser")).thenReturn(userDetails);
+        when(jwtService.getClaimsFromJwt("valid-jwt")).thenReturn(Jwts.claims().subject("testUser").build());
+        when(principalCacheService.getPrincipal("testUser")).thenReturn(userDetails);
         when(userDetails.getAuthorities()).thenReturn(Collections.emptyList());
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtService).validateJwt("valid-jwt");
-        verify(jwtService).getUserNameFromJwt("valid-jwt");
-        verify(userDetailsService).loadUserByUsername("testUser");
+        verify(jwtService, times(1)).getClaimsFromJwt("valid-jwt");
+        verify(jwtService, never()).validateJwt(anyString());
+        verify(principalCacheService).getPrincipal("testUser");
         verify(filterChain).doFilter(request, response);
 
         assertNotNull(SecurityContextHolder.getContext().getAuthentication());
     }
 
+    @Test
+    void testDoFilterInternal_WithStatelessJwt() throws ServletException, IOException {
+        Claims claims = Jwts.claims().subject("testUser").issuedAt(new Date()).build();
+        UserDetailsImpl principal = new UserDetailsImpl(1L, "testUser", null, null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        when(request.getRequestURI()).thenReturn("/api/cart");
+        when(jwtService.getJwtFromHeader(request)).thenReturn("stateless-jwt");
+        when(jwtService.getClaimsFromJwt("stateless-jwt")).thenReturn(claims);
+        when(jwtService.getUserDetailsFromClaims(claims)).thenReturn(principal);
+        when(jwtService.getIssuedAtFromClaims(claims)).thenReturn(claims.getIssuedAt());
+        when(tokenRevocationService.isRevoked("testUser", claims.getIssuedAt())).thenReturn(false);
+
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        verify(principalCacheService, never()).getPrincipal(anyString());
+        verify(filterChain).doFilter(request, response);
+        assertEquals(principal, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+    }
+
+    @Test
+    void testDoFilterInternal_WithRevokedStatelessJwt() {
+        Claims claims = Jwts.claims().subject("testUser").issuedAt(new Date()).build();
+        UserDetailsImpl principal = new UserDetailsImpl(1L, "testUser", null, null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        when(request.getRequestURI()).thenReturn("/api/cart");
+        when(jwtService.getJwtFromHeader(request)).thenReturn("revoked-jwt");
+        when(jwtService.getClaimsFromJwt("revoked-jwt")).thenReturn(claims);
+        when(jwtService.getUserDetailsFromClaims(claims)).thenReturn(principal);
+        when(jwtService.getIssuedAtFromClaims(claims)).thenReturn(claims.getIssuedAt());
+        when(tokenRevocationService.isRevoked("testUser", claims.getIssuedAt())).thenReturn(true);
+
+        assertThrows(APIException.class, () -> jwtFilter.doFilterInternal(request, response, filterChain));
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
     @Test
     void testDoFilterInternal_WithPublicEndpoint() throws ServletException, IOException {
         when(request.getRequestURI()).thenReturn("/api/public/endpoint");
@@ -89,11 +141,11 @@ class JwtFilterTest {
     void testDoFilterInternal_WithInvalidJwt() throws ServletException, IOException {
         when(request.getRequestURI()).thenReturn("/api/protected");
         when(jwtService.getJwtFromHeader(request)).thenReturn("invalid-jwt");
-        doThrow(new APIException("Invalid JWT token")).when(jwtService).validateJwt("invalid-jwt");
+        when(jwtService.getClaimsFromJwt("invalid-jwt")).thenThrow(new APIException("Invalid JWT token"));
 
         assertThrows(APIException.class, () -> jwtFilter.doFilterInternal(request, response, filterChain));
 
-        verify(jwtService).validateJwt("invalid-jwt");
+        verify(jwtService).getClaimsFromJwt("invalid-jwt");
         verify(filterChain, never()).doFilter(request, response);
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
@@ -1,6 +1,8 @@
 package com.shopit.project.security.service;
 
 import com.shopit.project.exceptions.APIException;
+import com.shopit.project.security.model.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Order;
@@ -9,8 +11,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.Date;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
 
@@ -64,6 +71,68 @@ class JwtServiceImplTest {
         assertEquals("testUser", username);
     }
 
+    @Test
+    void testGetClaimsFromJwt() {
+        String jwt = jwtService.generateJwtFromUsername("testUser");
+
+        Claims claims = jwtService.getClaimsFromJwt(jwt);
+
+        assertEquals("testUser", claims.getSubject());
+        assertNotNull(claims.getExpiration());
+    }
+
+    @Test
+    void testGetClaimsFromJwt_SignedWithOtherKey() {
+        JwtServiceImpl otherJwtService = new JwtServiceImpl();
+        ReflectionTestUtils.setField(otherJwtService, "jwtExpirationMs", 3600000);
+        String jwt = otherJwtService.generateJwtFromUsername("testUser");
+
+        assertThrows(APIException.class, () -> jwtService.getClaimsFromJwt(jwt));
+    }
+
+    @Test
+    void testGenerateJwtFromUserDetails_StatelessAuthorization() {
+        ReflectionTestUtils.setField(jwtService, "statelessAuthorization", true);
+        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"),
+                new SimpleGrantedAuthority("ROLE_SELLER"));
+        UserDetailsImpl userDetails = new UserDetailsImpl(7L, "testUser", "test@mail.com", "password", authorities);
+
+        String jwt = jwtService.generateJwtFromUserDetails(userDetails);
+        UserDetailsImpl principal = jwtService.getUserDetailsFromClaims(jwtService.getClaimsFromJwt(jwt));
+
+        assertNotNull(principal);
+        assertEquals(7L, principal.getUserId());
+        assertEquals("testUser", principal.getUsername());
+        assertNull(principal.getPassword());
+        assertEquals(List.of("ROLE_USER", "ROLE_SELLER"),
+                principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void testGetIssuedAtFromClaims_KeepsMillisecondsOfStatelessToken() {
+        ReflectionTestUtils.setField(jwtService, "statelessAuthorization", true);
+        UserDetailsImpl userDetails = new UserDetailsImpl(7L, "testUser", "test@mail.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+        long before = System.currentTimeMillis();
+        Claims claims = jwtService.getClaimsFromJwt(jwtService.generateJwtFromUserDetails(userDetails));
+        Date issuedAt = jwtService.getIssuedAtFromClaims(claims);
+
+        assertTrue(issuedAt.getTime() >= before);
+        assertEquals(claims.getIssuedAt().getTime() / 1000, issuedAt.getTime() / 1000);
+    }
+
+    @Test
+    void testGenerateJwtFromUserDetails_StatelessAuthorizationDisabled() {
+        UserDetailsImpl userDetails = new UserDetailsImpl(7L, "testUser", "test@mail.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+        String jwt = jwtService.generateJwtFromUserDetails(userDetails);
+
+        assertEquals("testUser", jwtService.getUserNameFromJwt(jwt));
+        assertNull(jwtService.getUserDetailsFromClaims(jwtService.getClaimsFromJwt(jwt)));
+    }
+
     @Test
     void testValidateJwt_ValidJwt() {
         String jwt = jwtService.generateJwtFromUsername("testUser");
@@ -0,0 +1,81 @@
+package com.shopit.project.security.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PrincipalCacheServiceImplTest {
+
+    private PrincipalCacheServiceImpl principalCacheService;
+
+    private MeterRegistry meterRegistry;
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Mock
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        principalCacheService = new PrincipalCacheServiceImpl(userDetailsService, meterRegistry, 100, 300);
+    }
+
+    @Test
+    void testGetPrincipal_LoadsOnceWhenWarm() {
+        when(userDetailsService.loadUserByUsername("testUser")).thenReturn(userDetails);
+
+        UserDetails first = principalCacheService.getPrincipal("testUser");
+        UserDetails second = principalCacheService.getPrincipal("testUser");
+
+        assertSame(userDetails, first);
+        assertSame(userDetails, second);
+        verify(userDetailsService, times(1)).loadUserByUsername("testUser");
+    }
+
+    @Test
+    void testEvictPrincipal_ReloadsOnNextRequest() {
+        when(userDetailsService.loadUserByUsername("testUser")).thenReturn(userDetails);
+
+        principalCacheService.getPrincipal("testUser");
+        principalCacheService.evictPrincipal("testUser");
+        principalCacheService.getPrincipal("testUser");
+
+        verify(userDetailsService, times(2)).loadUserByUsername("testUser");
+    }
+
+    @Test
+    void testGetPrincipal_UserNotFoundIsNotCached() {
+        when(userDetailsService.loadUserByUsername("testUser"))
+                .thenThrow(new UsernameNotFoundException("User Not Found with username: testUser"));
+
+        assertThrows(UsernameNotFoundException.class, () -> principalCacheService.getPrincipal("testUser"));
+        assertThrows(UsernameNotFoundException.class, () -> principalCacheService.getPrincipal("testUser"));
+
+        verify(userDetailsService, times(2)).loadUserByUsername("testUser");
+    }
+
+    @Test
+    void testHitAndMissMetrics() {
+        when(userDetailsService.loadUserByUsername("testUser")).thenReturn(userDetails);
+
+        principalCacheService.getPrincipal("testUser");
+        principalCacheService.getPrincipal("testUser");
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "principals")
+                .tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "principals")
+                .tag("result", "miss").functionCounter().count());
+    }
+}
@@ -5,6 +5,7 @@ import com.shopit.project.model.User;
 import com.shopit.project.repository.RefreshTokenRepository;
 import com.shopit.project.repository.UserRepository;
 import com.shopit.project.security.model.RefreshToken;
+import com.shopit.project.security.model.UserDetailsImpl;
 import com.shopit.project.security.payload.RefreshJwtResponse;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,8 +19,17 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseCookie;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -79,7 +89,7 @@ class RefreshTokenServiceImplTest {
         when(cookie.getValue()).thenReturn("validToken");
 
         when(refreshTokenRepository.findByRefreshToken(anyString())).thenReturn(Optional.of(refreshToken));
-        when(jwtService.generateJwtFromUsername("testUser")).thenReturn("newJwt");
+        when(jwtService.generateJwtFromUserDetails(any(UserDetailsImpl.class))).thenReturn("newJwt");
 
         RefreshJwtResponse response = refreshTokenService.refreshJwt(request);
 
@@ -144,6 +154,35 @@ class RefreshTokenServiceImplTest {
         assertNotEquals(refreshToken, hashedToken);
     }
 
+    @Test
+    void testHashRefreshToken_MatchesFreshHmac() throws Exception {
+        SecretKeySpec key = (SecretKeySpec) ReflectionTestUtils.getField(refreshTokenService, "refreshTokenKey");
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(key);
+        String expected = Base64.getEncoder().encodeToString(mac.doFinal("someToken".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(expected, refreshTokenService.hashRefreshToken("someToken"));
+        assertEquals(expected, refreshTokenService.hashRefreshToken("someToken"));
+        assertNotEquals(expected, refreshTokenService.hashRefreshToken("otherToken"));
+    }
+
+    @Test
+    void testHashRefreshToken_ConcurrentCallers() throws Exception {
+        String expected = refreshTokenService.hashRefreshToken("someToken");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> hashes = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                hashes.add(executor.submit(() -> refreshTokenService.hashRefreshToken("someToken")));
+            }
+            for (Future<String> hash : hashes) {
+                assertEquals(expected, hash.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     void testGenerateCleanCookie() {
         ResponseCookie cleanCookie = refreshTokenService.generateCleanCookie();
@@ -0,0 +1,60 @@
+package com.shopit.project.security.service;
+
+import com.shopit.project.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenSweeperTest {
+
+    private RefreshTokenSweeper refreshTokenSweeper;
+
+    private MeterRegistry meterRegistry;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        refreshTokenSweeper = new RefreshTokenSweeper(refreshTokenRepository, meterRegistry, 2);
+    }
+
+    @Test
+    void testSweepExpiredTokens_DeletesInBatchesUntilDrained() {
+        when(refreshTokenRepository.deleteExpiredBatch(any(LocalDateTime.class), eq(2)))
+                .thenReturn(2, 2, 1);
+        when(refreshTokenRepository.count()).thenReturn(7L);
+
+        refreshTokenSweeper.sweepExpiredTokens();
+
+        verify(refreshTokenRepository, times(3)).deleteExpiredBatch(any(LocalDateTime.class), eq(2));
+        assertEquals(5.0, meterRegistry.get("shopit.refresh.tokens.swept").counter().count());
+        assertEquals(7.0, meterRegistry.get("shopit.refresh.tokens.size").gauge().value());
+        assertEquals(1, meterRegistry.get("shopit.refresh.tokens.sweep").timer().count());
+    }
+
+    @Test
+    void testSweepExpiredTokens_NothingExpired() {
+        when(refreshTokenRepository.deleteExpiredBatch(any(LocalDateTime.class), eq(2))).thenReturn(0);
+        when(refreshTokenRepository.count()).thenReturn(3L);
+
+        refreshTokenSweeper.sweepExpiredTokens();
+
+        verify(refreshTokenRepository, times(1)).deleteExpiredBatch(any(LocalDateTime.class), eq(2));
+        assertEquals(0.0, meterRegistry.get("shopit.refresh.tokens.swept").counter().count());
+        assertEquals(3.0, meterRegistry.get("shopit.refresh.tokens.size").gauge().value());
+    }
+}
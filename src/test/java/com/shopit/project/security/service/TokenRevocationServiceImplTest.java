@@ -0,0 +1,74 @@
+package com.shopit.project.security.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationServiceImplTest {
+
+    private TokenRevocationServiceImpl tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationService = new TokenRevocationServiceImpl(3600000);
+    }
+
+    @Test
+    void testIsRevoked_NoRevocation() {
+        assertFalse(tokenRevocationService.isRevoked("testUser", new Date()));
+    }
+
+    @Test
+    void testIsRevoked_TokenIssuedBeforeRevocation() {
+        Date issuedAt = Date.from(Instant.now().minus(1, ChronoUnit.MINUTES));
+
+        tokenRevocationService.revokeTokens("testUser");
+
+        assertTrue(tokenRevocationService.isRevoked("testUser", issuedAt));
+        assertFalse(tokenRevocationService.isRevoked("otherUser", issuedAt));
+    }
+
+    @Test
+    void testIsRevoked_TokenIssuedAfterRevocation() {
+        tokenRevocationService.revokeTokens("testUser");
+
+        Date issuedAt = Date.from(Instant.now().plus(1, ChronoUnit.MINUTES));
+
+        assertFalse(tokenRevocationService.isRevoked("testUser", issuedAt));
+    }
+
+    @Test
+    void testIsRevoked_TokenIssuedInSameSecondAfterRevocation() throws InterruptedException {
+        tokenRevocationService.revokeTokens("testUser");
+        Thread.sleep(2);
+
+        Date issuedAt = new Date();
+
+        assertFalse(tokenRevocationService.isRevoked("testUser", issuedAt));
+    }
+
+    @Test
+    void testIsRevoked_SecondPrecisionTokenFromRevocationSecondStaysRevoked() {
+        tokenRevocationService.revokeTokens("testUser");
+
+        Date issuedAt = Date.from(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+
+        assertTrue(tokenRevocationService.isRevoked("testUser", issuedAt));
+    }
+
+    @Test
+    void testIsRevoked_ManyRevocationsAreNotEvicted() {
+        Date issuedAt = Date.from(Instant.now().minus(1, ChronoUnit.MINUTES));
+
+        for (int i = 0; i < 10_000; i++)
+            tokenRevocationService.revokeTokens("user" + i);
+
+        assertTrue(tokenRevocationService.isRevoked("user0", issuedAt));
+        assertTrue(tokenRevocationService.isRevoked("user9999", issuedAt));
+    }
+}
@@ -1,5 +1,6 @@
 package com.shopit.project.service;
 
+import com.shopit.project.mapper.AddressMapper;
 import com.shopit.project.model.Address;
 import com.shopit.project.payload.AddressDTO;
 import com.shopit.project.repository.AddressRepository;
@@ -10,8 +11,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 import com.shopit.project.model.User;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,8 +33,8 @@ class AddressServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
-    @Mock
-    private ModelMapper modelMapper;
+    @Spy
+    private AddressMapper addressMapper = new AddressMapper();
 
     @Mock
     private AuthUtil authUtil;
@@ -50,6 +51,7 @@ class AddressServiceImplTest {
 
         address = new Address();
         address.setAddressId(1L);
+        address.setAddressLine1("123 Main St");
         address.setUser(user);
 
         addressDTO = new AddressDTO();
@@ -59,8 +61,6 @@ class AddressServiceImplTest {
     @Test
     void addAddress_shouldReturnSavedAddressDTO() {
         when(authUtil.loggedInUser()).thenReturn(user);
-        when(modelMapper.map(any(AddressDTO.class), eq(Address.class))).thenReturn(address);
-        when(modelMapper.map(any(Address.class), eq(AddressDTO.class))).thenReturn(addressDTO);
         when(addressRepository.save(any(Address.class))).thenReturn(address);
         when(userRepository.save(any(User.class))).thenReturn(user);
 
@@ -77,7 +77,6 @@ class AddressServiceImplTest {
         List<Address> addresses = new ArrayList<>();
         addresses.add(address);
 
-        when(modelMapper.map(any(Address.class), eq(AddressDTO.class))).thenReturn(addressDTO);
         when(addressRepository.findAll()).thenReturn(addresses);
 
         List<AddressDTO> result = addressService.getAllAddresses();
@@ -89,7 +88,6 @@ class AddressServiceImplTest {
 
     @Test
     void getAddressById_shouldReturnAddressDTO() {
-        when(modelMapper.map(any(Address.class), eq(AddressDTO.class))).thenReturn(addressDTO);
         when(addressRepository.findById(anyLong())).thenReturn(Optional.of(address));
 
         AddressDTO result = addressService.getAddressById(1L);
@@ -105,7 +103,6 @@ class AddressServiceImplTest {
         addresses.add(address);
 
         when(authUtil.loggedInUser()).thenReturn(user);
-        when(modelMapper.map(any(Address.class), eq(AddressDTO.class))).thenReturn(addressDTO);
         when(addressRepository.findByUser(any(User.class))).thenReturn(addresses);
 
         List<AddressDTO> result = addressService.getAddressByUser();
@@ -118,7 +115,6 @@ class AddressServiceImplTest {
     @Test
     void updateAddress_shouldReturnUpdatedAddressDTO() {
         when(authUtil.loggedInUser()).thenReturn(user);
-        when(modelMapper.map(any(Address.class), eq(AddressDTO.class))).thenReturn(addressDTO);
         when(addressRepository.findById(anyLong())).thenReturn(Optional.of(address));
         when(addressRepository.save(any(Address.class))).thenReturn(address);
         when(userRepository.save(any(User.class))).thenReturn(user);
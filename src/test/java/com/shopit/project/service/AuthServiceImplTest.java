@@ -13,7 +13,9 @@ import com.shopit.project.security.payload.LoginRequest;
 import com.shopit.project.security.payload.SignupRequest;
 import com.shopit.project.security.payload.SignupResponse;
 import com.shopit.project.security.service.JwtService;
+import com.shopit.project.security.service.PrincipalCacheService;
 import com.shopit.project.security.service.RefreshTokenService;
+import com.shopit.project.security.service.TokenRevocationService;
 import com.shopit.project.util.AuthUtil;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -68,6 +70,12 @@ class AuthServiceImplTest {
     @Mock
     private AuthUtil authUtil;
 
+    @Mock
+    private PrincipalCacheService principalCacheService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
     @Test
     void testRegisterUser_Success() {
         SignupRequest signupRequest = new SignupRequest();
@@ -120,7 +128,7 @@ class AuthServiceImplTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
 
-        when(jwtService.generateJwtFromUsername("testUser")).thenReturn("jwtToken");
+        when(jwtService.generateJwtFromUserDetails(userDetails)).thenReturn("jwtToken");
         when(refreshTokenService.generateRefreshTokenCookie("testUser")).thenReturn("refreshTokenCookie");
 
         AuthResponse response = authService.authenticateUser(loginRequest);
@@ -158,10 +166,13 @@ class AuthServiceImplTest {
     @Test
     void testUnAuthenticateUser() {
         User user = mock(User.class);
+        when(user.getUserName()).thenReturn("testUser");
         when(authUtil.loggedInUser()).thenReturn(user);
 
         authService.unAuthenticateUser();
 
         verify(refreshTokenService).invalidateRefreshToken(user);
+        verify(principalCacheService).evictPrincipal("testUser");
+        verify(tokenRevocationService).revokeTokens("testUser");
     }
 }
\ No newline at end of file
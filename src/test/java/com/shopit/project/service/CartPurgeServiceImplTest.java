@@ -0,0 +1,69 @@
+package com.shopit.project.service;
+
+import com.shopit.project.repository.CartItemRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartPurgeServiceImplTest {
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    private MeterRegistry meterRegistry;
+
+    private CartPurgeServiceImpl cartPurgeService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cartPurgeService = new CartPurgeServiceImpl(cartItemRepository, stockReservationService,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), new SyncTaskExecutor(),
+                meterRegistry, 2);
+    }
+
+    @Test
+    void testPurgeProductNow_DeletesInBatchesAndRecomputesTheirCarts() {
+        when(cartItemRepository.deleteCartItemsOfProduct(1L, 2)).thenReturn(List.of(5L, 6L), List.of(6L, 7L), List.of());
+
+        assertEquals(4, cartPurgeService.purgeProductNow(1L));
+
+        verify(cartItemRepository, times(3)).deleteCartItemsOfProduct(1L, 2);
+        verify(cartItemRepository).recomputeCartTotals(List.of(5L, 6L));
+        verify(cartItemRepository).recomputeCartTotals(List.of(6L, 7L));
+        verify(stockReservationService).release(1L, List.of(5L, 6L));
+        verify(stockReservationService).release(1L, List.of(6L, 7L));
+        verify(stockReservationService, times(2)).release(anyLong(), anyList());
+        assertEquals(4.0, meterRegistry.get("shopit.cart.purge.lines").counter().count());
+        assertEquals(1, meterRegistry.get("shopit.cart.purge").timer().count());
+    }
+
+    @Test
+    void testPurgeProduct_RunsOnTheExecutorAndSwallowsFailures() {
+        when(cartItemRepository.deleteCartItemsOfProduct(1L, 2))
+                .thenThrow(new CannotAcquireLockException("lock timeout"));
+
+        assertDoesNotThrow(() -> cartPurgeService.purgeProduct(1L));
+
+        verify(cartItemRepository).deleteCartItemsOfProduct(1L, 2);
+        verify(cartItemRepository, never()).recomputeCartTotals(anyList());
+        verifyNoInteractions(stockReservationService);
+    }
+}
@@ -0,0 +1,145 @@
+package com.shopit.project.service;
+
+import com.shopit.project.model.Cart;
+import com.shopit.project.model.CartItem;
+import com.shopit.project.model.Product;
+import com.shopit.project.repository.CartItemRepository;
+import com.shopit.project.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartRepricingServiceImplTest {
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        product = new Product();
+        product.setProductId(1L);
+        product.setProductPrice(new BigDecimal("100.00"));
+        product.setProductDiscountPercentage(10.0);
+        product.setPriceVersion(3L);
+    }
+
+    private CartRepricingServiceImpl cartRepricingService(String mode) {
+        return new CartRepricingServiceImpl(cartItemRepository, productRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), new SyncTaskExecutor(),
+                meterRegistry, mode, 2);
+    }
+
+    @Test
+    void testRepriceCarts_UpdatesAllLinesThenTheirCartsInTwoStatements() {
+        when(cartItemRepository.repriceCartItems(1L, new BigDecimal("100.00"), 10.0, 3L, Integer.MAX_VALUE))
+                .thenReturn(List.of(5L, 5L, 6L));
+
+        cartRepricingService("eager").repriceCarts(product);
+
+        verify(cartItemRepository, times(1)).recomputeCartTotals(List.of(5L, 6L));
+        verifyNoInteractions(productRepository);
+        assertEquals(3.0, meterRegistry.get("shopit.cart.reprice.lines").counter().count());
+        assertEquals(1, meterRegistry.get("shopit.cart.reprice").tag("mode", "sync").timer().count());
+    }
+
+    @Test
+    void testRepriceCarts_AsyncRepricesInBatchesWithTheCurrentPrice() {
+        Product current = new Product();
+        current.setProductId(1L);
+        current.setProductPrice(new BigDecimal("80.00"));
+        current.setProductDiscountPercentage(0.0);
+        current.setPriceVersion(4L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(current));
+        when(cartItemRepository.repriceCartItems(1L, new BigDecimal("80.00"), 0.0, 4L, 2))
+                .thenReturn(List.of(5L, 6L), List.of(7L));
+
+        cartRepricingService("async").repriceCarts(product);
+
+        verify(cartItemRepository, times(2)).repriceCartItems(1L, new BigDecimal("80.00"), 0.0, 4L, 2);
+        verify(cartItemRepository, times(1)).recomputeCartTotals(List.of(5L, 6L));
+        verify(cartItemRepository, times(1)).recomputeCartTotals(List.of(7L));
+        assertEquals(3.0, meterRegistry.get("shopit.cart.reprice.lines").counter().count());
+        assertEquals(1, meterRegistry.get("shopit.cart.reprice").tag("mode", "async").timer().count());
+    }
+
+    @Test
+    void testRepriceCarts_AsyncStopsWhenProductIsGone() {
+        when(productRepository.findById(anyLong())).thenReturn(Optional.empty());
+
+        cartRepricingService("async").repriceCarts(product);
+
+        verify(cartItemRepository, never()).repriceCartItems(anyLong(), any(), any(), anyLong(), anyInt());
+        verify(cartItemRepository, never()).recomputeCartTotals(anyList());
+    }
+
+    @Test
+    void testRepriceCarts_LazyLeavesCartsAlone() {
+        cartRepricingService("lazy").repriceCarts(product);
+
+        verifyNoInteractions(cartItemRepository, productRepository);
+    }
+
+    @Test
+    void testRepriceStaleItems_MovesTotalByLineDeltas() {
+        Product unchanged = new Product();
+        unchanged.setProductId(2L);
+        unchanged.setProductPrice(new BigDecimal("15.00"));
+        unchanged.setProductDiscountPercentage(0.0);
+
+        Cart cart = new Cart();
+        cart.setTotalPrice(new BigDecimal("130.00"));
+        cart.getCartItems().add(cartItem(cart, product, new BigDecimal("50.00"), 0.0, 1L, 2));
+        cart.getCartItems().add(cartItem(cart, unchanged, new BigDecimal("15.00"), 0.0, 0L, 2));
+
+        assertTrue(cartRepricingService("lazy").repriceStaleItems(cart));
+
+        CartItem repriced = cart.getCartItems().getFirst();
+        assertEquals(new BigDecimal("100.00"), repriced.getProductPrice());
+        assertEquals(10.0, repriced.getProductDiscountPercentage());
+        assertEquals(3L, repriced.getProductPriceVersion());
+        assertEquals(new BigDecimal("210.00"), cart.getTotalPrice());
+        assertEquals(1.0, meterRegistry.get("shopit.cart.reprice.lines").counter().count());
+
+        assertFalse(cartRepricingService("lazy").repriceStaleItems(cart));
+        assertEquals(new BigDecimal("210.00"), cart.getTotalPrice());
+    }
+
+    private static CartItem cartItem(Cart cart, Product product, BigDecimal price, Double discountPercentage,
+                                     Long priceVersion, int quantity) {
+        CartItem cartItem = new CartItem();
+        cartItem.setCart(cart);
+        cartItem.setProduct(product);
+        cartItem.setProductPrice(price);
+        cartItem.setProductDiscountPercentage(discountPercentage);
+        cartItem.setProductPriceVersion(priceVersion);
+        cartItem.setQuantity(quantity);
+        return cartItem;
+    }
+}
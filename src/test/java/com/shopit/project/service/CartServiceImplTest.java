@@ -1,30 +1,49 @@
 package com.shopit.project.service;
 
+import com.shopit.project.exceptions.APIException;
+import com.shopit.project.exceptions.ResourceNotFoundException;
+import com.shopit.project.mapper.CartMapper;
+import com.shopit.project.mapper.ProductMapper;
 import com.shopit.project.model.Cart;
 import com.shopit.project.model.CartItem;
 import com.shopit.project.model.Product;
 import com.shopit.project.model.User;
 import com.shopit.project.payload.CartDTO;
 import com.shopit.project.payload.CartItemDTO;
+import com.shopit.project.payload.CartMutationDTO;
+import com.shopit.project.payload.CartMutationDTO.CartOperation;
 import com.shopit.project.payload.ProductDTO;
 import com.shopit.project.repository.CartItemRepository;
 import com.shopit.project.repository.CartRepository;
 import com.shopit.project.repository.ProductRepository;
 import com.shopit.project.util.AuthUtil;
+import com.shopit.project.util.OptimisticLockRetry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,8 +52,8 @@ class CartServiceImplTest {
     @InjectMocks
     private CartServiceImpl cartService;
 
-    @Mock
-    private ModelMapper modelMapper;
+    @Spy
+    private CartMapper cartMapper = new CartMapper(new ProductMapper());
 
     @Mock
     private CartItemRepository cartItemRepository;
@@ -48,29 +67,51 @@ class CartServiceImplTest {
     @Mock
     private AuthUtil authUtil;
 
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private StockReservationService.Batch stockReservations;
+
+    @Mock
+    private CartRepricingService cartRepricingService;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private OptimisticLockRetry optimisticLockRetry = new OptimisticLockRetry(
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), meterRegistry, 3, 0);
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(stockReservationService.batch(any(Cart.class))).thenReturn(stockReservations);
+        lenient().when(stockReservationService.getAvailableToSell(any(), anyInt()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
     @Test
     void testAddProductToCart() {
         User user = new User();
         Cart cart = new Cart();
         cart.setCartItems(new ArrayList<>());
-        cart.setTotalPrice(0.0);
+        cart.setTotalPrice(new BigDecimal("0.00"));
         user.setCart(cart);
 
         CartItemDTO cartItemDTO = new CartItemDTO();
-        cartItemDTO.setProductPrice(100.0);
+        cartItemDTO.setProductPrice(new BigDecimal("100.00"));
         cartItemDTO.setQuantity(1);
         cartItemDTO.setProductDiscountPercentage(10.0);
-        cartItemDTO.setTotalPrice(90.0);
+        cartItemDTO.setTotalPrice(new BigDecimal("90.00"));
 
         Product product = new Product();
         product.setProductId(1L);
         product.setProductQuantity(10);
         product.setProductName("Test Product");
-        product.setProductPrice(100.0);
+        product.setProductPrice(new BigDecimal("100.00"));
         product.setProductDiscountPercentage(10.0);
 
         ProductDTO productDTO = new ProductDTO();
-        productDTO.setProductPrice(100.0);
+        productDTO.setProductPrice(new BigDecimal("100.00"));
         productDTO.setProductDiscountPercentage(10.0);
         cartItemDTO.setProduct(productDTO);
 
@@ -78,22 +119,66 @@ class CartServiceImplTest {
         when(authUtil.loggedInUser()).thenReturn(user);
         when(cartRepository.findByUser(user)).thenReturn(cart);
         when(cartItemRepository.findCartItemByProductAndCart(product, cart)).thenReturn(null);
-        when(modelMapper.map(any(Cart.class), eq(CartDTO.class))).thenReturn(new CartDTO());
-        when(modelMapper.map(any(CartItem.class), eq(CartItemDTO.class))).thenReturn(cartItemDTO);
 
         CartDTO result = cartService.addProductToCart(1L, 2);
 
         assertNotNull(result);
+        verify(stockReservationService).batch(cart);
+        verify(stockReservations, times(1)).reserve(same(product), eq(2));
+        verify(stockReservations).write();
         verify(cartItemRepository, times(1)).save(any(CartItem.class));
         verify(cartRepository, times(1)).save(cart);
     }
 
+    @Test
+    void testAddProductToCart_ReservationFails() {
+        User user = new User();
+        Cart cart = new Cart();
+        Product product = new Product();
+        product.setProductId(1L);
+        product.setProductQuantity(10);
+        product.setProductName("Test Product");
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(authUtil.loggedInUser()).thenReturn(user);
+        when(cartRepository.findByUser(user)).thenReturn(cart);
+        doThrow(new APIException("Product with the name Test Product is not available for the requested quantity 8, " +
+                "available quantity is 3"))
+                .when(stockReservations).reserve(product, 8);
+
+        APIException exception = assertThrows(APIException.class, () -> cartService.addProductToCart(1L, 8));
+
+        assertTrue(exception.getMessage().endsWith("available quantity is 3"));
+        verify(cartItemRepository, never()).save(any(CartItem.class));
+        verify(cartRepository, never()).save(any(Cart.class));
+    }
+
+    @Test
+    void testAddProductToCart_OutOfStockWhenOtherCartsHoldEverything() {
+        User user = new User();
+        Cart cart = new Cart();
+        Product product = new Product();
+        product.setProductId(1L);
+        product.setProductQuantity(10);
+        product.setProductName("Test Product");
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(authUtil.loggedInUser()).thenReturn(user);
+        when(cartRepository.findByUser(user)).thenReturn(cart);
+        when(stockReservationService.getAvailableToSell(1L, 10)).thenReturn(0);
+
+        APIException exception = assertThrows(APIException.class, () -> cartService.addProductToCart(1L, 1));
+
+        assertEquals("Product with the name Test Product is out of stock", exception.getMessage());
+        verify(stockReservations, never()).reserve(any(Product.class), anyInt());
+        verify(cartItemRepository, never()).save(any(CartItem.class));
+    }
+
     @Test
     void testGetAllCarts() {
         List<Cart> carts = new ArrayList<>();
         carts.add(new Cart());
         when(cartRepository.findAll()).thenReturn(carts);
-        when(modelMapper.map(any(Cart.class), eq(CartDTO.class))).thenReturn(new CartDTO());
 
         List<CartDTO> result = cartService.getAllCarts();
 
@@ -108,7 +193,6 @@ class CartServiceImplTest {
         user.setCart(cart);
         when(authUtil.loggedInUser()).thenReturn(user);
         when(cartRepository.findByUser(user)).thenReturn(cart);
-        when(modelMapper.map(any(Cart.class), eq(CartDTO.class))).thenReturn(new CartDTO());
 
         CartDTO result = cartService.getUserCart();
 
@@ -119,20 +203,20 @@ class CartServiceImplTest {
     void testUpdateProductQuantityInCart() {
         User user = new User();
         Cart cart = new Cart();
-        cart.setTotalPrice(200.0);
+        cart.setTotalPrice(new BigDecimal("200.00"));
         user.setCart(cart);
 
         Product product = new Product();
         product.setProductId(1L);
         product.setProductQuantity(10);
         product.setProductName("Test Product");
-        product.setProductPrice(100.0);
+        product.setProductPrice(new BigDecimal("100.00"));
         product.setProductDiscountPercentage(10.0);
 
         CartItem cartItem = new CartItem();
         cartItem.setProduct(product);
         cartItem.setQuantity(2);
-        cartItem.setProductPrice(100.0);
+        cartItem.setProductPrice(new BigDecimal("100.00"));
         cartItem.setProductDiscountPercentage(10.0);
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
@@ -140,7 +224,6 @@ class CartServiceImplTest {
         when(cartRepository.findByUser(user)).thenReturn(cart);
         when(cartRepository.save(any(Cart.class))).thenReturn(cart);
         when(cartItemRepository.findCartItemByProductAndCart(product, cart)).thenReturn(cartItem);
-        when(modelMapper.map(any(Cart.class), eq(CartDTO.class))).thenReturn(new CartDTO());
 
         CartDTO result = cartService.updateProductQuantityInCart(1L, 5);
 
@@ -149,11 +232,53 @@ class CartServiceImplTest {
         verify(cartRepository, times(1)).save(cart);
     }
 
+    @Test
+    void testUpdateProductQuantityInCart_RetriesOnConcurrentModification() {
+        User user = new User();
+        Product product = new Product();
+        product.setProductId(1L);
+        product.setProductQuantity(10);
+        product.setProductName("Test Product");
+        product.setProductPrice(new BigDecimal("100.00"));
+        product.setProductDiscountPercentage(10.0);
+
+        Cart staleCart = cartWithItem(product);
+        Cart freshCart = cartWithItem(product);
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(authUtil.loggedInUser()).thenReturn(user);
+        when(cartRepository.findByUser(user)).thenReturn(staleCart, freshCart);
+        when(cartItemRepository.findCartItemByProductAndCart(eq(product), any(Cart.class)))
+                .thenAnswer(invocation -> invocation.<Cart>getArgument(1).getCartItems().getFirst());
+        when(cartRepository.save(same(staleCart))).thenThrow(new ObjectOptimisticLockingFailureException(Cart.class, 1L));
+        when(cartRepository.save(same(freshCart))).thenReturn(freshCart);
+
+        CartDTO result = cartService.updateProductQuantityInCart(1L, 5);
+
+        assertEquals(new BigDecimal("450.00"), result.getTotalPrice());
+        verify(cartRepository, times(2)).save(any(Cart.class));
+        assertEquals(1.0, meterRegistry.get("shopit.optimistic.lock.conflicts")
+                .tag("operation", "cart.update").counter().count());
+    }
+
+    private Cart cartWithItem(Product product) {
+        Cart cart = new Cart();
+        CartItem cartItem = new CartItem();
+        cartItem.setCart(cart);
+        cartItem.setProduct(product);
+        cartItem.setQuantity(2);
+        cartItem.setProductPrice(new BigDecimal("100.00"));
+        cartItem.setProductDiscountPercentage(10.0);
+        cart.getCartItems().add(cartItem);
+        cart.setTotalPrice(new BigDecimal("180.00"));
+        return cart;
+    }
+
     @Test
     void testDeleteProductFromCart() {
         User user = new User();
         Cart cart = new Cart();
-        cart.setTotalPrice(200.0);
+        cart.setTotalPrice(new BigDecimal("200.00"));
         user.setCart(cart);
 
         Product product = new Product();
@@ -163,7 +288,7 @@ class CartServiceImplTest {
         CartItem cartItem = new CartItem();
         cartItem.setProduct(product);
         cartItem.setQuantity(2);
-        cartItem.setProductPrice(100.0);
+        cartItem.setProductPrice(new BigDecimal("100.00"));
         cartItem.setProductDiscountPercentage(10.0);
 
         List<CartItem> cartItems = new ArrayList<>(List.of(cartItem));
@@ -174,12 +299,121 @@ class CartServiceImplTest {
         when(cartRepository.save(any(Cart.class))).thenReturn(cart);
         when(cartRepository.findByUser(user)).thenReturn(cart);
         when(cartItemRepository.findCartItemByProductAndCart(product, cart)).thenReturn(cartItem);
-        when(modelMapper.map(any(Cart.class), eq(CartDTO.class))).thenReturn(new CartDTO());
 
         CartDTO result = cartService.deleteProductFromCart(1L);
 
         assertNotNull(result);
+        verify(stockReservations, times(1)).release(same(product));
+        verify(stockReservations).write();
         verify(cartRepository, times(1)).save(cart);
         assertTrue(cart.getCartItems().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testDeleteProductFromCart_DeletedProduct() {
+        User user = new User();
+        Cart cart = new Cart();
+        cart.setTotalPrice(new BigDecimal("180.00"));
+        user.setCart(cart);
+
+        Product product = new Product();
+        product.setProductId(1L);
+        product.setProductName("Test Product");
+        product.setDeleteDate(new Date());
+
+        CartItem cartItem = new CartItem();
+        cartItem.setProduct(product);
+        cartItem.setQuantity(2);
+        cartItem.setProductPrice(new BigDecimal("100.00"));
+        cartItem.setProductDiscountPercentage(10.0);
+        cart.getCartItems().add(cartItem);
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(authUtil.loggedInUser()).thenReturn(user);
+        when(cartRepository.save(any(Cart.class))).thenReturn(cart);
+        when(cartRepository.findByUser(user)).thenReturn(cart);
+        when(cartItemRepository.findCartItemByProductAndCart(product, cart)).thenReturn(cartItem);
+
+        CartDTO result = cartService.deleteProductFromCart(1L);
+
+        assertEquals(new BigDecimal("0.00"), result.getTotalPrice());
+        assertTrue(cart.getCartItems().isEmpty());
+    }
+
+    private Product product(Long productId, String price) {
+        Product product = new Product();
+        product.setProductId(productId);
+        product.setProductName("Product " + productId);
+        product.setProductQuantity(10);
+        product.setProductPrice(new BigDecimal(price));
+        product.setProductDiscountPercentage(10.0);
+        return product;
+    }
+
+    @Test
+    void testApplyCartMutations_LoadsProductsOnceAndSavesCartOnce() {
+        User user = new User();
+        Product kept = product(1L, "100.00");
+        Product removed = product(2L, "50.00");
+        Product added = product(3L, "20.00");
+
+        Cart cart = cartWithItem(kept);
+        cart.getCartItems().getFirst().setCartItemId(11L);
+        CartItem removedItem = new CartItem();
+        removedItem.setCartItemId(12L);
+        removedItem.setCart(cart);
+        removedItem.setProduct(removed);
+        removedItem.setQuantity(1);
+        removedItem.setProductPrice(new BigDecimal("50.00"));
+        removedItem.setProductDiscountPercentage(10.0);
+        cart.getCartItems().add(removedItem);
+        cart.setTotalPrice(new BigDecimal("225.00"));
+
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(kept, removed, added));
+        when(authUtil.loggedInUser()).thenReturn(user);
+        when(cartRepository.findByUser(user)).thenReturn(cart);
+        when(cartRepository.save(cart)).thenReturn(cart);
+
+        CartDTO result = cartService.applyCartMutations(List.of(
+                new CartMutationDTO(3L, 2, CartOperation.ADD),
+                new CartMutationDTO(1L, 5, CartOperation.UPDATE),
+                new CartMutationDTO(2L, null, CartOperation.DELETE)));
+
+        // 5 x 90.00 + 2 x 18.00
+        assertEquals(new BigDecimal("486.00"), result.getTotalPrice());
+        assertEquals(2, cart.getCartItems().size());
+        verify(productRepository, times(1)).findAllById(Set.of(1L, 2L, 3L));
+        verify(productRepository, never()).findById(anyLong());
+        verify(cartItemRepository, never()).findCartItemByProductAndCart(any(), any());
+        verify(stockReservationService, times(1)).batch(cart);
+        verify(stockReservations).reserve(same(added), eq(2));
+        verify(stockReservations).reserve(same(kept), eq(5));
+        verify(stockReservations).release(same(removed));
+        verify(stockReservations, times(1)).write();
+        verify(cartItemRepository).delete(removedItem);
+        verify(cartRepository, times(1)).save(cart);
+    }
+
+    @Test
+    void testApplyCartMutations_UnknownProductRejectsBatch() {
+        User user = new User();
+        Product product = product(1L, "100.00");
+        Cart cart = new Cart();
+
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
+        when(authUtil.loggedInUser()).thenReturn(user);
+        when(cartRepository.findByUser(user)).thenReturn(cart);
+
+        assertThrows(ResourceNotFoundException.class, () -> cartService.applyCartMutations(List.of(
+                new CartMutationDTO(1L, 2, CartOperation.ADD),
+                new CartMutationDTO(9L, 1, CartOperation.ADD))));
+
+        verify(cartRepository, never()).save(any(Cart.class));
+    }
+
+    @Test
+    void testApplyCartMutations_Empty() {
+        assertThrows(APIException.class, () -> cartService.applyCartMutations(List.of()));
+        verifyNoInteractions(productRepository, cartRepository);
+    }
+}
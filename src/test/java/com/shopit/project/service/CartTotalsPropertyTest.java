@@ -0,0 +1,170 @@
+package com.shopit.project.service;
+
+import com.shopit.project.exceptions.APIException;
+import com.shopit.project.mapper.CartMapper;
+import com.shopit.project.mapper.ProductMapper;
+import com.shopit.project.model.Cart;
+import com.shopit.project.model.CartItem;
+import com.shopit.project.model.Product;
+import com.shopit.project.model.User;
+import com.shopit.project.payload.CartDTO;
+import com.shopit.project.payload.CartItemDTO;
+import com.shopit.project.repository.CartItemRepository;
+import com.shopit.project.repository.CartRepository;
+import com.shopit.project.repository.ProductRepository;
+import com.shopit.project.util.AuthUtil;
+import com.shopit.project.util.MoneyUtil;
+import com.shopit.project.util.OptimisticLockRetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jqwik.api.*;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs random sequences of add, update, delete, read and reprice operations against one cart and
+ * checks that the incrementally maintained cart total always equals the sum of its line totals,
+ * exactly, and that every cart operation leaves the lines at their product's current price.
+ */
+class CartTotalsPropertyTest {
+
+    private static final int PRODUCTS = 4;
+
+    enum Action { ADD, UPDATE, DELETE, READ, REPRICE }
+
+    record Operation(Action action, int productIndex, int quantity, BigDecimal price, double discountPercentage) {
+    }
+
+    @Property(tries = 200)
+    void cartTotalEqualsSumOfLineTotals(@ForAll("products") List<Product> products,
+                                        @ForAll("operations") List<Operation> operations) {
+        Cart cart = new Cart();
+        cart.setCartId(1L);
+        CartService cartService = cartService(products, cart);
+
+        for (Operation operation : operations) {
+            Product product = products.get(operation.productIndex());
+            CartDTO cartDTO;
+            try {
+                cartDTO = switch (operation.action()) {
+                    case ADD -> cartService.addProductToCart(product.getProductId(), operation.quantity() + 1);
+                    case UPDATE -> cartService.updateProductQuantityInCart(product.getProductId(), operation.quantity());
+                    case DELETE -> cartService.deleteProductFromCart(product.getProductId());
+                    case READ -> cartService.getUserCart();
+                    case REPRICE -> {
+                        product.setProductPrice(operation.price());
+                        product.setProductDiscountPercentage(operation.discountPercentage());
+                        product.setPriceVersion(product.getPriceVersion() + 1);
+                        yield null;
+                    }
+                };
+            } catch (APIException e) {
+                cartDTO = null;
+            }
+
+            BigDecimal expected = cart.getCartItems().stream()
+                    .map(cartService::getCartItemTotalPrice)
+                    .reduce(MoneyUtil.ZERO, BigDecimal::add);
+            assertEquals(expected, cart.getTotalPrice());
+            assertTrue(cart.getCartItems().stream().allMatch(cartItem -> cartItem.getQuantity() > 0));
+
+            if (cartDTO != null) {
+                assertTrue(cart.getCartItems().stream().allMatch(cartItem ->
+                        cartItem.getProductPriceVersion().equals(cartItem.getProduct().getPriceVersion())));
+                assertEquals(expected, cartDTO.getTotalPrice());
+                assertEquals(expected, cartDTO.getCartItems().stream()
+                        .map(CartItemDTO::getTotalPrice)
+                        .reduce(MoneyUtil.ZERO, BigDecimal::add));
+            }
+        }
+    }
+
+    @Provide
+    Arbitrary<List<Product>> products() {
+        return price().list().ofSize(PRODUCTS).flatMap(prices -> discountPercentage().list().ofSize(PRODUCTS)
+                .map(discounts -> {
+                    List<Product> products = new ArrayList<>();
+                    for (int i = 0; i < PRODUCTS; i++) {
+                        Product product = new Product();
+                        product.setProductId(i + 1L);
+                        product.setProductName("Product " + (i + 1));
+                        product.setProductQuantity(1000);
+                        product.setProductPrice(prices.get(i));
+                        product.setProductDiscountPercentage(discounts.get(i));
+                        products.add(product);
+                    }
+                    return products;
+                }));
+    }
+
+    @Provide
+    Arbitrary<List<Operation>> operations() {
+        return Combinators.combine(Arbitraries.of(Action.class), Arbitraries.integers().between(0, PRODUCTS - 1),
+                        Arbitraries.integers().between(0, 20), price(), discountPercentage())
+                .as(Operation::new)
+                .list().ofMinSize(1).ofMaxSize(40);
+    }
+
+    private static Arbitrary<BigDecimal> price() {
+        return Arbitraries.bigDecimals().between(new BigDecimal("0.01"), new BigDecimal("9999.99")).ofScale(2);
+    }
+
+    private static Arbitrary<Double> discountPercentage() {
+        return Arbitraries.doubles().between(0, 90).ofScale(2);
+    }
+
+    private static CartService cartService(List<Product> products, Cart cart) {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        CartRepository cartRepository = mock(CartRepository.class);
+        CartItemRepository cartItemRepository = mock(CartItemRepository.class);
+        AuthUtil authUtil = mock(AuthUtil.class);
+        User user = new User();
+
+        when(productRepository.findById(anyLong())).thenAnswer(invocation ->
+                Optional.of(products.get(invocation.<Long>getArgument(0).intValue() - 1)));
+        when(authUtil.loggedInUser()).thenReturn(user);
+        when(cartRepository.findByUser(any())).thenReturn(cart);
+        when(cartRepository.save(any(Cart.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(cartItemRepository.findCartItemByProductAndCart(any(Product.class), any(Cart.class)))
+                .thenAnswer(invocation -> {
+                    Product product = invocation.getArgument(0);
+                    return cart.getCartItems().stream()
+                            .filter(cartItem -> cartItem.getProduct().getProductId().equals(product.getProductId()))
+                            .findFirst()
+                            .orElse(null);
+                });
+        AtomicLong cartItemIds = new AtomicLong();
+        when(cartItemRepository.save(any(CartItem.class))).thenAnswer(invocation -> {
+            CartItem cartItem = invocation.getArgument(0);
+            if (cartItem.getCartItemId() == null)
+                cartItem.setCartItemId(cartItemIds.incrementAndGet());
+            return cartItem;
+        });
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        OptimisticLockRetry optimisticLockRetry = new OptimisticLockRetry(transactionTemplate,
+                new SimpleMeterRegistry(), 3, 0);
+        CartRepricingService cartRepricingService = new CartRepricingServiceImpl(cartItemRepository,
+                productRepository, transactionTemplate, new SyncTaskExecutor(), new SimpleMeterRegistry(), "lazy", 100);
+
+        StockReservationService stockReservationService = mock(StockReservationService.class);
+        when(stockReservationService.batch(any(Cart.class))).thenReturn(mock(StockReservationService.Batch.class));
+        when(stockReservationService.getAvailableToSell(any(), anyInt()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+
+        return new CartServiceImpl(cartRepository, productRepository, cartItemRepository,
+                new CartMapper(new ProductMapper()), authUtil, optimisticLockRetry,
+                stockReservationService, cartRepricingService);
+    }
+}
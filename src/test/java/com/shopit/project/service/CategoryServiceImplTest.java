@@ -1,28 +1,34 @@
 package com.shopit.project.service;
 
 import com.shopit.project.exceptions.APIException;
+import com.shopit.project.mapper.CategoryMapper;
 import com.shopit.project.model.Category;
 import com.shopit.project.payload.CategoryDTO;
 import com.shopit.project.payload.CategoryResponse;
+import com.shopit.project.payload.CategoryScrollResponse;
 import com.shopit.project.repository.CategoryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,8 +40,11 @@ class CategoryServiceImplTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Spy
+    private CategoryMapper categoryMapper = new CategoryMapper();
+
     @Mock
-    private ModelMapper modelMapper;
+    private ProductCatalogCacheService productCatalogCacheService;
 
     private Category category;
     private CategoryDTO categoryDTO;
@@ -52,7 +61,6 @@ class CategoryServiceImplTest {
 
     @Test
     void getCategories_shouldReturnCategoryResponse() {
-        when(modelMapper.map(any(Category.class), eq(CategoryDTO.class))).thenReturn(categoryDTO);
         List<Category> categories = new ArrayList<>();
         categories.add(category);
 
@@ -68,10 +76,24 @@ class CategoryServiceImplTest {
         assertEquals(1, response.getContent().size());
     }
 
+    @Test
+    void scrollCategories_shouldReturnLastPageWithTotal() {
+        Window<Category> categoryWindow = Window.from(List.of(category),
+                index -> ScrollPosition.forward(Map.of("categoryId", 1L)), false);
+        when(categoryRepository.findByDeleteDateIsNull(any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+                .thenReturn(categoryWindow);
+        when(categoryRepository.countByDeleteDateIsNull()).thenReturn(1L);
+
+        CategoryScrollResponse response = categoryService.scrollCategories(null, 10, "categoryId", "asc", true);
+
+        assertEquals(1, response.getContent().size());
+        assertTrue(response.isLastPage());
+        assertNull(response.getNextCursor());
+        assertEquals(1L, response.getTotalElements());
+    }
+
     @Test
     void addCategory_shouldReturnSavedCategoryDTO() {
-        when(modelMapper.map(any(Category.class), eq(CategoryDTO.class))).thenReturn(categoryDTO);
-        when(modelMapper.map(any(CategoryDTO.class), eq(Category.class))).thenReturn(category);
         when(categoryRepository.findByCategoryName(anyString())).thenReturn(Optional.empty());
         when(categoryRepository.save(any(Category.class))).thenReturn(category);
 
@@ -94,20 +116,19 @@ class CategoryServiceImplTest {
 
     @Test
     void permanentDeleteCategory_shouldReturnDeletedCategoryDTO() {
-        when(modelMapper.map(any(Category.class), eq(CategoryDTO.class))).thenReturn(categoryDTO);
         when(categoryRepository.findById(anyLong())).thenReturn(Optional.of(category));
 
         CategoryDTO result = categoryService.permanentDeleteCategory(1L);
 
         verify(categoryRepository, times(1)).findById(anyLong());
         verify(categoryRepository, times(1)).delete(any(Category.class));
+        verify(productCatalogCacheService, times(1)).evictAll();
         assertNotNull(result);
         assertEquals(categoryDTO.getCategoryName(), result.getCategoryName());
     }
 
     @Test
     void deleteCategory_shouldReturnDeletedCategoryDTO() {
-        when(modelMapper.map(any(Category.class), eq(CategoryDTO.class))).thenReturn(categoryDTO);
         when(categoryRepository.findById(anyLong())).thenReturn(Optional.of(category));
         when(categoryRepository.save(any(Category.class))).thenReturn(category);
 
@@ -122,7 +143,6 @@ class CategoryServiceImplTest {
     void unDeleteCategory_shouldReturnRestoredCategoryDTO() {
         category.setDeleteDate(new Date());
 
-        when(modelMapper.map(any(Category.class), eq(CategoryDTO.class))).thenReturn(categoryDTO);
         when(categoryRepository.findById(anyLong())).thenReturn(Optional.of(category));
         when(categoryRepository.save(any(Category.class))).thenReturn(category);
 
@@ -135,7 +155,6 @@ class CategoryServiceImplTest {
 
     @Test
     void updateCategory_shouldReturnUpdatedCategoryDTO() {
-        when(modelMapper.map(any(Category.class), eq(CategoryDTO.class))).thenReturn(categoryDTO);
         when(categoryRepository.findById(anyLong())).thenReturn(Optional.of(category));
         when(categoryRepository.save(any(Category.class))).thenReturn(category);
 
@@ -0,0 +1,121 @@
+package com.shopit.project.service;
+
+import com.shopit.project.model.*;
+import com.shopit.project.payload.OrderRequestDTO;
+import com.shopit.project.repository.AddressRepository;
+import com.shopit.project.repository.CartRepository;
+import com.shopit.project.repository.ProductRepository;
+import com.shopit.project.repository.UserRepository;
+import com.shopit.project.util.AuthUtil;
+import com.shopit.project.util.StatementCounter;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+// embedded Postgres refuses to start as root
+@DisabledIfSystemProperty(named = "user.name", matches = "root")
+@SpringBootTest(properties = {
+        "spring.app.jwtExpirationMs=60000",
+        "spring.app.refreshTokenCookieName=shopit-refresh",
+        "spring.app.refreshTokenExpirationMinutes=60",
+        // only the test thread is counted, but keep the scheduled jobs from competing for connections
+        "spring.app.inventoryReconcileIntervalMs=3600000",
+        "spring.app.stockReservationSweepIntervalMs=3600000",
+        "spring.app.refreshTokenSweepIntervalMs=3600000",
+        "spring.app.idempotencyKeySweepIntervalMs=3600000"
+})
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class CheckoutStatementCountTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @MockBean
+    private AuthUtil authUtil;
+
+    // the outbox_events insert included, dispatching the event happens on the outbox executor
+    private static final int MAX_CHECKOUT_STATEMENTS = 12;
+
+    private static final StatementCounter statementCounter = new StatementCounter();
+
+    private int users;
+
+    @TestConfiguration
+    static class StatementCountingConfig {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return statementCounter.dataSourceWrapper();
+        }
+    }
+
+    private long checkoutStatements(int cartSize) {
+        users++;
+        User user = userRepository.save(new User("buyer" + users, "buyer" + users + "@shopit.com", "password"));
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cartRepository.save(cart);
+        Long userId = user.getUserId();
+        // same id-only reference the JWT path hands out
+        when(authUtil.loggedInUser()).thenAnswer(invocation -> userRepository.getReferenceById(userId));
+
+        for (int i = 0; i < cartSize; i++) {
+            Product product = new Product();
+            product.setProductName("Product " + users + "-" + i);
+            product.setProductDescription("Checkout product");
+            product.setProductQuantity(100);
+            product.setProductPrice(new BigDecimal("10.00"));
+            product.setProductDiscountPercentage(0.0);
+            cartService.addProductToCart(productRepository.save(product).getProductId(), 2);
+        }
+
+        Address address = addressRepository.save(new Address(null, "Street 1", "Block 2", "Pune", "Maharashtra",
+                "411001", "India", user));
+        OrderRequestDTO orderRequestDTO = new OrderRequestDTO(address.getAddressId(), "Card", "Stripe",
+                "txn-" + users, "Success", "Paid");
+
+        statementCounter.start();
+        orderService.placeOrder(orderRequestDTO, null);
+        return statementCounter.stop();
+    }
+
+    @Test
+    void testPlaceOrder_StatementCountDoesNotGrowWithCartSize() {
+        // the first checkouts also fetch the initial block of order_items_seq ids
+        checkoutStatements(1);
+        checkoutStatements(1);
+
+        long smallCart = checkoutStatements(2);
+        long largeCart = checkoutStatements(30);
+
+        assertEquals(smallCart, largeCart);
+        assertTrue(largeCart <= MAX_CHECKOUT_STATEMENTS,
+                "checkout sent " + largeCart + " statements, expected at most " + MAX_CHECKOUT_STATEMENTS);
+    }
+}
@@ -0,0 +1,56 @@
+package com.shopit.project.service;
+
+import com.shopit.project.mapper.ProductMapper;
+import com.shopit.project.model.Product;
+import com.shopit.project.payload.ProductResponse;
+import com.shopit.project.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DatabaseProductSearchServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Spy
+    private ProductMapper productMapper = new ProductMapper();
+
+    @InjectMocks
+    private DatabaseProductSearchService databaseProductSearchService;
+
+    @Test
+    void testSearchProducts_UsesNameLikeQuery() {
+        Product product = new Product();
+        product.setProductName("Phone");
+        product.setProductPrice(new BigDecimal("100.00"));
+        product.setProductDiscountPercentage(10.0);
+        when(productRepository.findByProductNameContainingIgnoreCaseAndDeleteDateIsNull(eq("pho"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(product), PageRequest.of(0, 10), 1));
+
+        ProductResponse productResponse =
+                databaseProductSearchService.searchProducts("pho", 0, 10, "productName", "desc");
+
+        assertEquals(1, productResponse.getContent().size());
+        assertEquals(new BigDecimal("90.00"), productResponse.getContent().getFirst().getProductSpecialPrice());
+        assertEquals(1L, productResponse.getTotalElements());
+        verify(productRepository).findByProductNameContainingIgnoreCaseAndDeleteDateIsNull("pho",
+                PageRequest.of(0, 10, Sort.by("productName").descending()));
+    }
+}
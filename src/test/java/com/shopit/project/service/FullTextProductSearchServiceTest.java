@@ -0,0 +1,94 @@
+package com.shopit.project.service;
+
+import com.shopit.project.mapper.ProductMapper;
+import com.shopit.project.model.Product;
+import com.shopit.project.payload.ProductDTO;
+import com.shopit.project.repository.ProductRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// embedded Postgres refuses to start as root
+@DisabledIfSystemProperty(named = "user.name", matches = "root")
+@DataJpaTest(properties = "spring.app.productSearchMode=fulltext")
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import({FullTextProductSearchService.class, ProductMapper.class})
+class FullTextProductSearchServiceTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private FullTextProductSearchService productSearchService;
+
+    @BeforeEach
+    void setUp() {
+        product("Phone Case", "Protective case for your phone");
+        product("Smartphone", "Android smartphone with a big screen");
+        product("Laptop", "Light laptop, pairs with any phone");
+        product("Running Shoes", "Cushioned shoes for long runs");
+        product("Discounted_Item", "Half price 100% cotton");
+        product("Old Phone", "Discontinued phone").setDeleteDate(new Date());
+        productRepository.flush();
+    }
+
+    private Product product(String name, String description) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setProductDescription(description);
+        product.setProductPrice(new BigDecimal("100.00"));
+        product.setProductDiscountPercentage(0.0);
+        return productRepository.save(product);
+    }
+
+    private List<String> search(String keyword) {
+        return productSearchService.searchProducts(keyword, 0, 10, "productId", "asc")
+                .getContent().stream()
+                .map(ProductDTO::getProductName)
+                .toList();
+    }
+
+    @Test
+    void testSearchProducts_RanksNameMatchesBeforeDescriptionMatches() {
+        assertEquals(List.of("Phone Case", "Laptop", "Smartphone"), search("phone"));
+    }
+
+    @Test
+    void testSearchProducts_MatchesStemmedWords() {
+        assertEquals(List.of("Running Shoes"), search("run"));
+        assertEquals(List.of("Phone Case"), search("protection"));
+    }
+
+    @Test
+    void testSearchProducts_FallsBackToPartialNameMatches() {
+        assertEquals(List.of("Smartphone"), search("martph"));
+        assertEquals(List.of("Laptop"), search("APTO"));
+    }
+
+    @Test
+    void testSearchProducts_EscapesLikeWildcards() {
+        assertEquals(List.of("Discounted_Item"), search("d_i"));
+        assertEquals(List.of(), search("n_"));
+        assertEquals(List.of(), search("%"));
+    }
+
+    @Test
+    void testSearchProducts_PaginatesAndSkipsDeletedProducts() {
+        var firstPage = productSearchService.searchProducts("phone", 0, 1, "productId", "asc");
+
+        assertEquals(1, firstPage.getContent().size());
+        assertEquals(3L, firstPage.getTotalElements());
+        assertEquals(3, firstPage.getTotalPages());
+        assertFalse(firstPage.isLastPage());
+    }
+}
@@ -0,0 +1,110 @@
+package com.shopit.project.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopit.project.exceptions.APIException;
+import com.shopit.project.model.IdempotencyKey;
+import com.shopit.project.payload.OrderDTO;
+import com.shopit.project.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceImplTest {
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private IdempotencyServiceImpl idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        idempotencyService = new IdempotencyServiceImpl(idempotencyKeyRepository,
+                new ObjectMapper().findAndRegisterModules(), meterRegistry, 60, 100, 2);
+    }
+
+    private double requests(String outcome) {
+        return meterRegistry.get("shopit.idempotency.requests").tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    void testSaveResponse_ReplaysFromCacheWithoutQuery() {
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setOrderId(12L);
+        orderDTO.setTotalPrice(new BigDecimal("20.50"));
+        orderDTO.setOrderDate(LocalDate.of(2024, 5, 1));
+
+        when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyKey.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        IdempotencyKey claimedKey = idempotencyService.claimKey(3L, "checkout-1");
+        assertNull(claimedKey.getResponse());
+        idempotencyService.saveResponse(claimedKey, orderDTO);
+
+        assertEquals(3L, claimedKey.getUserId());
+        assertEquals("checkout-1", claimedKey.getIdempotencyKey());
+        assertNotNull(claimedKey.getResponse());
+
+        Optional<OrderDTO> replayed = idempotencyService.findResponse(3L, "checkout-1", OrderDTO.class);
+
+        assertEquals(Optional.of(orderDTO), replayed);
+        verify(idempotencyKeyRepository, never()).findByUserIdAndIdempotencyKey(anyLong(), anyString());
+    }
+
+    @Test
+    void testFindResponse_FallsBackToTableOnce() {
+        IdempotencyKey stored = new IdempotencyKey(1L, 3L, "checkout-1", "{\"orderId\":12}", LocalDateTime.now());
+        when(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(3L, "checkout-1")).thenReturn(Optional.of(stored));
+
+        assertEquals(12L, idempotencyService.findResponse(3L, "checkout-1", OrderDTO.class).orElseThrow().getOrderId());
+        idempotencyService.findResponse(3L, "checkout-1", OrderDTO.class);
+        verify(idempotencyKeyRepository, times(1)).findByUserIdAndIdempotencyKey(3L, "checkout-1");
+
+        // keys are per user
+        assertTrue(idempotencyService.findResponse(4L, "checkout-1", OrderDTO.class).isEmpty());
+        // lookups are not requests, the caller records each request's outcome once
+        assertEquals(0, requests("replayed"));
+        assertEquals(0, requests("executed"));
+    }
+
+    @Test
+    void testRecordOutcome_CountsReplayedAndExecutedRequests() {
+        idempotencyService.recordOutcome(true);
+        idempotencyService.recordOutcome(false);
+        idempotencyService.recordOutcome(false);
+
+        assertEquals(1, requests("replayed"));
+        assertEquals(2, requests("executed"));
+    }
+
+    @Test
+    void testFindResponse_RejectsBlankOrOversizedKey() {
+        assertThrows(APIException.class, () -> idempotencyService.findResponse(3L, " ", OrderDTO.class));
+        assertThrows(APIException.class,
+                () -> idempotencyService.findResponse(3L, "k".repeat(256), OrderDTO.class));
+        verifyNoInteractions(idempotencyKeyRepository);
+    }
+
+    @Test
+    void testSweepExpiredKeys_DeletesInBatches() {
+        when(idempotencyKeyRepository.deleteExpiredBatch(any(LocalDateTime.class), eq(2))).thenReturn(2, 1);
+
+        idempotencyService.sweepExpiredKeys();
+
+        verify(idempotencyKeyRepository, times(2)).deleteExpiredBatch(any(LocalDateTime.class), eq(2));
+    }
+}
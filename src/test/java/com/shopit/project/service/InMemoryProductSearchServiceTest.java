@@ -0,0 +1,125 @@
+package com.shopit.project.service;
+
+import com.shopit.project.mapper.ProductMapper;
+import com.shopit.project.model.Product;
+import com.shopit.project.payload.ProductDTO;
+import com.shopit.project.payload.ProductResponse;
+import com.shopit.project.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryProductSearchServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private InMemoryProductSearchService productSearchService;
+
+    private final Map<Long, Product> catalog = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        product(1L, "Phone Case", "Protective case for your phone");
+        product(2L, "Smartphone", "Android smartphone with a big screen");
+        product(3L, "Laptop", "Light laptop, pairs with any phone");
+        product(4L, "Headphones", "Noise cancelling");
+
+        when(productRepository.findByDeleteDateIsNull(any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+                .thenReturn(Window.from(new ArrayList<>(catalog.values()),
+                        index -> ScrollPosition.forward(Map.of("productId", (long) index)), false));
+        lenient().when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Product> products = new ArrayList<>();
+            for (Long productId : invocation.<Iterable<Long>>getArgument(0)) {
+                if (catalog.containsKey(productId))
+                    products.add(catalog.get(productId));
+            }
+            return products;
+        });
+
+        productSearchService = new InMemoryProductSearchService(productRepository, new ProductMapper());
+        productSearchService.buildIndex();
+    }
+
+    private Product product(Long productId, String name, String description) {
+        Product product = new Product();
+        product.setProductId(productId);
+        product.setProductName(name);
+        product.setProductDescription(description);
+        product.setProductPrice(new BigDecimal("100.00"));
+        product.setProductDiscountPercentage(0.0);
+        catalog.put(productId, product);
+        return product;
+    }
+
+    private List<Long> search(String keyword, int pageNumber, int pageSize) {
+        return productSearchService.searchProducts(keyword, pageNumber, pageSize, "productId", "asc")
+                .getContent().stream()
+                .map(ProductDTO::getProductId)
+                .toList();
+    }
+
+    @Test
+    void testSearchProducts_RanksNameMatchesBeforeDescriptionMatches() {
+        assertEquals(List.of(1L, 2L, 4L, 3L), search("phone", 0, 10));
+    }
+
+    @Test
+    void testSearchProducts_MatchesSubstringsCaseInsensitively() {
+        assertEquals(List.of(2L), search("MARTPH", 0, 10));
+        assertEquals(List.of(3L), search("aptop", 0, 10));
+        assertEquals(List.of(), search("tablet", 0, 10));
+    }
+
+    @Test
+    void testSearchProducts_ShortKeywordScansIndex() {
+        assertEquals(List.of(1L, 4L), search("ca", 0, 10));
+    }
+
+    @Test
+    void testSearchProducts_Paginates() {
+        ProductResponse firstPage = productSearchService.searchProducts("phone", 0, 3, "productId", "asc");
+        ProductResponse secondPage = productSearchService.searchProducts("phone", 1, 3, "productId", "asc");
+
+        assertEquals(3, firstPage.getContent().size());
+        assertEquals(4L, firstPage.getTotalElements());
+        assertEquals(2, firstPage.getTotalPages());
+        assertFalse(firstPage.isLastPage());
+        assertEquals(List.of(3L), secondPage.getContent().stream().map(ProductDTO::getProductId).toList());
+        assertTrue(secondPage.isLastPage());
+    }
+
+    @Test
+    void testIndexProduct_UpdatesAndRemovesDocuments() {
+        Product tablet = product(5L, "Tablet", "Ten inch screen");
+        productSearchService.indexProduct(tablet);
+        assertEquals(List.of(5L), search("tablet", 0, 10));
+
+        tablet.setProductName("Drawing Pad");
+        productSearchService.indexProduct(tablet);
+        assertEquals(List.of(), search("tablet", 0, 10));
+        assertEquals(List.of(5L), search("drawing", 0, 10));
+
+        tablet.setDeleteDate(new Date());
+        productSearchService.indexProduct(tablet);
+        assertEquals(List.of(), search("drawing", 0, 10));
+
+        productSearchService.removeProduct(1L);
+        assertEquals(List.of(2L, 4L, 3L), search("phone", 0, 10));
+    }
+}
@@ -0,0 +1,135 @@
+package com.shopit.project.service;
+
+import com.shopit.project.exceptions.APIException;
+import com.shopit.project.exceptions.ResourceNotFoundException;
+import com.shopit.project.mapper.ProductMapper;
+import com.shopit.project.model.InventoryShard;
+import com.shopit.project.model.Product;
+import com.shopit.project.payload.ProductDTO;
+import com.shopit.project.repository.InventoryShardRepository;
+import com.shopit.project.repository.InventoryShardStockRepository.ShardedStock;
+import com.shopit.project.repository.ProductRepository;
+import com.shopit.project.repository.ProductStockRepository.StockDecrement;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryServiceImplTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private InventoryShardRepository inventoryShardRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private InventoryServiceImpl inventoryService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        inventoryService = new InventoryServiceImpl(productRepository, inventoryShardRepository,
+                new ProductMapper(), meterRegistry, 8);
+    }
+
+    private static List<InventoryShard> shards(Long productId, int... quantities) {
+        return java.util.stream.IntStream.range(0, quantities.length)
+                .mapToObj(i -> new InventoryShard((long) i, productId, i, quantities[i]))
+                .toList();
+    }
+
+    @Test
+    void testDecrementStock_RoutesShardedAndUnshardedLines() {
+        List<StockDecrement> decrements = List.of(
+                new StockDecrement(1L, 2), new StockDecrement(2L, 3), new StockDecrement(3L, 1));
+        when(inventoryShardRepository.findByProductIdIn(anyCollection())).thenReturn(shards(2L, 5, 5, 5, 5));
+        when(inventoryShardRepository.decrementShard(eq(2L), anyInt(), eq(3))).thenReturn(1);
+        when(productRepository.decrementStock(List.of(new StockDecrement(1L, 2), new StockDecrement(3L, 1))))
+                .thenReturn(new int[]{1, 0});
+
+        int[] updatedRows = inventoryService.decrementStock(decrements);
+
+        assertArrayEquals(new int[]{1, 1, 0}, updatedRows);
+        verify(inventoryShardRepository, times(1)).decrementShard(eq(2L), anyInt(), eq(3));
+        verify(inventoryShardRepository, never()).decrementAcrossShards(anyLong(), anyInt());
+    }
+
+    @Test
+    void testDecrementStock_SkipsShardsThatLookTooSmallAndFallsBack() {
+        when(inventoryShardRepository.findByProductIdIn(anyCollection())).thenReturn(shards(2L, 1, 4, 1));
+        when(inventoryShardRepository.decrementShard(2L, 1, 3)).thenReturn(0);
+        when(inventoryShardRepository.decrementAcrossShards(2L, 3)).thenReturn(1);
+
+        int[] updatedRows = inventoryService.decrementStock(List.of(new StockDecrement(2L, 3)));
+
+        assertArrayEquals(new int[]{1}, updatedRows);
+        verify(inventoryShardRepository, times(1)).decrementShard(anyLong(), anyInt(), anyInt());
+        verifyNoInteractions(productRepository);
+        assertEquals(1.0, meterRegistry.get("shopit.inventory.shard.fallbacks").counter().count());
+    }
+
+    @Test
+    void testDecrementStock_EmptyOrder() {
+        assertEquals(0, inventoryService.decrementStock(List.of()).length);
+        verifyNoInteractions(inventoryShardRepository, productRepository);
+    }
+
+    @Test
+    void testShardStock_MovesCurrentStockIntoShards() {
+        Product product = new Product();
+        product.setProductId(1L);
+        product.setProductQuantity(100);
+        product.setProductPrice(new BigDecimal("10.00"));
+        product.setProductDiscountPercentage(0.0);
+        when(productRepository.existsById(1L)).thenReturn(true);
+        when(inventoryShardRepository.lockStock(1L)).thenReturn(new ShardedStock(100, 0));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        ProductDTO result = inventoryService.shardStock(1L, 4);
+
+        assertEquals(100, result.getProductQuantity());
+        InOrder inOrder = inOrder(inventoryShardRepository);
+        inOrder.verify(inventoryShardRepository).lockStock(1L);
+        inOrder.verify(inventoryShardRepository).replaceShards(1L, 4, 100);
+        inOrder.verify(inventoryShardRepository).updateProductQuantity(1L, 100);
+    }
+
+    @Test
+    void testShardStock_RejectsInvalidShardCounts() {
+        assertThrows(APIException.class, () -> inventoryService.shardStock(1L, 0));
+        assertThrows(APIException.class, () -> inventoryService.shardStock(1L, 9));
+
+        when(productRepository.existsById(1L)).thenReturn(false);
+        assertThrows(ResourceNotFoundException.class, () -> inventoryService.shardStock(1L, 4));
+        verifyNoInteractions(inventoryShardRepository);
+    }
+
+    @Test
+    void testSetStock_RedistributesOnlySharded() {
+        when(inventoryShardRepository.lockStock(1L)).thenReturn(new ShardedStock(40, 4));
+        when(inventoryShardRepository.lockStock(2L)).thenReturn(new ShardedStock(40, 0));
+
+        inventoryService.setStock(1L, 70);
+        inventoryService.setStock(2L, 70);
+
+        verify(inventoryShardRepository).replaceShards(1L, 4, 70);
+        verify(inventoryShardRepository, never()).replaceShards(eq(2L), anyInt(), anyInt());
+    }
+}
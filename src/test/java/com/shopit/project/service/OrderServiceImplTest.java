@@ -1,24 +1,45 @@
 package com.shopit.project.service;
 
+import com.shopit.project.config.AppConstants;
+import com.shopit.project.event.OrderPlaced;
+import com.shopit.project.event.OrderStatusChanged;
+import com.shopit.project.exceptions.APIException;
+import com.shopit.project.mapper.AddressMapper;
+import com.shopit.project.mapper.OrderMapper;
+import com.shopit.project.mapper.PaymentMapper;
+import com.shopit.project.mapper.ProductMapper;
 import com.shopit.project.model.*;
 import com.shopit.project.payload.OrderDTO;
 import com.shopit.project.payload.OrderRequestDTO;
-import com.shopit.project.payload.PaymentDTO;
+import com.shopit.project.payload.OrderSummaryScrollResponse;
 import com.shopit.project.repository.*;
+import com.shopit.project.repository.ProductStockRepository.StockDecrement;
 import com.shopit.project.util.AuthUtil;
+import com.shopit.project.util.CursorUtil;
+import com.shopit.project.util.OptimisticLockRetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,8 +48,8 @@ class OrderServiceImplTest {
     @InjectMocks
     private OrderServiceImpl orderService;
 
-    @Mock
-    private ModelMapper modelMapper;
+    @Spy
+    private OrderMapper orderMapper = new OrderMapper(new ProductMapper(), new AddressMapper(), new PaymentMapper());
 
     @Mock
     private AddressRepository addressRepository;
@@ -37,19 +58,35 @@ class OrderServiceImplTest {
     private AuthUtil authUtil;
 
     @Mock
-    private PaymentService paymentService;
+    private OrderRepository orderRepository;
 
     @Mock
-    private PaymentRepository paymentRepository;
+    private CartRepository cartRepository;
 
     @Mock
-    private OrderRepository orderRepository;
+    private ProductRepository productRepository;
 
     @Mock
-    private CartRepository cartRepository;
+    private StockReservationService stockReservationService;
 
     @Mock
-    private ProductRepository productRepository;
+    private InventoryService inventoryService;
+
+    @Mock
+    private CartRepricingService cartRepricingService;
+
+    @Mock
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Spy
+    private OptimisticLockRetry optimisticLockRetry = new OptimisticLockRetry(
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), new SimpleMeterRegistry(), 3, 0);
 
     @Test
     void testPlaceOrder() {
@@ -58,12 +95,13 @@ class OrderServiceImplTest {
         List<CartItem> cartItems = new ArrayList<>();
         CartItem cartItem = new CartItem();
         Product product = new Product();
+        product.setProductId(1L);
         product.setProductQuantity(10);
         cartItem.setProduct(product);
         cartItem.setQuantity(2);
         cartItems.add(cartItem);
         cart.setCartItems(cartItems);
-        cart.setTotalPrice(200.0);
+        cart.setTotalPrice(new BigDecimal("200.00"));
         user.setCart(cart);
 
         OrderRequestDTO orderRequestDTO = new OrderRequestDTO();
@@ -74,24 +112,143 @@ class OrderServiceImplTest {
         orderRequestDTO.setPaymentResponseMessage("Payment Successful");
         orderRequestDTO.setAddressId(1L);
 
-        PaymentDTO paymentDTO = new PaymentDTO();
-        paymentDTO.setPaymentId(1L);
-
-        Order order = new Order();
         Address address = new Address();
 
         when(authUtil.loggedInUser()).thenReturn(user);
-        when(paymentService.savePayment(any(PaymentDTO.class))).thenReturn(paymentDTO);
-        when(paymentRepository.findById(1L)).thenReturn(Optional.of(new Payment()));
+        when(cartRepository.findCartWithItemsByUser(user)).thenReturn(cart);
+        when(inventoryService.decrementStock(List.of(new StockDecrement(1L, 2)))).thenReturn(new int[]{1});
         when(addressRepository.findById(1L)).thenReturn(Optional.of(address));
-        when(orderRepository.save(any(Order.class))).thenReturn(order);
-        when(modelMapper.map(any(Order.class), eq(OrderDTO.class))).thenReturn(new OrderDTO());
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        OrderDTO result = orderService.placeOrder(orderRequestDTO);
+        OrderDTO result = orderService.placeOrder(orderRequestDTO, null);
 
         assertNotNull(result);
+        assertEquals(1L, result.getOrderItems().getFirst().getProduct().getProductId());
+        assertNull(result.getOrderItems().getFirst().getProduct().getProductQuantity());
+        ArgumentCaptor<Order> savedOrder = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepository, times(1)).save(savedOrder.capture());
+        Order order = savedOrder.getValue();
+        assertEquals(1, order.getOrderItems().size());
+        assertSame(order, order.getOrderItems().getFirst().getOrder());
+        assertSame(order, order.getPayment().getOrder());
+        assertEquals("12345", order.getPayment().getTransactionId());
+        assertEquals(new BigDecimal("200.00"), order.getTotalPrice());
+        verify(outboxService).publish(any(OrderPlaced.class));
         verify(cartRepository, times(1)).save(cart);
-        verify(paymentRepository, times(1)).save(any(Payment.class));
+        assertTrue(cart.getCartItems().isEmpty());
+        verify(productRepository, never()).save(any(Product.class));
+        InOrder checkout = inOrder(stockReservationService, inventoryService);
+        checkout.verify(stockReservationService).confirm(cart);
+        checkout.verify(inventoryService).decrementStock(anyList());
+        checkout.verify(stockReservationService).consume(cart);
+    }
+
+    @Test
+    void testPlaceOrder_OutOfStockRejectsWholeOrder() {
+        Cart cart = new Cart();
+        cart.getCartItems().add(cartItem(cart, 2L, "Laptop", 1));
+        cart.getCartItems().add(cartItem(cart, 1L, "Phone", 3));
+        cart.getCartItems().add(cartItem(cart, 3L, "Tablet", 5));
+        User user = new User();
+        user.setCart(cart);
+
+        when(authUtil.loggedInUser()).thenReturn(user);
+        when(cartRepository.findCartWithItemsByUser(user)).thenReturn(cart);
+        when(inventoryService.decrementStock(List.of(
+                new StockDecrement(1L, 3), new StockDecrement(2L, 1), new StockDecrement(3L, 5))))
+                .thenReturn(new int[]{0, 1, 0});
+
+        APIException exception = assertThrows(APIException.class,
+                () -> orderService.placeOrder(new OrderRequestDTO(), null));
+
+        assertEquals("Stock Not Available for the Product Phone for the quantity 3, Tablet for the quantity 5",
+                exception.getMessage());
+        verifyNoInteractions(orderRepository, addressRepository, outboxService);
+        verify(cartRepository, never()).save(any(Cart.class));
+        verify(stockReservationService, never()).consume(any(Cart.class));
+    }
+
+    @Test
+    void testPlaceOrder_RetryWithSameKeyReplaysStoredOrder() {
+        User user = new User();
+        user.setUserId(3L);
+        OrderDTO storedOrder = new OrderDTO();
+        storedOrder.setOrderId(12L);
+
+        when(authUtil.loggedInUser()).thenReturn(user);
+        when(idempotencyService.findResponse(3L, "checkout-1", OrderDTO.class)).thenReturn(Optional.of(storedOrder));
+
+        OrderDTO result = orderService.placeOrder(new OrderRequestDTO(), "checkout-1");
+
+        assertSame(storedOrder, result);
+        verifyNoInteractions(cartRepository, inventoryService, orderRepository);
+        verify(idempotencyService, never()).claimKey(anyLong(), anyString());
+        verify(idempotencyService).recordOutcome(true);
+    }
+
+    @Test
+    void testPlaceOrder_ConcurrentRequestWithSameKeyReplaysWinner() {
+        Cart cart = new Cart();
+        cart.getCartItems().add(cartItem(cart, 1L, "Phone", 1));
+        User user = new User();
+        user.setUserId(3L);
+        OrderRequestDTO orderRequestDTO = new OrderRequestDTO();
+        orderRequestDTO.setAddressId(1L);
+        OrderDTO winnerOrder = new OrderDTO();
+        winnerOrder.setOrderId(12L);
+
+        when(authUtil.loggedInUser()).thenReturn(user);
+        when(idempotencyService.findResponse(3L, "checkout-1", OrderDTO.class))
+                .thenReturn(Optional.empty(), Optional.of(winnerOrder));
+        when(idempotencyService.claimKey(3L, "checkout-1"))
+                .thenThrow(new DataIntegrityViolationException("ux_idempotency_keys_user_key"));
+
+        OrderDTO result = orderService.placeOrder(orderRequestDTO, "checkout-1");
+
+        assertSame(winnerOrder, result);
+        verifyNoInteractions(cartRepository, inventoryService, orderRepository);
+        // looked up twice, counted once
+        verify(idempotencyService).recordOutcome(true);
+        verify(idempotencyService, never()).recordOutcome(false);
+    }
+
+    @Test
+    void testPlaceOrder_FirstRequestWithKeyStoresOrder() {
+        Cart cart = new Cart();
+        cart.getCartItems().add(cartItem(cart, 1L, "Phone", 1));
+        User user = new User();
+        user.setUserId(3L);
+        OrderRequestDTO orderRequestDTO = new OrderRequestDTO();
+        orderRequestDTO.setAddressId(1L);
+        IdempotencyKey claimedKey = new IdempotencyKey();
+
+        when(authUtil.loggedInUser()).thenReturn(user);
+        when(idempotencyService.findResponse(3L, "checkout-1", OrderDTO.class)).thenReturn(Optional.empty());
+        when(idempotencyService.claimKey(3L, "checkout-1")).thenReturn(claimedKey);
+        when(cartRepository.findCartWithItemsByUser(user)).thenReturn(cart);
+        when(inventoryService.decrementStock(anyList())).thenReturn(new int[]{1});
+        when(addressRepository.findById(1L)).thenReturn(Optional.of(new Address()));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OrderDTO result = orderService.placeOrder(orderRequestDTO, "checkout-1");
+
+        InOrder checkout = inOrder(idempotencyService, inventoryService);
+        checkout.verify(idempotencyService).claimKey(3L, "checkout-1");
+        checkout.verify(inventoryService).decrementStock(anyList());
+        checkout.verify(idempotencyService).saveResponse(claimedKey, result);
+        checkout.verify(idempotencyService).recordOutcome(false);
+    }
+
+    private CartItem cartItem(Cart cart, Long productId, String productName, int quantity) {
+        Product product = new Product();
+        product.setProductId(productId);
+        product.setProductName(productName);
+
+        CartItem cartItem = new CartItem();
+        cartItem.setCart(cart);
+        cartItem.setProduct(product);
+        cartItem.setQuantity(quantity);
+        return cartItem;
     }
 
     @Test
@@ -104,12 +261,63 @@ class OrderServiceImplTest {
 
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
         when(orderRepository.save(order)).thenReturn(order);
-        when(modelMapper.map(order, OrderDTO.class)).thenReturn(orderDTO);
 
         OrderDTO result = orderService.updateOrder(orderDTO, 1L);
 
         assertNotNull(result);
         assertEquals("Shipped", result.getOrderStatus());
         verify(orderRepository, times(1)).save(order);
+        verify(outboxService).publish(new OrderStatusChanged(1L, "Shipped"));
+    }
+
+    @Test
+    void testGetUserOrders_ContinuesAfterLastRowOfPreviousPage() {
+        User user = new User();
+        user.setUserId(3L);
+        OrderSummary newest = orderSummary(9L, LocalDate.of(2024, 5, 2));
+        OrderSummary older = orderSummary(4L, LocalDate.of(2024, 5, 1));
+
+        when(authUtil.loggedInUser()).thenReturn(user);
+        when(orderSummaryRepository.findUserHistory(3L, Limit.of(2))).thenReturn(List.of(newest, older));
+
+        OrderSummaryScrollResponse firstPage = orderService.getUserOrders(null, 1);
+
+        assertEquals(1, firstPage.getContent().size());
+        assertEquals(9L, firstPage.getContent().getFirst().getOrderId());
+        assertFalse(firstPage.isLastPage());
+
+        when(orderSummaryRepository.findUserHistoryAfter(3L, LocalDate.of(2024, 5, 2), 9L, Limit.of(2)))
+                .thenReturn(List.of(older));
+
+        OrderSummaryScrollResponse secondPage = orderService.getUserOrders(firstPage.getNextCursor(), 1);
+
+        assertEquals(4L, secondPage.getContent().getFirst().getOrderId());
+        assertTrue(secondPage.isLastPage());
+        assertNull(secondPage.getNextCursor());
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void testGetAllOrders_RejectsCursorWithWrongKeyTypes() {
+        String cursor = CursorUtil.encode(ScrollPosition.forward(Map.of("orderDate", "yesterday", "orderId", 1L)));
+
+        assertThrows(APIException.class, () -> orderService.getAllOrders(cursor, 10));
+        verifyNoInteractions(orderSummaryRepository);
+    }
+
+    @Test
+    void testGetOrders_RejectsPageSizeOutsideBounds() {
+        for (Integer pageSize : new Integer[]{0, -1, AppConstants.MAX_PAGE_SIZE + 1}) {
+            assertThrows(APIException.class, () -> orderService.getUserOrders(null, pageSize));
+            assertThrows(APIException.class, () -> orderService.getAllOrders(null, pageSize));
+        }
+        verifyNoInteractions(authUtil, orderSummaryRepository);
+    }
+
+    private OrderSummary orderSummary(Long orderId, LocalDate orderDate) {
+        OrderSummary orderSummary = new OrderSummary();
+        orderSummary.setOrderId(orderId);
+        orderSummary.setOrderDate(orderDate);
+        return orderSummary;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,111 @@
+package com.shopit.project.service;
+
+import com.shopit.project.event.OrderPlaced;
+import com.shopit.project.event.OrderStatusChanged;
+import com.shopit.project.model.*;
+import com.shopit.project.repository.OrderRepository;
+import com.shopit.project.repository.OrderSummaryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderSummaryServiceImplTest {
+
+    @Mock
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @InjectMocks
+    private OrderSummaryServiceImpl orderSummaryService;
+
+    private Order order() {
+        User user = new User();
+        user.setUserId(3L);
+        user.setUserEmail("user@example.com");
+
+        Payment payment = new Payment();
+        payment.setPaymentMethod("Card");
+        payment.setStatus("Success");
+
+        Address address = new Address();
+        address.setCity("Pune");
+
+        Order order = new Order();
+        order.setOrderId(11L);
+        order.setUser(user);
+        order.setPayment(payment);
+        order.setAddress(address);
+        order.setOrderDate(LocalDate.of(2024, 5, 1));
+        order.setOrderStatus("Processing");
+        order.setTotalPrice(new BigDecimal("250.00"));
+        for (int quantity : new int[]{2, 3}) {
+            OrderItem orderItem = new OrderItem();
+            orderItem.setQuantity(quantity);
+            order.getOrderItems().add(orderItem);
+        }
+        return order;
+    }
+
+    @Test
+    void testHandle_CreatesSummaryOfPlacedOrder() {
+        when(orderRepository.findById(11L)).thenReturn(Optional.of(order()));
+        when(orderSummaryRepository.findById(11L)).thenReturn(Optional.empty());
+
+        orderSummaryService.handle(new OrderPlaced(11L, 3L, new BigDecimal("250.00")));
+
+        ArgumentCaptor<OrderSummary> saved = ArgumentCaptor.forClass(OrderSummary.class);
+        verify(orderSummaryRepository).save(saved.capture());
+        OrderSummary orderSummary = saved.getValue();
+        assertEquals(11L, orderSummary.getOrderId());
+        assertEquals(3L, orderSummary.getUserId());
+        assertEquals("user@example.com", orderSummary.getUserEmail());
+        assertEquals(LocalDate.of(2024, 5, 1), orderSummary.getOrderDate());
+        assertEquals(new BigDecimal("250.00"), orderSummary.getTotalPrice());
+        assertEquals(5, orderSummary.getItemCount());
+        assertEquals("Card", orderSummary.getPaymentMethod());
+        assertEquals("Success", orderSummary.getPaymentStatus());
+        assertEquals("Pune", orderSummary.getShippingCity());
+        assertNull(orderSummary.getVersion());
+    }
+
+    @Test
+    void testHandle_SkipsOrderThatNoLongerExists() {
+        when(orderRepository.findById(11L)).thenReturn(Optional.empty());
+
+        orderSummaryService.handle(new OrderStatusChanged(11L, "Shipped"));
+
+        verifyNoInteractions(orderSummaryRepository);
+    }
+
+    @Test
+    void testRefreshSummary_UpdatesExistingRow() {
+        OrderSummary existing = new OrderSummary();
+        existing.setOrderId(11L);
+        existing.setOrderStatus("Processing");
+        existing.setVersion(2L);
+        when(orderSummaryRepository.findById(11L)).thenReturn(Optional.of(existing));
+
+        Order order = order();
+        order.setOrderStatus("Shipped");
+        order.getPayment().setStatus("Completed");
+        orderSummaryService.refreshSummary(order);
+
+        verify(orderSummaryRepository).save(existing);
+        assertEquals("Shipped", existing.getOrderStatus());
+        assertEquals("Completed", existing.getPaymentStatus());
+        assertEquals(2L, existing.getVersion());
+    }
+}
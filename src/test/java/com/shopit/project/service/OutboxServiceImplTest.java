@@ -0,0 +1,121 @@
+package com.shopit.project.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopit.project.event.OrderEvent;
+import com.shopit.project.event.OrderEventHandler;
+import com.shopit.project.event.OrderPlaced;
+import com.shopit.project.event.PaymentUpdated;
+import com.shopit.project.model.OutboxEvent;
+import com.shopit.project.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceImplTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OrderEventHandler summaryHandler;
+
+    @Mock
+    private OrderEventHandler notificationHandler;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private OutboxServiceImpl outboxService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxService = new OutboxServiceImpl(outboxEventRepository, List.of(summaryHandler, notificationHandler),
+                objectMapper, new TransactionTemplate(mock(PlatformTransactionManager.class)), meterRegistry,
+                1, 10, 5, 1000, 60, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxService.shutdown();
+    }
+
+    private OutboxEvent pending(Long eventId, Object event) throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        return new OutboxEvent(eventId, event.getClass().getSimpleName(), 12L,
+                objectMapper.writeValueAsString(event), now, now, null, 0, null);
+    }
+
+    private double events(String outcome) {
+        return meterRegistry.get("shopit.outbox.events").tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    void testPublish_WritesEventToOutbox() throws Exception {
+        OrderPlaced event = new OrderPlaced(12L, 3L, new BigDecimal("20.50"));
+
+        outboxService.publish(event);
+
+        ArgumentCaptor<OutboxEvent> saved = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(saved.capture());
+        assertEquals("OrderPlaced", saved.getValue().getEventType());
+        assertEquals(12L, saved.getValue().getOrderId());
+        assertNull(saved.getValue().getPublishedAt());
+        assertEquals(event, objectMapper.readValue(saved.getValue().getPayload(), OrderEvent.class));
+    }
+
+    @Test
+    void testDispatchPending_HandsEventToEveryHandlerAndMarksItPublished() throws Exception {
+        OrderPlaced event = new OrderPlaced(12L, 3L, new BigDecimal("20.50"));
+        OutboxEvent outboxEvent = pending(1L, event);
+        when(outboxEventRepository.lockNextPending(any(LocalDateTime.class), eq(5)))
+                .thenReturn(Optional.of(outboxEvent), Optional.empty());
+
+        assertEquals(1, outboxService.dispatchPending());
+
+        verify(summaryHandler).handle(event);
+        verify(notificationHandler).handle(event);
+        assertNotNull(outboxEvent.getPublishedAt());
+        assertEquals(1, events("published"));
+    }
+
+    @Test
+    void testDispatchPending_FailedEventIsPushedBackAndOthersContinue() throws Exception {
+        PaymentUpdated failing = new PaymentUpdated(12L, 4L, "Failed");
+        OrderPlaced next = new OrderPlaced(13L, 3L, BigDecimal.TEN);
+        OutboxEvent failingEvent = pending(1L, failing);
+        failingEvent.setAttempts(2);
+        OutboxEvent nextEvent = pending(2L, next);
+        when(outboxEventRepository.lockNextPending(any(LocalDateTime.class), eq(5)))
+                .thenReturn(Optional.of(failingEvent), Optional.of(nextEvent), Optional.empty());
+        doThrow(new IllegalStateException("mail server down")).when(notificationHandler).handle(failing);
+
+        assertEquals(2, outboxService.dispatchPending());
+
+        ArgumentCaptor<LocalDateTime> retryAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxEventRepository).recordFailure(eq(1L), retryAt.capture(), contains("mail server down"));
+        // third attempt, so retried after 3 x 1000 ms
+        assertTrue(retryAt.getValue().isAfter(LocalDateTime.now().plusSeconds(2)));
+        assertNull(failingEvent.getPublishedAt());
+        verify(summaryHandler).handle(next);
+        assertNotNull(nextEvent.getPublishedAt());
+        assertEquals(1, events("failed"));
+    }
+}
@@ -1,5 +1,7 @@
 package com.shopit.project.service;
 
+import com.shopit.project.event.PaymentUpdated;
+import com.shopit.project.mapper.PaymentMapper;
 import com.shopit.project.model.Order;
 import com.shopit.project.model.Payment;
 import com.shopit.project.payload.PaymentDTO;
@@ -9,8 +11,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 
 import java.util.Optional;
 
@@ -23,8 +25,8 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class PaymentServiceImplTest {
 
-    @Mock
-    private ModelMapper modelMapper;
+    @Spy
+    private PaymentMapper paymentMapper = new PaymentMapper();
 
     @Mock
     private PaymentRepository paymentRepository;
@@ -32,6 +34,9 @@ class PaymentServiceImplTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private OutboxService outboxService;
+
     @InjectMocks
     private PaymentServiceImpl paymentService;
 
@@ -40,9 +45,7 @@ class PaymentServiceImplTest {
         PaymentDTO paymentDTO = new PaymentDTO();
         Payment payment = new Payment();
 
-        when(modelMapper.map(any(PaymentDTO.class), eq(Payment.class))).thenReturn(payment);
         when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
-        when(modelMapper.map(any(Payment.class), eq(PaymentDTO.class))).thenReturn(paymentDTO);
 
         PaymentDTO savedPaymentDTO = paymentService.savePayment(paymentDTO);
 
@@ -57,11 +60,11 @@ class PaymentServiceImplTest {
 
         Payment payment = new Payment();
         Order order = new Order();
+        order.setOrderId(7L);
         payment.setOrder(order);
 
         when(paymentRepository.findById(anyLong())).thenReturn(Optional.of(payment));
         when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
-        when(modelMapper.map(any(Payment.class), eq(PaymentDTO.class))).thenReturn(paymentDTO);
 
         PaymentDTO updatedPaymentDTO = paymentService.updatePaymentStatus(paymentDTO, 1L);
 
@@ -71,5 +74,6 @@ class PaymentServiceImplTest {
         verify(paymentRepository).findById(anyLong());
         verify(paymentRepository).save(any(Payment.class));
         verify(orderRepository).save(any(Order.class));
+        verify(outboxService).publish(new PaymentUpdated(7L, 1L, "Completed"));
     }
 }
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.shopit.project.service;
+
+import com.shopit.project.payload.ProductResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCatalogCacheServiceImplTest {
+
+    private ProductCatalogCacheServiceImpl productCatalogCacheService;
+
+    private MeterRegistry meterRegistry;
+
+    private AtomicInteger loads;
+
+    private Supplier<ProductResponse> loader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productCatalogCacheService = new ProductCatalogCacheServiceImpl(meterRegistry, 100, 60, "memory");
+        loads = new AtomicInteger();
+        loader = () -> {
+            loads.incrementAndGet();
+            return new ProductResponse();
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void testGetProducts_LoadsOncePerKey() {
+        ProductResponse first = productCatalogCacheService.getProducts(0, 10, "productName", "asc", loader);
+        ProductResponse second = productCatalogCacheService.getProducts(0, 10, "productName", "ASC", loader);
+        productCatalogCacheService.getProducts(1, 10, "productName", "asc", loader);
+
+        assertSame(first, second);
+        assertEquals(2, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "productCatalog")
+                .tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void testEvictProduct_OnlyEvictsPagesTheProductCanAppearOn() {
+        productCatalogCacheService.getProducts(0, 10, "productName", "asc", loader);
+        productCatalogCacheService.getProductsByCategory(1L, 0, 10, "productName", "asc", loader);
+        productCatalogCacheService.getProductsByCategory(2L, 0, 10, "productName", "asc", loader);
+        productCatalogCacheService.getProductsByKeyword("Phone", 0, 10, "productName", "asc", loader);
+        productCatalogCacheService.getProductsByKeyword("laptop", 0, 10, "productName", "asc", loader);
+        assertEquals(5, loads.get());
+
+        productCatalogCacheService.evictProduct(1L, "Smart Phone");
+
+        productCatalogCacheService.getProducts(0, 10, "productName", "asc", loader);
+        productCatalogCacheService.getProductsByCategory(1L, 0, 10, "productName", "asc", loader);
+        productCatalogCacheService.getProductsByKeyword("phone", 0, 10, "productName", "asc", loader);
+        assertEquals(8, loads.get());
+
+        productCatalogCacheService.getProductsByCategory(2L, 0, 10, "productName", "asc", loader);
+        productCatalogCacheService.getProductsByKeyword("laptop", 0, 10, "productName", "asc", loader);
+        assertEquals(8, loads.get());
+    }
+
+    @Test
+    void testEvictProduct_FullTextModeEvictsEveryKeywordPage() {
+        productCatalogCacheService = new ProductCatalogCacheServiceImpl(meterRegistry, 100, 60, "fulltext");
+        productCatalogCacheService.getProductsByCategory(2L, 0, 10, "productName", "asc", loader);
+        // matches "Running Shoe" only through stemming
+        productCatalogCacheService.getProductsByKeyword("shoes", 0, 10, "productName", "asc", loader);
+        assertEquals(2, loads.get());
+
+        productCatalogCacheService.evictProduct(1L, "Running Shoe");
+
+        productCatalogCacheService.getProductsByCategory(2L, 0, 10, "productName", "asc", loader);
+        productCatalogCacheService.getProductsByKeyword("shoes", 0, 10, "productName", "asc", loader);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void testEvictProduct_WaitsForCommit() {
+        productCatalogCacheService.getProducts(0, 10, "productName", "asc", loader);
+
+        TransactionSynchronizationManager.initSynchronization();
+        productCatalogCacheService.evictProduct(1L, "Smart Phone");
+
+        productCatalogCacheService.getProducts(0, 10, "productName", "asc", loader);
+        assertEquals(1, loads.get());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        productCatalogCacheService.getProducts(0, 10, "productName", "asc", loader);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testEvictAll() {
+        productCatalogCacheService.getProductsByKeyword("phone", 0, 10, "productName", "asc", loader);
+
+        productCatalogCacheService.evictAll();
+
+        productCatalogCacheService.getProductsByKeyword("phone", 0, 10, "productName", "asc", loader);
+        assertEquals(2, loads.get());
+    }
+}
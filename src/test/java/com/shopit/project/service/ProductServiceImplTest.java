@@ -1,31 +1,35 @@
 package com.shopit.project.service;
 
+import com.shopit.project.exceptions.APIException;
+import com.shopit.project.mapper.ProductMapper;
 import com.shopit.project.model.CartItem;
 import com.shopit.project.model.Category;
 import com.shopit.project.model.Product;
 import com.shopit.project.payload.ProductDTO;
 import com.shopit.project.payload.ProductResponse;
+import com.shopit.project.payload.ProductScrollResponse;
 import com.shopit.project.repository.CartItemRepository;
 import com.shopit.project.repository.CategoryRepository;
 import com.shopit.project.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -38,8 +42,8 @@ class ProductServiceImplTest {
     @Mock
     private CategoryRepository categoryRepository;
 
-    @Mock
-    private ModelMapper modelMapper;
+    @Spy
+    private ProductMapper productMapper = new ProductMapper();
 
     @Mock
     private FileService fileService;
@@ -47,26 +51,126 @@ class ProductServiceImplTest {
     @Mock
     private CartItemRepository cartItemRepository;
 
+    @Spy
+    private ProductCatalogCacheService productCatalogCacheService =
+            new ProductCatalogCacheServiceImpl(new SimpleMeterRegistry(), 100, 60, "memory");
+
+    @Mock
+    private ProductSearchService productSearchService;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private CartRepricingService cartRepricingService;
+
+    @Mock
+    private CartPurgeService cartPurgeService;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
+    private Product pricedProduct() {
+        Product product = new Product();
+        product.setProductPrice(new BigDecimal("100.00"));
+        product.setProductDiscountPercentage(10.0);
+        return product;
+    }
+
     @Test
     void testGetProducts() {
-        List<Product> products = List.of(new Product(), new Product());
+        List<Product> products = List.of(pricedProduct(), pricedProduct());
         Page<Product> productPage = new PageImpl<>(products);
         when(productRepository.findByDeleteDateIsNull(any(Pageable.class))).thenReturn(productPage);
 
-        ProductDTO productDTO = new ProductDTO();
-        productDTO.setProductPrice(100.0);
-        productDTO.setProductDiscountPercentage(10.0);
-        when(modelMapper.map(any(Product.class), eq(ProductDTO.class))).thenReturn(productDTO);
-
         ProductResponse productResponse = productService.getProducts(0, 10, "productName", "asc");
 
         assertEquals(2, productResponse.getContent().size());
         verify(productRepository).findByDeleteDateIsNull(any(Pageable.class));
 
-        assertEquals(90.0, productResponse.getContent().getFirst().getProductSpecialPrice());
+        assertEquals(new BigDecimal("90.00"), productResponse.getContent().getFirst().getProductSpecialPrice());
+    }
+
+    @Test
+    void testGetProducts_ServedFromCacheUntilProductChanges() {
+        Page<Product> productPage = new PageImpl<>(List.of(pricedProduct()));
+        when(productRepository.findByDeleteDateIsNull(any(Pageable.class))).thenReturn(productPage);
+
+        productService.getProducts(0, 10, "productName", "asc");
+        productService.getProducts(0, 10, "productName", "asc");
+        verify(productRepository, times(1)).findByDeleteDateIsNull(any(Pageable.class));
+
+        Product product = pricedProduct();
+        when(productRepository.findById(anyLong())).thenReturn(Optional.of(product));
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+        productService.deleteProduct(1L);
+
+        productService.getProducts(0, 10, "productName", "asc");
+        verify(productRepository, times(2)).findByDeleteDateIsNull(any(Pageable.class));
+    }
+
+    @Test
+    void testGetProducts_CachedPageShowsCurrentAvailableToSell() {
+        Product product = pricedProduct();
+        product.setProductId(1L);
+        product.setProductQuantity(10);
+        when(productRepository.findByDeleteDateIsNull(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(product)));
+        when(stockReservationService.getAvailableToSell(1L, 10)).thenReturn(7, 4);
+
+        ProductResponse first = productService.getProducts(0, 10, "productName", "asc");
+        ProductResponse second = productService.getProducts(0, 10, "productName", "asc");
+
+        verify(productRepository, times(1)).findByDeleteDateIsNull(any(Pageable.class));
+        assertEquals(7, first.getContent().getFirst().getProductAvailableToSell());
+        assertEquals(4, second.getContent().getFirst().getProductAvailableToSell());
+        assertEquals(10, second.getContent().getFirst().getProductQuantity());
+    }
+
+    @Test
+    void testScrollProducts_ReturnsNextCursorWithoutCount() {
+        Product product = pricedProduct();
+        product.setProductId(5L);
+        Window<Product> productWindow = Window.from(List.of(product),
+                index -> ScrollPosition.forward(Map.of("productId", 5L)), true);
+        when(productRepository.findByDeleteDateIsNull(any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+                .thenReturn(productWindow);
+
+        ProductScrollResponse firstPage = productService.scrollProducts(null, 1, "productId", "asc", false);
+
+        assertEquals(1, firstPage.getContent().size());
+        assertFalse(firstPage.isLastPage());
+        assertNotNull(firstPage.getNextCursor());
+        assertNull(firstPage.getTotalElements());
+        verify(productRepository, never()).countByDeleteDateIsNull();
+
+        when(productRepository.countByDeleteDateIsNull()).thenReturn(2L);
+        productService.scrollProducts(firstPage.getNextCursor(), 1, "productId", "asc", true);
+
+        verify(productRepository).findByDeleteDateIsNull(
+                eq(ScrollPosition.forward(Map.of("productId", 5L))), any(Sort.class), eq(Limit.of(1)));
+        verify(productRepository).countByDeleteDateIsNull();
+    }
+
+    @Test
+    void testScrollProducts_RejectsCursorOfAnotherSortOrder() {
+        Product product = pricedProduct();
+        product.setProductId(5L);
+        Window<Product> productWindow = Window.from(List.of(product),
+                index -> ScrollPosition.forward(Map.of("productPrice", 10.0, "productId", 5L)), true);
+        when(productRepository.findByDeleteDateIsNull(any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+                .thenReturn(productWindow);
+
+        String nextCursor = productService.scrollProducts(null, 1, "productPrice", "asc", false).getNextCursor();
+
+        assertThrows(APIException.class,
+                () -> productService.scrollProducts(nextCursor, 1, "productPrice", "desc", false));
+        assertThrows(APIException.class,
+                () -> productService.scrollProducts(nextCursor, 1, "productId", "asc", false));
+        verify(productRepository, times(1))
+                .findByDeleteDateIsNull(any(ScrollPosition.class), any(Sort.class), any(Limit.class));
     }
 
     @Test
@@ -74,43 +178,42 @@ class ProductServiceImplTest {
         Category category = new Category();
         when(categoryRepository.findById(anyLong())).thenReturn(Optional.of(category));
 
-        List<Product> products = List.of(new Product(), new Product());
+        List<Product> products = List.of(pricedProduct(), pricedProduct());
         Page<Product> productPage = new PageImpl<>(products);
         when(productRepository.findByCategoryAndDeleteDateIsNull(any(Category.class), any(Pageable.class)))
                 .thenReturn(productPage);
 
-        ProductDTO productDTO = new ProductDTO();
-        productDTO.setProductPrice(100.0);
-        productDTO.setProductDiscountPercentage(10.0);
-        when(modelMapper.map(any(Product.class), eq(ProductDTO.class))).thenReturn(productDTO);
-
         ProductResponse productResponse = productService.getProductsByCategory(1L, 0, 10, "productName", "asc");
 
         assertEquals(2, productResponse.getContent().size());
         verify(categoryRepository).findById(anyLong());
         verify(productRepository).findByCategoryAndDeleteDateIsNull(any(Category.class), any(Pageable.class));
 
-        assertEquals(90.0, productResponse.getContent().getFirst().getProductSpecialPrice());
+        assertEquals(new BigDecimal("90.00"), productResponse.getContent().getFirst().getProductSpecialPrice());
     }
 
     @Test
     void testGetProductsByKeyword() {
-        List<Product> products = List.of(new Product(), new Product());
-        Page<Product> productPage = new PageImpl<>(products);
-        when(productRepository.findByProductNameContainingIgnoreCaseAndDeleteDateIsNull(anyString(), any(Pageable.class)))
-                .thenReturn(productPage);
-
-        ProductDTO productDTO = new ProductDTO();
-        productDTO.setProductPrice(100.0);
-        productDTO.setProductDiscountPercentage(10.0);
-        when(modelMapper.map(any(Product.class), eq(ProductDTO.class))).thenReturn(productDTO);
+        ProductResponse searchResponse = new ProductResponse();
+        searchResponse.setContent(List.of(new ProductDTO(), new ProductDTO()));
+        when(productSearchService.searchProducts("keyword", 0, 10, "productName", "asc"))
+                .thenReturn(searchResponse);
 
         ProductResponse productResponse = productService.getProductsByKeyword("keyword", 0, 10, "productName", "asc");
 
         assertEquals(2, productResponse.getContent().size());
-        verify(productRepository).findByProductNameContainingIgnoreCaseAndDeleteDateIsNull(anyString(), any(Pageable.class));
+        verify(productSearchService).searchProducts("keyword", 0, 10, "productName", "asc");
+    }
 
-        assertEquals(90.0, productResponse.getContent().getFirst().getProductSpecialPrice());
+    @Test
+    void testGetProductsByKeyword_NoMatches() {
+        ProductResponse searchResponse = new ProductResponse();
+        searchResponse.setContent(List.of());
+        when(productSearchService.searchProducts("keyword", 0, 10, "productName", "asc"))
+                .thenReturn(searchResponse);
+
+        assertThrows(APIException.class,
+                () -> productService.getProductsByKeyword("keyword", 0, 10, "productName", "asc"));
     }
 
     @Test
@@ -119,13 +222,11 @@ class ProductServiceImplTest {
         when(categoryRepository.findById(anyLong())).thenReturn(Optional.of(category));
 
         Product product = new Product();
-        product.setProductPrice(100.0);
+        product.setProductPrice(new BigDecimal("100.00"));
         product.setProductDiscountPercentage(10.0);
-        when(modelMapper.map(any(ProductDTO.class), eq(Product.class))).thenReturn(product);
         when(productRepository.save(any(Product.class))).thenReturn(product);
 
         ProductDTO productDTO = new ProductDTO();
-        when(modelMapper.map(any(Product.class), eq(ProductDTO.class))).thenReturn(productDTO);
 
         ProductDTO result = productService.addProduct(productDTO, 1L);
 
@@ -139,14 +240,16 @@ class ProductServiceImplTest {
         Product product = new Product();
         when(productRepository.findById(anyLong())).thenReturn(Optional.of(product));
 
-        ProductDTO productDTO = new ProductDTO();
-        when(modelMapper.map(any(Product.class), eq(ProductDTO.class))).thenReturn(productDTO);
-
         ProductDTO result = productService.permanentDeleteProduct(1L);
 
         assertNotNull(result);
+        verify(productSearchService).removeProduct(product.getProductId());
         verify(productRepository).findById(anyLong());
-        verify(productRepository).delete(any(Product.class));
+        InOrder inOrder = inOrder(cartPurgeService, stockReservationService, inventoryService, productRepository);
+        inOrder.verify(cartPurgeService).purgeProductNow(1L);
+        inOrder.verify(stockReservationService).releaseProduct(1L);
+        inOrder.verify(inventoryService).removeShards(1L);
+        inOrder.verify(productRepository).delete(any(Product.class));
     }
 
     @Test
@@ -156,14 +259,14 @@ class ProductServiceImplTest {
 
         when(productRepository.save(any(Product.class))).thenReturn(product);
 
-        ProductDTO productDTO = new ProductDTO();
-        when(modelMapper.map(any(Product.class), eq(ProductDTO.class))).thenReturn(productDTO);
-
         ProductDTO result = productService.deleteProduct(1L);
 
         assertNotNull(result);
+        verify(productSearchService).indexProduct(product);
         verify(productRepository).findById(anyLong());
         verify(productRepository).save(any(Product.class));
+        verify(cartPurgeService).purgeProduct(1L);
+        verify(cartPurgeService, never()).purgeProductNow(anyLong());
     }
 
     @Test
@@ -174,9 +277,6 @@ class ProductServiceImplTest {
 
         when(productRepository.save(any(Product.class))).thenReturn(product);
 
-        ProductDTO productDTO = new ProductDTO();
-        when(modelMapper.map(any(Product.class), eq(ProductDTO.class))).thenReturn(productDTO);
-
         ProductDTO result = productService.unDeleteProduct(1L);
 
         assertNotNull(result);
@@ -196,29 +296,50 @@ class ProductServiceImplTest {
         product.setCartItems(cartItems);
 
         ProductDTO productDTO = new ProductDTO();
-        productDTO.setProductPrice(100.0);
+        productDTO.setProductQuantity(7);
+        productDTO.setProductPrice(new BigDecimal("100.00"));
         productDTO.setProductDiscountPercentage(10.0);
-        when(modelMapper.map(any(Product.class), eq(ProductDTO.class))).thenReturn(productDTO);
 
         ProductDTO result = productService.updateProduct(productDTO, 1L);
 
         assertNotNull(result);
         verify(productRepository).findById(anyLong());
         verify(productRepository).save(any(Product.class));
-        verify(cartItemRepository, times(cartItems.size())).save(any(CartItem.class));
+        verify(cartItemRepository, never()).save(any(CartItem.class));
+        verify(inventoryService).setStock(1L, 7);
+        verify(cartRepricingService).repriceCarts(same(product));
 
-        assertEquals(90.0, result.getProductSpecialPrice());
+        assertEquals(1L, product.getPriceVersion());
+        assertEquals(new BigDecimal("90.00"), result.getProductSpecialPrice());
     }
 
     @Test
-    void testUpdateProductImage() throws IOException {
+    void testUpdateProduct_UnchangedPriceLeavesCartsAlone() {
         Product product = new Product();
+        product.setProductPrice(new BigDecimal("100.00"));
+        product.setProductDiscountPercentage(10.0);
+        product.setPriceVersion(4L);
         when(productRepository.findById(anyLong())).thenReturn(Optional.of(product));
         when(productRepository.save(any(Product.class))).thenReturn(product);
-        when(fileService.uploadFile(anyString(), any(MultipartFile.class))).thenReturn("filename.png");
 
         ProductDTO productDTO = new ProductDTO();
-        when(modelMapper.map(any(Product.class), eq(ProductDTO.class))).thenReturn(productDTO);
+        productDTO.setProductName("Renamed phone");
+        productDTO.setProductQuantity(7);
+        productDTO.setProductPrice(new BigDecimal("100"));
+        productDTO.setProductDiscountPercentage(10.0);
+
+        productService.updateProduct(productDTO, 1L);
+
+        assertEquals(4L, product.getPriceVersion());
+        verifyNoInteractions(cartRepricingService);
+    }
+
+    @Test
+    void testUpdateProductImage() throws IOException {
+        Product product = new Product();
+        when(productRepository.findById(anyLong())).thenReturn(Optional.of(product));
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(fileService.uploadFile(anyString(), any(MultipartFile.class))).thenReturn("filename.png");
 
         ProductDTO result = productService.updateProductImage(1L, mock(MultipartFile.class));
 
@@ -0,0 +1,130 @@
+package com.shopit.project.service;
+
+import com.shopit.project.service.StockReservationLedger.Hold;
+import com.shopit.project.service.StockReservationLedger.Reservation;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockReservationLedgerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+    private static final LocalDateTime LATER = NOW.plusMinutes(15);
+
+    private final StockReservationLedger ledger = new StockReservationLedger(4);
+
+    @Test
+    void testTryReserve_CountsHoldsOfOtherCarts() {
+        assertNotNull(ledger.tryReserve(1L, 10L, 6, 10, LATER, NOW));
+        assertNull(ledger.tryReserve(1L, 11L, 5, 10, LATER, NOW));
+        assertNotNull(ledger.tryReserve(1L, 11L, 4, 10, LATER, NOW));
+
+        assertEquals(10, ledger.reserved(1L));
+        assertNull(ledger.hold(1L, 12L));
+    }
+
+    @Test
+    void testTryReserve_ReplacesTheCartsOwnHold() {
+        Reservation first = ledger.tryReserve(1L, 10L, 6, 10, LATER, NOW);
+        Reservation second = ledger.tryReserve(1L, 10L, 10, 10, LATER, NOW);
+
+        assertNull(first.replaced());
+        assertSame(first.placed(), second.replaced());
+        assertEquals(10, ledger.reserved(1L));
+        assertEquals(new Hold(10, LATER), ledger.hold(1L, 10L));
+    }
+
+    @Test
+    void testTryReserve_IgnoresExpiredHolds() {
+        assertNotNull(ledger.tryReserve(1L, 10L, 10, 10, NOW.plusMinutes(1), NOW));
+
+        assertNotNull(ledger.tryReserve(1L, 11L, 10, 10, LATER, NOW.plusMinutes(1)));
+        assertEquals(10, ledger.reserved(1L));
+        assertNull(ledger.hold(1L, 10L));
+    }
+
+    @Test
+    void testPut_RemovesAndRestoresHolds() {
+        ledger.tryReserve(1L, 10L, 3, 10, LATER, NOW);
+
+        Hold previous = ledger.put(1L, 10L, null);
+        assertEquals(0, ledger.reserved(1L));
+        assertEquals(0, ledger.size());
+
+        ledger.put(1L, 10L, previous);
+        assertEquals(3, ledger.reserved(1L));
+    }
+
+    @Test
+    void testRemoveProduct_DropsOnlyThatProductsHolds() {
+        ledger.tryReserve(1L, 10L, 3, 10, LATER, NOW);
+        ledger.tryReserve(1L, 11L, 2, 10, LATER, NOW);
+        ledger.tryReserve(2L, 10L, 4, 10, LATER, NOW);
+
+        ledger.removeProduct(1L);
+
+        assertEquals(0, ledger.reserved(1L));
+        assertEquals(4, ledger.reserved(2L));
+        assertEquals(1, ledger.size());
+    }
+
+    @Test
+    void testReplace_OnlyUndoesWhenTheHoldIsUnchanged() {
+        Reservation ours = ledger.tryReserve(1L, 10L, 3, 10, LATER, NOW);
+        Reservation theirs = ledger.tryReserve(1L, 10L, 5, 10, LATER, NOW);
+
+        assertFalse(ledger.replace(1L, 10L, ours.placed(), ours.replaced()));
+        assertSame(theirs.placed(), ledger.hold(1L, 10L));
+        assertEquals(5, ledger.reserved(1L));
+
+        assertTrue(ledger.replace(1L, 10L, theirs.placed(), theirs.replaced()));
+        assertSame(ours.placed(), ledger.hold(1L, 10L));
+        assertEquals(3, ledger.reserved(1L));
+
+        // equal but not the same hold
+        assertFalse(ledger.replace(1L, 10L, new Hold(3, LATER), null));
+        assertTrue(ledger.replace(1L, 10L, ours.placed(), null));
+        assertEquals(0, ledger.size());
+    }
+
+    @Test
+    void testExpire_DropsOnlyExpiredHolds() {
+        ledger.tryReserve(1L, 10L, 2, 10, NOW.plusMinutes(1), NOW);
+        ledger.tryReserve(2L, 10L, 3, 10, NOW.plusMinutes(1), NOW);
+        ledger.tryReserve(2L, 11L, 4, 10, LATER, NOW);
+
+        assertEquals(2, ledger.expire(NOW.plusMinutes(5)));
+
+        assertEquals(0, ledger.reserved(1L));
+        assertEquals(4, ledger.reserved(2L));
+        assertEquals(1, ledger.size());
+    }
+
+    @Test
+    void testTryReserve_ConcurrentCartsNeverOverReserve() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Reservation>> results = new ArrayList<>();
+        for (long cartId = 0; cartId < 100; cartId++) {
+            long id = cartId;
+            results.add(executor.submit(() -> ledger.tryReserve(1L, id, 1, 25, LATER, NOW)));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        long reserved = 0;
+        for (Future<Reservation> result : results) {
+            if (result.get() != null)
+                reserved++;
+        }
+        assertEquals(25, reserved);
+        assertEquals(25, ledger.reserved(1L));
+    }
+}
@@ -0,0 +1,267 @@
+package com.shopit.project.service;
+
+import com.shopit.project.exceptions.APIException;
+import com.shopit.project.model.Cart;
+import com.shopit.project.model.CartItem;
+import com.shopit.project.model.Product;
+import com.shopit.project.model.StockReservation;
+import com.shopit.project.repository.StockReservationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceImplTest {
+
+    @Mock
+    private StockReservationRepository stockReservationRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private StockReservationServiceImpl stockReservationService;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        stockReservationService = new StockReservationServiceImpl(stockReservationRepository, meterRegistry, 15, 2);
+
+        product = new Product();
+        product.setProductId(1L);
+        product.setProductName("Phone");
+        product.setProductQuantity(5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private Cart cart(Long cartId) {
+        Cart cart = new Cart();
+        cart.setCartId(cartId);
+        return cart;
+    }
+
+    private void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED)
+                synchronization.afterCommit();
+            synchronization.afterCompletion(status);
+        }
+    }
+
+    @Test
+    void testLoadReservations_RestoresActiveHolds() {
+        when(stockReservationRepository.findByExpiresAtAfter(any(LocalDateTime.class))).thenReturn(List.of(
+                new StockReservation(1L, 10L, 1L, 3, LocalDateTime.now().plusMinutes(5))));
+
+        stockReservationService.loadReservations();
+
+        assertEquals(2, stockReservationService.getAvailableToSell(product.getProductId(), product.getProductQuantity()));
+        assertEquals(1.0, meterRegistry.get("shopit.stock.reservations.active").gauge().value());
+    }
+
+    @Test
+    void testReserve_PersistsHoldAndReducesAvailability() {
+        when(stockReservationRepository.findByCartIdAndProductId(10L, 1L)).thenReturn(Optional.empty());
+
+        stockReservationService.reserve(cart(10L), product, 3);
+
+        ArgumentCaptor<StockReservation> saved = ArgumentCaptor.forClass(StockReservation.class);
+        verify(stockReservationRepository).save(saved.capture());
+        assertEquals(10L, saved.getValue().getCartId());
+        assertEquals(3, saved.getValue().getQuantity());
+        assertTrue(saved.getValue().getExpiresAt().isAfter(LocalDateTime.now().plusMinutes(14)));
+        assertEquals(2, stockReservationService.getAvailableToSell(product.getProductId(), product.getProductQuantity()));
+    }
+
+    @Test
+    void testReserve_RejectsWhenOtherCartsHoldTheStock() {
+        stockReservationService.reserve(cart(10L), product, 4);
+
+        APIException exception = assertThrows(APIException.class,
+                () -> stockReservationService.reserve(cart(11L), product, 2));
+
+        assertEquals("Product with the name Phone is not available for the requested quantity 2, " +
+                "available quantity is 1", exception.getMessage());
+        verify(stockReservationRepository, times(1)).save(any(StockReservation.class));
+    }
+
+    @Test
+    void testReserve_RollbackRestoresPreviousHold() {
+        stockReservationService.reserve(cart(10L), product, 1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        stockReservationService.reserve(cart(10L), product, 4);
+        assertEquals(1, stockReservationService.getAvailableToSell(product.getProductId(), product.getProductQuantity()));
+
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(4, stockReservationService.getAvailableToSell(product.getProductId(), product.getProductQuantity()));
+    }
+
+    @Test
+    void testReserve_RollbackKeepsHoldCommittedSince() {
+        TransactionSynchronizationManager.initSynchronization();
+        stockReservationService.reserve(cart(10L), product, 1);
+        List<TransactionSynchronization> rolledBack = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // a concurrent request on the same cart and product commits its hold first
+        stockReservationService.reserve(cart(10L), product, 4);
+
+        rolledBack.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertEquals(1, stockReservationService.getAvailableToSell(product.getProductId(), product.getProductQuantity()));
+    }
+
+    @Test
+    void testRelease_RollbackKeepsHoldCommittedSince() {
+        stockReservationService.reserve(cart(10L), product, 1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        stockReservationService.batch(cart(10L)).release(product);
+        List<TransactionSynchronization> rolledBack = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        stockReservationService.reserve(cart(10L), product, 4);
+
+        rolledBack.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertEquals(1, stockReservationService.getAvailableToSell(product.getProductId(), product.getProductQuantity()));
+    }
+
+    @Test
+    void testBatchRelease_FreesTheHold() {
+        stockReservationService.reserve(cart(10L), product, 5);
+
+        StockReservationService.Batch batch = stockReservationService.batch(cart(10L));
+        batch.release(product);
+        assertEquals(5, stockReservationService.getAvailableToSell(product.getProductId(), product.getProductQuantity()));
+        batch.write();
+
+        verify(stockReservationRepository).deleteByCartIdAndProductIdIn(10L, List.of(1L));
+        verify(stockReservationRepository, never()).findByCartIdAndProductIdIn(anyLong(), anyCollection());
+    }
+
+    @Test
+    void testRelease_FreesTheHoldsOfPurgedLines() {
+        stockReservationService.reserve(cart(10L), product, 2);
+        stockReservationService.reserve(cart(11L), product, 2);
+        stockReservationService.reserve(cart(12L), product, 1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        stockReservationService.release(product.getProductId(), List.of(10L, 11L));
+        verify(stockReservationRepository).deleteByProductIdAndCartIdIn(1L, List.of(10L, 11L));
+        assertEquals(4, stockReservationService.getAvailableToSell(product.getProductId(), product.getProductQuantity()));
+
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(0, stockReservationService.getAvailableToSell(product.getProductId(), product.getProductQuantity()));
+    }
+
+    @Test
+    void testReleaseProduct_DropsEveryHoldOnTheProduct() {
+        stockReservationService.reserve(cart(10L), product, 2);
+        stockReservationService.reserve(cart(11L), product, 3);
+
+        stockReservationService.releaseProduct(product.getProductId());
+
+        verify(stockReservationRepository).deleteByProductId(1L);
+        assertEquals(5, stockReservationService.getAvailableToSell(product.getProductId(), product.getProductQuantity()));
+        assertEquals(0.0, meterRegistry.get("shopit.stock.reservations.active").gauge().value());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBatchWrite_OneDeleteOneSelectAndOneSaveAllForAnyNumberOfHolds() {
+        Product tablet = new Product();
+        tablet.setProductId(2L);
+        tablet.setProductName("Tablet");
+        tablet.setProductQuantity(5);
+        Product watch = new Product();
+        watch.setProductId(3L);
+        watch.setProductName("Watch");
+        watch.setProductQuantity(5);
+        StockReservation existing = new StockReservation(7L, 10L, 2L, 1, LocalDateTime.now().plusMinutes(1));
+        when(stockReservationRepository.findByCartIdAndProductIdIn(eq(10L), anyCollection()))
+                .thenReturn(List.of(existing));
+
+        StockReservationService.Batch batch = stockReservationService.batch(cart(10L));
+        batch.reserve(product, 2);
+        batch.reserve(tablet, 3);
+        batch.release(product);
+        batch.reserve(watch, 1);
+        batch.reserve(tablet, 4);
+        // checked as they were made, so the availability already reflects the holds
+        assertEquals(1, stockReservationService.getAvailableToSell(tablet.getProductId(), tablet.getProductQuantity()));
+        batch.write();
+
+        verify(stockReservationRepository).deleteByCartIdAndProductIdIn(10L, List.of(1L));
+        verify(stockReservationRepository).findByCartIdAndProductIdIn(10L, Set.of(2L, 3L));
+        ArgumentCaptor<List<StockReservation>> saved = ArgumentCaptor.forClass(List.class);
+        verify(stockReservationRepository).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        assertSame(existing, saved.getValue().getFirst());
+        assertEquals(4, existing.getQuantity());
+        assertNull(saved.getValue().get(1).getReservationId());
+        assertEquals(3L, saved.getValue().get(1).getProductId());
+        assertEquals(1, saved.getValue().get(1).getQuantity());
+        verify(stockReservationRepository, never()).save(any(StockReservation.class));
+    }
+
+    @Test
+    void testConfirmAndConsume_ReservesMissingHoldsAndDropsThemAfterCommit() {
+        Cart cart = cart(10L);
+        CartItem cartItem = new CartItem();
+        cartItem.setProduct(product);
+        cartItem.setQuantity(2);
+        cart.getCartItems().add(cartItem);
+
+        TransactionSynchronizationManager.initSynchronization();
+        stockReservationService.confirm(cart);
+        verify(stockReservationRepository, times(1)).save(any(StockReservation.class));
+
+        stockReservationService.confirm(cart);
+        verify(stockReservationRepository, times(1)).save(any(StockReservation.class));
+
+        stockReservationService.consume(cart);
+        verify(stockReservationRepository).deleteByCartId(10L);
+        assertEquals(3, stockReservationService.getAvailableToSell(product.getProductId(), product.getProductQuantity()));
+
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(5, stockReservationService.getAvailableToSell(product.getProductId(), product.getProductQuantity()));
+    }
+
+    @Test
+    void testSweepExpiredReservations_DeletesInBatches() {
+        when(stockReservationRepository.deleteExpiredBatch(any(LocalDateTime.class), eq(2))).thenReturn(2, 1);
+
+        stockReservationService.sweepExpiredReservations();
+
+        verify(stockReservationRepository, times(2)).deleteExpiredBatch(any(LocalDateTime.class), eq(2));
+    }
+}
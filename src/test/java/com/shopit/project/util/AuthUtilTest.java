@@ -0,0 +1,69 @@
+package com.shopit.project.util;
+
+import com.shopit.project.model.User;
+import com.shopit.project.repository.UserRepository;
+import com.shopit.project.security.model.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthUtilTest {
+
+    @InjectMocks
+    private AuthUtil authUtil;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testLoggedInUser_UsesIdReferenceFromPrincipal() {
+        UserDetailsImpl principal = new UserDetailsImpl(1L, "testUser", null, null, Collections.emptyList());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        User reference = new User();
+        when(userRepository.getReferenceById(1L)).thenReturn(reference);
+
+        User user = authUtil.loggedInUser();
+
+        assertSame(reference, user);
+        verify(userRepository, never()).findByUserName(anyString());
+    }
+
+    @Test
+    void testLoggedInUser_FallsBackToUsernameLookup() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("testUser", null, Collections.emptyList()));
+        User user = new User("testUser", "testUser@mail.com", "password");
+        when(userRepository.findByUserName("testUser")).thenReturn(Optional.of(user));
+
+        assertSame(user, authUtil.loggedInUser());
+    }
+
+    @Test
+    void testLoggedInUser_UserNotFound() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("testUser", null, Collections.emptyList()));
+        when(userRepository.findByUserName("testUser")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> authUtil.loggedInUser());
+    }
+}
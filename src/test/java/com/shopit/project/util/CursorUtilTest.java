@@ -0,0 +1,68 @@
+package com.shopit.project.util;
+
+import com.shopit.project.exceptions.APIException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorUtilTest {
+
+    @Test
+    void testEncodeDecode_RoundTripsTypedKeys() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("productName", "Phone & Case = 50% off");
+        keys.put("productPrice", 99.5);
+        keys.put("productQuantity", 7);
+        keys.put("specialPrice", new BigDecimal("89.55"));
+        keys.put("orderDate", LocalDate.of(2024, 2, 29));
+        keys.put("productId", 42L);
+
+        String cursor = CursorUtil.encode(ScrollPosition.forward(keys));
+        KeysetScrollPosition position = CursorUtil.decode(cursor, "productName", "productId");
+
+        assertEquals(keys, position.getKeys());
+        assertTrue(position.scrollsForward());
+    }
+
+    @Test
+    void testDecode_RejectsCursorForDifferentSort() {
+        String cursor = CursorUtil.encode(ScrollPosition.forward(Map.of("productId", 42L)));
+
+        assertThrows(APIException.class, () -> CursorUtil.decode(cursor, "productName", "productId"));
+    }
+
+    @Test
+    void testDecode_RejectsCursorIssuedForAnotherSortOrder() {
+        Map<String, Object> keys = Map.of("productPrice", 99.5, "productId", 42L);
+        String cursor = CursorUtil.encode(ScrollPosition.forward(keys), Sort.by("productPrice").ascending());
+
+        assertEquals(keys, CursorUtil.decode(cursor, Sort.by("productPrice").ascending(),
+                "productPrice", "productId").getKeys());
+        assertThrows(APIException.class, () -> CursorUtil.decode(cursor, Sort.by("productPrice").descending(),
+                "productPrice", "productId"));
+        // both keys are present, yet the price keys would be compared against product ids
+        assertThrows(APIException.class, () -> CursorUtil.decode(cursor, Sort.by("productId").ascending(),
+                "productId", "productId"));
+        assertThrows(APIException.class, () -> CursorUtil.decode(cursor, "productPrice", "productId"));
+    }
+
+    @Test
+    void testDecode_RejectsTamperedCursor() {
+        assertThrows(APIException.class, () -> CursorUtil.decode("not a cursor!", "productId"));
+    }
+
+    @Test
+    void testEncode_RejectsUnsupportedKeyType() {
+        assertThrows(APIException.class,
+                () -> CursorUtil.encode(ScrollPosition.forward(Map.of("deleteDate", new Date()))));
+    }
+}
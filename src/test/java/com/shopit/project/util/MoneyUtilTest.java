@@ -0,0 +1,54 @@
+package com.shopit.project.util;
+
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.BigRange;
+import net.jqwik.api.constraints.DoubleRange;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.Scale;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyUtilTest {
+
+    @Test
+    void testSpecialPrice_RoundsHalfUpToCents() {
+        assertEquals(new BigDecimal("90.00"), MoneyUtil.specialPrice(new BigDecimal("100"), 10.0));
+        assertEquals(new BigDecimal("0.50"), MoneyUtil.specialPrice(new BigDecimal("0.99"), 50.0));
+        assertEquals(new BigDecimal("19.99"), MoneyUtil.specialPrice(new BigDecimal("19.99"), null));
+        assertNull(MoneyUtil.specialPrice(null, 10.0));
+    }
+
+    @Test
+    void testLineTotal_MultipliesRoundedUnitPrice() {
+        assertEquals(new BigDecimal("1.50"), MoneyUtil.lineTotal(new BigDecimal("0.99"), 50.0, 3));
+        assertNull(MoneyUtil.lineTotal(new BigDecimal("0.99"), 50.0, null));
+    }
+
+    @Property
+    void specialPriceIsWithinHalfACentOfTheExactPrice(
+            @ForAll @BigRange(min = "0.01", max = "99999.99") @Scale(2) BigDecimal price,
+            @ForAll @DoubleRange(min = 0, max = 100) @Scale(2) double discountPercentage) {
+        BigDecimal specialPrice = MoneyUtil.specialPrice(price, discountPercentage);
+        BigDecimal exact = price.subtract(price.multiply(BigDecimal.valueOf(discountPercentage)).movePointLeft(2));
+
+        assertEquals(MoneyUtil.SCALE, specialPrice.scale());
+        assertTrue(specialPrice.subtract(exact).abs().compareTo(new BigDecimal("0.005")) <= 0);
+        assertTrue(specialPrice.signum() >= 0 && specialPrice.compareTo(price) <= 0);
+    }
+
+    @Property
+    void lineTotalsAreAdditiveInQuantity(
+            @ForAll @BigRange(min = "0.01", max = "99999.99") @Scale(2) BigDecimal price,
+            @ForAll @DoubleRange(min = 0, max = 100) @Scale(2) double discountPercentage,
+            @ForAll @IntRange(max = 1000) int quantity,
+            @ForAll @IntRange(max = 1000) int extraQuantity) {
+        BigDecimal total = MoneyUtil.lineTotal(price, discountPercentage, quantity + extraQuantity);
+
+        assertEquals(total, MoneyUtil.lineTotal(price, discountPercentage, quantity)
+                .add(MoneyUtil.lineTotal(price, discountPercentage, extraQuantity)));
+    }
+}
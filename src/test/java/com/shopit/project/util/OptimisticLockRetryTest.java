@@ -0,0 +1,104 @@
+package com.shopit.project.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OptimisticLockRetryTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+
+    private OptimisticLockRetry optimisticLockRetry;
+
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        optimisticLockRetry = new OptimisticLockRetry(new TransactionTemplate(transactionManager), meterRegistry, 3, 0);
+    }
+
+    private String conflictingTimes(int conflicts) {
+        if (attempts.incrementAndGet() <= conflicts)
+            throw new ObjectOptimisticLockingFailureException(Object.class, 1L);
+        return "done";
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).tag("operation", "test").counter().count();
+    }
+
+    @Test
+    void testExecute_NoConflictRunsOnceInTransaction() {
+        assertEquals("done", optimisticLockRetry.execute("test", () -> conflictingTimes(0)));
+
+        assertEquals(1, attempts.get());
+        verify(transactionManager, times(1)).getTransaction(any(TransactionDefinition.class));
+        verify(transactionManager, times(1)).commit(any());
+        assertNull(meterRegistry.find("shopit.optimistic.lock.conflicts").counter());
+    }
+
+    @Test
+    void testExecute_RetriesInNewTransactionAfterConflict() {
+        assertEquals("done", optimisticLockRetry.execute("test", () -> conflictingTimes(2)));
+
+        assertEquals(3, attempts.get());
+        verify(transactionManager, times(3)).getTransaction(any(TransactionDefinition.class));
+        verify(transactionManager, times(2)).rollback(any());
+        assertEquals(2.0, counter("shopit.optimistic.lock.conflicts"));
+        assertNull(meterRegistry.find("shopit.optimistic.lock.exhausted").counter());
+    }
+
+    @Test
+    void testExecute_RethrowsConflictAfterMaxAttempts() {
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> optimisticLockRetry.execute("test", () -> conflictingTimes(5)));
+
+        assertEquals(3, attempts.get());
+        assertEquals(3.0, counter("shopit.optimistic.lock.conflicts"));
+        assertEquals(1.0, counter("shopit.optimistic.lock.exhausted"));
+    }
+
+    @Test
+    void testExecute_DoesNotRetryOtherFailures() {
+        assertThrows(IllegalStateException.class, () -> optimisticLockRetry.execute("test", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testExecute_InsideExistingTransactionRunsOnce() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThrows(ObjectOptimisticLockingFailureException.class,
+                    () -> optimisticLockRetry.execute("test", () -> conflictingTimes(1)));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        assertEquals(1, attempts.get());
+        verifyNoInteractions(transactionManager);
+    }
+}
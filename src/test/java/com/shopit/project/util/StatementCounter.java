@@ -0,0 +1,79 @@
+package com.shopit.project.util;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the statements a thread sends to the database, whether Hibernate or a JdbcTemplate
+ * repository sent them. The DataSource is wrapped so that every execute call on a JDBC statement
+ * is counted; a JDBC batch counts once, as it is one round trip.
+ */
+public class StatementCounter {
+
+    private final AtomicLong executedStatements = new AtomicLong();
+
+    private volatile Thread countedThread;
+
+    /**
+     * Wraps every DataSource bean of the context it is registered in.
+     */
+    public BeanPostProcessor dataSourceWrapper() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource) : bean;
+            }
+        };
+    }
+
+    /**
+     * Starts counting the statements of the calling thread from 0.
+     */
+    public void start() {
+        executedStatements.set(0);
+        countedThread = Thread.currentThread();
+    }
+
+    /**
+     * @return the statements counted since {@link #start()}
+     */
+    public long stop() {
+        countedThread = null;
+        return executedStatements.get();
+    }
+
+    private <T> T proxy(Class<T> type, T target) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Object result = invoke(method, target, args);
+                    if (target instanceof Statement && method.getName().startsWith("execute")
+                            && Thread.currentThread() == countedThread)
+                        executedStatements.incrementAndGet();
+                    if (result instanceof Connection connection)
+                        return proxy(Connection.class, connection);
+                    if (result instanceof Statement statement)
+                        return proxy(statementType(method.getReturnType()), statement);
+                    return result;
+                }));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<Statement> statementType(Class<?> returnType) {
+        return (Class<Statement>) returnType;
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}